@@ -1,67 +1,146 @@
-import org.apache.commons.math4.legacy.analysis.*;
-import org.apache.commons.math4.legacy.stat.descriptive.DescriptiveStatistics;
-
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
+import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
+import org.jfree.data.xy.DefaultXYDataset;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 public class ApachePSS {
 
+    // Widest and tallest createGraph's window is likely to be drawn, in pixels
+    private static final int SCREEN_WIDTH = 1920;
+    private static final int SCREEN_HEIGHT = 1080;
+
+    // The windowSize that averages every value so far, as DescriptiveStatistics.INFINITE_WINDOW did
+    public static final int INFINITE_WINDOW = -1;
+
     public ApachePSS(){
     }
 
     public static ArrayList<Point> SineGenerator(int numberOfPoints, double start, double end){
-        UnivariateFunction sine = x -> Math.sin(x);
-        ArrayList<Point> points = new ArrayList<>();
+        PointSeries series = SineSeries(numberOfPoints, start, end);
+        return series == null ? null : series.toList();
+    }
 
+    public static PointSeries SineSeries(int numberOfPoints, double start, double end){
+        return SineSeries(numberOfPoints, start, end, false);
+    }
+
+    // approximate trades the exact Math.sin values for SignalKernels.sineRamp, several times faster and
+    // within about 5e-15
+    public static PointSeries SineSeries(int numberOfPoints, double start, double end, boolean approximate){
         if(end<=start){
             return null;
         }
+        double[] xs = new double[Math.max(0, numberOfPoints)];
+        double[] ys = new double[xs.length];
 
         double step = (end - start) / (numberOfPoints - 1);
 
-        for (int i = 0; i < numberOfPoints; i++) {
-            double x = start + i * step;
-            double y = sine.value(x);
-            points.add(new Point(x, y));
+        SignalKernels.linspace(xs, start, step);
+        if (approximate) {
+            SignalKernels.sineRamp(ys, start, step);
+        } else {
+            SignalKernels.sine(ys, start, step);
         }
-        return points;
+        return PointSeries.wrap(xs, ys);
     }
 
     public static ArrayList<Point> Salter(ArrayList<Point> unsalted, double saltiness) {
         return PlotLibrary.Salt(unsalted, saltiness);
     }
 
+    public static PointSeries Salter(PointSeries unsalted, double saltiness) {
+        return PlotLibrary.Salt(unsalted, saltiness);
+    }
+
     public static ArrayList<Point> Smoother(ArrayList<Point> points, int windowSize) {
-        DescriptiveStatistics stats = new DescriptiveStatistics();
-        stats.setWindowSize(windowSize);
-        ArrayList<Point> smoothed = new ArrayList<>();
+        return Smoother(PointSeries.fromList(points), windowSize).toList();
+    }
+
+    // Mean of the last windowSize y values at each point, or of every value so far for a windowSize of -1
+    // (DescriptiveStatistics.INFINITE_WINDOW, which this used to be built on)
+    public static PointSeries Smoother(PointSeries points, int windowSize) {
+        if (windowSize == INFINITE_WINDOW) {
+            return PointSeries.wrap(points.toXArray(), cumulativeMeans(points.toYArray()));
+        }
+        RollingStatistics stats = new RollingStatistics(windowSize);
+        PointSeries smoothed = new PointSeries(points.size());
 
         for(int i = 0; i < points.size(); i++){
-            Point point = points.get(i);
-            stats.addValue(point.getY());
-            smoothed.add(new Point(point.getX(),stats.getMean()));
+            stats.addValue(points.getY(i));
+            smoothed.add(points.getX(i), stats.getMean());
         }
         return smoothed;
     }
 
-    public static void createGraph(ArrayList<Point> points, String name){
-        XYSeriesCollection dataset = new XYSeriesCollection();
-        XYSeries series = new XYSeries("Points");
-        for(int i = 0; i < points.size(); i++){
-            double x = points.get(i).getX();
-            double y = points.get(i).getY();
-            series.add(x, y);
+    public static PointSeries SmootherParallel(PointSeries points, int windowSize) {
+        return SmootherParallel(points, windowSize, ParallelChunks.DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    // Same means as Smoother, bit for bit. RollingStatistics recomputes its sums from the window after
+    // every window values, and from then on only depends on the values added since. So each chunk primes
+    // its own window from one full window before the last multiple of window at or before its start: it
+    // recomputes at that multiple exactly where the serial pass does, and both carry on identically.
+    // For a windowSize of -1 the running sums are a serial pass, and only the division is split up.
+    public static PointSeries SmootherParallel(PointSeries points, int windowSize, int threshold, ForkJoinPool pool) {
+        double[] ys = points.toYArray();
+        if (windowSize == INFINITE_WINDOW) {
+            double[] means = runningSums(ys);
+            ParallelChunks.run(pool, means.length, 1, threshold, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    means[i] /= i + 1;
+                }
+            });
+            return PointSeries.wrap(points.toXArray(), means);
         }
-        dataset.addSeries(series);
+        double[] means = new double[ys.length];
+        int window = windowSize;
+        ParallelChunks.run(pool, ys.length, 1, threshold, (from, to) -> {
+            RollingStatistics stats = new RollingStatistics(window);
+            int primed = Math.max(0, from / window * window - window);
+            for (int i = primed; i < from; i++) {
+                stats.addValue(ys[i]);
+            }
+            for (int i = from; i < to; i++) {
+                stats.addValue(ys[i]);
+                means[i] = stats.getMean();
+            }
+        });
+        return PointSeries.wrap(points.toXArray(), means);
+    }
+
+    // Mean of every value so far from a running sum, instead of a window as long as the series
+    private static double[] cumulativeMeans(double[] ys) {
+        double[] means = runningSums(ys);
+        for (int i = 0; i < means.length; i++) {
+            means[i] /= i + 1;
+        }
+        return means;
+    }
+
+    private static double[] runningSums(double[] ys) {
+        double[] sums = new double[ys.length];
+        double sum = 0;
+        for (int i = 0; i < ys.length; i++) {
+            sum += ys[i];
+            sums[i] = sum;
+        }
+        return sums;
+    }
+
+    public static void createGraph(ArrayList<Point> points, String name){
+        createGraph(PointSeries.fromList(points), name);
+    }
 
-        JFreeChart scatterPlot = ChartFactory.createScatterPlot((name +" Scatter Plot"), "x", "y", dataset);
+    public static void createGraph(PointSeries points, String name){
+        JFreeChart scatterPlot = createChart(points, name, SCREEN_WIDTH, SCREEN_HEIGHT);
         ChartPanel chartPanel = new ChartPanel(scatterPlot);
         JFrame frame = new JFrame();
         frame.add(chartPanel);
@@ -71,6 +150,36 @@ public class ApachePSS {
         frame.setVisible(true);
     }
 
+    // The scatter plot createGraph shows, without showing it. A series with more points than pixel columns is
+    // first cut down to one point per occupied pixel of a width x height chart, so a salted series stays a
+    // cloud; each mark can move by under a pixel. The points go into the dataset as two arrays in one call,
+    // firing a single change event, instead of one sorted insert and change event per point into an XYSeries.
+    public static JFreeChart createChart(PointSeries points, String name, int width, int height){
+        double[] xs = points.toXArray();
+        double[] ys = points.toYArray();
+        if (points.size() > width) {
+            int[] kept = Downsampler.perCell(xs, ys, Math.max(1, width), Math.max(1, height));
+            double[] keptXs = new double[kept.length];
+            double[] keptYs = new double[kept.length];
+            for (int i = 0; i < kept.length; i++) {
+                keptXs[i] = xs[kept[i]];
+                keptYs[i] = ys[kept[i]];
+            }
+            xs = keptXs;
+            ys = keptYs;
+        }
+        DefaultXYDataset dataset = new DefaultXYDataset();
+        dataset.addSeries("Points", new double[][] {xs, ys});
+
+        return ChartFactory.createScatterPlot((name +" Scatter Plot"), "x", "y", dataset);
+    }
+
+    // Renders the scatter plot straight to a PNG file with no window or display, so it works on a headless
+    // server (-Djava.awt.headless=true). Each call builds its own chart, so charts can be saved in parallel.
+    public static void saveChartAsPng(PointSeries points, String name, Path file, int width, int height) throws IOException {
+        ChartUtils.saveChartAsPNG(file.toFile(), createChart(points, name, width, height), width, height);
+    }
+
     public static void main(String[] args) {
         ArrayList<Point> points = SineGenerator(500, 0, 2 * Math.PI);
         createGraph(points, "Sine Wave");
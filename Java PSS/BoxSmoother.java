@@ -0,0 +1,16 @@
+/**
+ * The centered box average of PlotLibrary.Smooth as a Smoother.
+ */
+public class BoxSmoother implements Smoother {
+
+    private final int window;
+
+    public BoxSmoother(int window) {
+        this.window = window;
+    }
+
+    @Override
+    public void smooth(double[] ys, double[] out) {
+        SlidingWindowSmoother.smooth(ys, out, window);
+    }
+}
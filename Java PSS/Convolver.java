@@ -0,0 +1,228 @@
+import java.util.Arrays;
+
+/**
+ * Centered correlation of a series with a fixed odd-length kernel:
+ * out[i] = sum over k of kernel[k] * ys[i - radius + k], where points beyond either end count as zero.
+ *
+ * Narrow kernels are applied directly, at 2 * radius + 1 multiply-adds per point. Wide kernels go
+ * through FFT overlap-add: blocks of the series are transformed, multiplied by the kernel's spectrum
+ * and transformed back. Two real blocks share each complex transform, one in the real part and one in
+ * the imaginary part. That costs O(log width) per point instead of O(width). The kernel spectrum
+ * and all buffers are made once, in the constructor, so correlate() allocates nothing.
+ *
+ * out may be the same array as ys. An instance is not safe to use from two threads at once.
+ */
+public class Convolver {
+
+    // Widest kernel applied directly; from about 33 points the FFT path is faster (see the jmh ConvolutionBenchmark)
+    static final int DIRECT_MAX_WIDTH = 31;
+
+    private final double[] kernel;
+    private final int radius;
+    private final boolean fft;
+
+    // FFT path: transform size, block length, kernel spectrum and work buffers
+    private final int size;
+    private final int block;
+    private final double[] kernelRe;
+    private final double[] kernelIm;
+    private final double[] re;
+    private final double[] im;
+    private final double[] cos;
+    private final double[] sin;
+    private final int[] reversed;
+    // Sums still open for the 2 * radius points after the last finished block
+    private final double[] pending;
+    // Direct path: the original values of the last 2 * radius + 1 points, for running in place
+    private final double[] history;
+
+    public Convolver(double[] kernel) {
+        this(kernel, kernel.length > DIRECT_MAX_WIDTH);
+    }
+
+    public Convolver(double[] kernel, boolean fft) {
+        if (kernel.length % 2 == 0) {
+            throw new IllegalArgumentException("kernel length must be odd, got " + kernel.length);
+        }
+        this.kernel = kernel.clone();
+        this.radius = kernel.length / 2;
+        this.fft = fft;
+        if (!fft) {
+            this.history = new double[kernel.length];
+            this.size = 0;
+            this.block = 0;
+            this.kernelRe = null;
+            this.kernelIm = null;
+            this.re = null;
+            this.im = null;
+            this.cos = null;
+            this.sin = null;
+            this.reversed = null;
+            this.pending = null;
+            return;
+        }
+        this.history = null;
+        // About 8 kernel widths per transform keeps the overlap small next to the useful block
+        int n = Integer.highestOneBit(Math.max(64, 8 * kernel.length - 1)) << 1;
+        this.size = n;
+        this.block = n - 2 * radius;
+        this.re = new double[n];
+        this.im = new double[n];
+        this.cos = new double[n / 2];
+        this.sin = new double[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            cos[k] = Math.cos(2 * Math.PI * k / n);
+            sin[k] = Math.sin(2 * Math.PI * k / n);
+        }
+        this.reversed = new int[n];
+        int bits = Integer.numberOfTrailingZeros(n);
+        for (int k = 0; k < n; k++) {
+            reversed[k] = Integer.reverse(k) >>> (32 - bits);
+        }
+        this.pending = new double[2 * radius];
+
+        // Correlation is convolution with the reversed kernel; with a block at buffer positions
+        // [0, block), result j of the circular convolution is output point blockStart - radius + j
+        this.kernelRe = new double[n];
+        this.kernelIm = new double[n];
+        for (int m = 0; m < kernel.length; m++) {
+            kernelRe[m] = kernel[kernel.length - 1 - m];
+        }
+        transform(kernelRe, kernelIm, false);
+    }
+
+    public boolean usesFft() {
+        return fft;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public double[] correlate(double[] ys) {
+        double[] out = new double[ys.length];
+        correlate(ys, out);
+        return out;
+    }
+
+    public void correlate(double[] ys, double[] out) {
+        if (fft) {
+            correlateFft(ys, out, ys.length);
+        } else {
+            correlateDirect(ys, out, ys.length);
+        }
+    }
+
+    private void correlateDirect(double[] ys, double[] out, int n) {
+        int width = kernel.length;
+        for (int i = 0; i < n; i++) {
+            int lo = (int) Math.max(0, (long) i - radius);
+            int hi = (int) Math.min(n - 1L, (long) i + radius);
+            int k0 = lo - i + radius;
+            double sum = 0;
+            // Points before i may already be overwritten when running in place; their originals are in history
+            for (int j = lo; j < i && j <= hi; j++) {
+                sum += kernel[k0 + j - lo] * history[j % width];
+            }
+            for (int j = Math.max(lo, i); j <= hi; j++) {
+                sum += kernel[k0 + j - lo] * ys[j];
+            }
+            history[i % width] = ys[i];
+            out[i] = sum;
+        }
+    }
+
+    private void correlateFft(double[] ys, double[] out, int n) {
+        Arrays.fill(pending, 0);
+        for (int start = 0; start < n; start += 2 * block) {
+            int firstLength = Math.min(block, n - start);
+            int second = start + block;
+            int secondLength = Math.max(0, Math.min(block, n - second));
+
+            for (int j = 0; j < size; j++) {
+                re[j] = j < firstLength ? ys[start + j] : 0;
+                im[j] = j < secondLength ? ys[second + j] : 0;
+            }
+            transform(re, im, false);
+            for (int j = 0; j < size; j++) {
+                double r = re[j] * kernelRe[j] - im[j] * kernelIm[j];
+                double i = re[j] * kernelIm[j] + im[j] * kernelRe[j];
+                re[j] = r;
+                im[j] = i;
+            }
+            transform(re, im, true);
+
+            // The real part is the first block's contribution and the imaginary part the second's
+            emit(re, start, firstLength, out);
+            if (secondLength > 0) {
+                emit(im, second, secondLength, out);
+            }
+        }
+        // Whatever is still pending covers the last radius points
+        int tail = n - radius;
+        for (int j = 0; j < 2 * radius; j++) {
+            int p = tail + j;
+            if (p >= 0 && p < n) {
+                out[p] = pending[j];
+            }
+        }
+    }
+
+    // Adds one block's contribution to the sums pending from the blocks before it, writes out the points
+    // that no later block reaches, and keeps the last 2 * radius sums pending
+    private void emit(double[] result, int blockStart, int length, double[] out) {
+        int span = 2 * radius;
+        for (int j = 0; j < span; j++) {
+            result[j] += pending[j];
+        }
+        int first = blockStart - radius;
+        for (int j = 0; j < length; j++) {
+            int p = first + j;
+            if (p >= 0) {
+                out[p] = result[j];
+            }
+        }
+        System.arraycopy(result, length, pending, 0, span);
+    }
+
+    // In-place iterative radix-2 FFT; the inverse includes the 1 / size scaling
+    private void transform(double[] xr, double[] xi, boolean inverse) {
+        int n = size;
+        for (int k = 0; k < n; k++) {
+            int r = reversed[k];
+            if (r > k) {
+                double t = xr[k];
+                xr[k] = xr[r];
+                xr[r] = t;
+                t = xi[k];
+                xi[k] = xi[r];
+                xi[r] = t;
+            }
+        }
+        double sign = inverse ? 1 : -1;
+        for (int half = 1; half < n; half <<= 1) {
+            int stride = n / (2 * half);
+            for (int startIndex = 0; startIndex < n; startIndex += 2 * half) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * stride];
+                    double wi = sign * sin[k * stride];
+                    int a = startIndex + k;
+                    int b = a + half;
+                    double tr = xr[b] * wr - xi[b] * wi;
+                    double ti = xr[b] * wi + xi[b] * wr;
+                    xr[b] = xr[a] - tr;
+                    xi[b] = xi[a] - ti;
+                    xr[a] += tr;
+                    xi[a] += ti;
+                }
+            }
+        }
+        if (inverse) {
+            double scale = 1.0 / n;
+            for (int k = 0; k < n; k++) {
+                xr[k] *= scale;
+                xi[k] *= scale;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Exponential moving average: out[i] = out[i - 1] + alpha * (ys[i] - out[i - 1]), starting from ys[0].
+ * It trails the data, so it lags, but costs one multiply-add per point whatever its effective width.
+ */
+public class ExponentialSmoother implements Smoother {
+
+    private final double alpha;
+
+    public ExponentialSmoother(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("alpha must be in (0, 1], got " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    // The alpha whose average has the same centre of mass as a window-point box average
+    public static ExponentialSmoother ofSpan(int window) {
+        return new ExponentialSmoother(2.0 / (window + 1));
+    }
+
+    @Override
+    public void smooth(double[] ys, double[] out) {
+        if (ys.length == 0) {
+            return;
+        }
+        double average = ys[0];
+        out[0] = average;
+        for (int i = 1; i < ys.length; i++) {
+            average += alpha * (ys[i] - average);
+            out[i] = average;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Centered weighted average with a fixed odd-length kernel. Where the kernel hangs over either end
+ * of the series, the weights that fall inside are renormalized to sum to one, so the ends are not
+ * pulled towards zero. Wide kernels are applied by FFT (see Convolver).
+ */
+public class KernelSmoother implements Smoother {
+
+    private final int radius;
+    private final Convolver convolver;
+    // prefix[k] is the sum of kernel[0..k), for the weight that falls inside the series at the ends
+    private final double[] prefix;
+
+    public KernelSmoother(double[] kernel) {
+        if (kernel.length % 2 == 0) {
+            throw new IllegalArgumentException("kernel length must be odd, got " + kernel.length);
+        }
+        this.radius = kernel.length / 2;
+        this.convolver = new Convolver(kernel);
+        this.prefix = new double[kernel.length + 1];
+        for (int k = 0; k < kernel.length; k++) {
+            prefix[k + 1] = prefix[k] + kernel[k];
+        }
+    }
+
+    // Gaussian with standard deviation sigma, cut off at 3 sigma
+    public static KernelSmoother gaussian(double sigma) {
+        return gaussian(sigma, (int) Math.ceil(3 * sigma));
+    }
+
+    public static KernelSmoother gaussian(double sigma, int radius) {
+        if (!(sigma > 0) || radius < 0) {
+            throw new IllegalArgumentException("sigma must be positive and radius not negative");
+        }
+        double[] kernel = new double[2 * radius + 1];
+        for (int k = -radius; k <= radius; k++) {
+            kernel[k + radius] = Math.exp(-0.5 * (k / sigma) * (k / sigma));
+        }
+        return new KernelSmoother(kernel);
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    @Override
+    public void smooth(double[] ys, double[] out) {
+        int n = ys.length;
+        convolver.correlate(ys, out);
+        for (int i = 0; i < n; i++) {
+            int lo = (int) Math.max(0, (long) i - radius);
+            int hi = (int) Math.min(n - 1L, (long) i + radius);
+            out[i] /= prefix[hi - i + radius + 1] - prefix[lo - i + radius];
+        }
+    }
+}
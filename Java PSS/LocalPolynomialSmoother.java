@@ -0,0 +1,181 @@
+import java.util.Arrays;
+
+/**
+ * Smooths by fitting a weighted least-squares polynomial to the 2 * halfWindow + 1 points around each
+ * point and taking the fit's value there. On evenly spaced points the fit is linear in the data, so
+ * in the interior it reduces to a fixed row of convolution coefficients; this is precomputed once and
+ * smoothing is a correlation with it, by FFT for wide windows.
+ *
+ * Near the ends the window does not move past the data: the first and last halfWindow points are
+ * read off the fit to the first and last full window, at their own positions in it. Only the fitted
+ * polynomials for those positions are kept, and their weights are worked out as they are applied,
+ * so memory grows with the window rather than its square. The last halfWindow positions mirror the
+ * first, so they share polynomials.
+ */
+abstract class LocalPolynomialSmoother implements Smoother {
+
+    private final int halfWindow;
+    private final int degree;
+    // endFits[t]: coefficients of the polynomial whose value at window position t is the fit there
+    private final double[][] endFits;
+    // Applies the centre row, by FFT when the window is wide
+    private final Convolver centre;
+
+    // Working memory for fitting series shorter than a window
+    private final double[] moments;
+    private final double[][] gram;
+    private final double[] fit;
+
+    LocalPolynomialSmoother(int halfWindow, int degree) {
+        if (halfWindow < 0 || degree < 0) {
+            throw new IllegalArgumentException("halfWindow and degree must not be negative");
+        }
+        if (degree > 2 * halfWindow) {
+            throw new IllegalArgumentException("degree " + degree + " needs at least " + (degree + 1)
+                    + " points, but the window has " + (2 * halfWindow + 1));
+        }
+        this.halfWindow = halfWindow;
+        this.degree = degree;
+        int terms = degree + 1;
+        this.moments = new double[2 * terms - 1];
+        this.gram = new double[terms][terms];
+        this.fit = new double[terms];
+
+        int width = 2 * halfWindow + 1;
+        this.endFits = new double[halfWindow][];
+        for (int t = 0; t < halfWindow; t++) {
+            fitAt(width, t, terms);
+            endFits[t] = fit.clone();
+        }
+        fitAt(width, halfWindow, terms);
+        double[] row = new double[width];
+        for (int k = 0; k < width; k++) {
+            row[k] = rowWeight(width, halfWindow, fit, terms, k);
+        }
+        this.centre = new Convolver(row);
+    }
+
+    // Weight of a point at distance from the point being fitted; maxDistance is the farthest in its window
+    abstract double weight(int distance, int maxDistance);
+
+    public int getHalfWindow() {
+        return halfWindow;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    @Override
+    public void smooth(double[] ys, double[] out) {
+        int n = ys.length;
+        int width = 2 * halfWindow + 1;
+        if (n < width) {
+            if (n == 0) {
+                return;
+            }
+            int terms = Math.min(degree, n - 1) + 1;
+            for (int t = 0; t < n; t++) {
+                fitAt(n, t, terms);
+                out[t] = apply(ys, 0, 1, n, t, fit, terms);
+            }
+            return;
+        }
+        centre.correlate(ys, out);
+        int terms = degree + 1;
+        for (int t = 0; t < halfWindow; t++) {
+            out[t] = apply(ys, 0, 1, width, t, endFits[t], terms);
+            out[n - 1 - t] = apply(ys, n - 1, -1, width, t, endFits[t], terms);
+        }
+    }
+
+    // The fitted value at window position t: the window's points, read from ys at from, from + step, ...,
+    // each times its weight in that fit
+    private double apply(double[] ys, int from, int step, int size, int t, double[] c, int terms) {
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += rowWeight(size, t, c, terms, k) * ys[from + step * k];
+        }
+        return sum;
+    }
+
+    // Weight of window point k in the fitted value at window position t, given the fit's polynomial c
+    private double rowWeight(int size, int t, double[] c, int terms, int k) {
+        double u = position(size, k);
+        double value = 0;
+        double power = 1;
+        for (int p = 0; p < terms; p++) {
+            value += c[p] * power;
+            power *= u;
+        }
+        return weight(Math.abs(k - t), Math.max(t, size - 1 - t)) * value;
+    }
+
+    // Positions centred and scaled to [-1, 1] keep the normal equations well conditioned
+    private static double position(int size, int k) {
+        double half = (size - 1) / 2.0;
+        return (k - half) / Math.max(1, half);
+    }
+
+    // Leaves in fit the polynomial c with c . powers(u_k) * weight_k the weight of point k in the fitted
+    // value at position t of a window of size points: the solution of gram * c = powers(u_t), where gram
+    // holds the weighted moments of the positions
+    private void fitAt(int size, int t, int terms) {
+        Arrays.fill(moments, 0, 2 * terms - 1, 0);
+        int maxDistance = Math.max(t, size - 1 - t);
+        for (int k = 0; k < size; k++) {
+            double u = position(size, k);
+            double term = weight(Math.abs(k - t), maxDistance);
+            for (int p = 0; p < 2 * terms - 1; p++) {
+                moments[p] += term;
+                term *= u;
+            }
+        }
+        double u = position(size, t);
+        double power = 1;
+        for (int p = 0; p < terms; p++) {
+            for (int q = 0; q < terms; q++) {
+                gram[p][q] = moments[p + q];
+            }
+            fit[p] = power;
+            power *= u;
+        }
+        solve(gram, fit, terms);
+    }
+
+    // Solves the first n rows and columns of a * x = b in place by Gaussian elimination with partial
+    // pivoting; b becomes x
+    private static void solve(double[][] a, double[] b, int n) {
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < n; r++) {
+                if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) {
+                    pivot = r;
+                }
+            }
+            double[] row = a[col];
+            a[col] = a[pivot];
+            a[pivot] = row;
+            double tmp = b[col];
+            b[col] = b[pivot];
+            b[pivot] = tmp;
+            if (a[col][col] == 0) {
+                throw new ArithmeticException("Singular fit: too few weighted points for the degree");
+            }
+            for (int r = col + 1; r < n; r++) {
+                double f = a[r][col] / a[col][col];
+                for (int k = col; k < n; k++) {
+                    a[r][k] -= f * a[col][k];
+                }
+                b[r] -= f * b[col];
+            }
+        }
+        for (int r = n - 1; r >= 0; r--) {
+            double sum = b[r];
+            for (int k = r + 1; k < n; k++) {
+                sum -= a[r][k] * b[k];
+            }
+            b[r] = sum / a[r][r];
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * LOESS: a local polynomial fit over the 2 * halfWindow + 1 nearest points, weighted by the tricube
+ * (1 - (d / (D + 1))^3)^3 of each point's distance d, where D is the farthest distance in the window.
+ * Degree 1 is MATLAB's 'lowess' and degree 2 its 'loess', without the robust reweighting passes.
+ */
+public class LoessSmoother extends LocalPolynomialSmoother {
+
+    public LoessSmoother(int halfWindow, int degree) {
+        super(halfWindow, degree);
+    }
+
+    @Override
+    double weight(int distance, int maxDistance) {
+        double r = (double) distance / (maxDistance + 1);
+        double w = 1 - r * r * r;
+        return w * w * w;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits [0, n) into chunks that each start on a multiple of align and runs them on a fork-join pool.
+ * Ranges below the threshold, or a pool with a single worker, run on the calling thread instead.
+ */
+final class ParallelChunks {
+
+    // Series shorter than this are not worth the cost of forking
+    static final int DEFAULT_THRESHOLD = 1 << 18;
+
+    interface Range {
+        void run(int from, int to);
+    }
+
+    private ParallelChunks() {
+    }
+
+    static void run(ForkJoinPool pool, int n, int align, int threshold, Range range) {
+        if (n < threshold || pool.getParallelism() < 2) {
+            range.run(0, n);
+            return;
+        }
+        // A few chunks per worker so an uneven split still keeps every core busy
+        long perChunk = Math.max(align, (long) n / (pool.getParallelism() * 4L));
+        int leaf = (int) Math.min(Integer.MAX_VALUE - align, (perChunk + align - 1) / align * align);
+        pool.invoke(new Task(range, 0, n, align, leaf));
+    }
+
+    private static final class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Range range;
+        private final int from;
+        private final int to;
+        private final int align;
+        private final int leaf;
+
+        Task(Range range, int from, int to, int align, int leaf) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+            this.align = align;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leaf) {
+                range.run(from, to);
+                return;
+            }
+            int blocks = (int) (((long) to - from + align - 1) / align);
+            int mid = (int) (from + (long) (blocks / 2) * align);
+            invokeAll(new Task(range, from, mid, align, leaf), new Task(range, mid, to, align, leaf));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 import java.io.*;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 public class PlotLibrary {
 
@@ -9,35 +10,55 @@ public class PlotLibrary {
     }
 
     public static ArrayList<Point> PointsFromCsv(String filename) {
-        ArrayList<Point> data = null;
-        try {
-            data = new ArrayList<>();
-            String file = filename;
-            FileReader fr = new FileReader(file);
-            BufferedReader br = new BufferedReader(fr);
-
-            for (String line; ((line = br.readLine()) != null); ) {
-                String[] lineData = line.split(",");
-                double x = Double.parseDouble(lineData[0]);
-                double y = Double.parseDouble(lineData[1]);
-                data.add(new Point(x, y));
-            }
-            br.close();
+        PointSeries data = SeriesFromCsv(filename);
+        return data == null ? null : data.toList();
+    }
 
+    public static PointSeries SeriesFromCsv(String filename) {
+        PointSeries data = null;
+        try (PointCsvReader reader = new PointCsvReader(filename)) {
+            data = reader.readAll();
         } catch (Exception e) {
             e.printStackTrace();
         }
         return data;
     }
 
+    // Reads, salts, smooths and writes a point file chunk by chunk, so memory use does not grow with the file
+    public static void streamCsv(String inputFile, String outputFile, double salinity, int window, int chunkSize) {
+        try (PointCsvReader reader = new PointCsvReader(inputFile);
+             PointCsvWriter writer = new PointCsvWriter(outputFile)) {
+            StreamingSmoother smoother = new StreamingSmoother(window, chunkSize, writer);
+            reader.forEachChunk(chunkSize, chunk -> smoother.accept(Salt(chunk, salinity)));
+            smoother.finish();
+        } catch (IOException e) {
+            System.out.println("An error occurred while streaming the CSV file");
+            e.printStackTrace();
+        }
+    }
+
     public static void plotToCSV(ArrayList<Point> table, String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+        try (CsvWriter writer = new CsvWriter(filename)) {
             // Write the headers
-            writer.write("X,Y\n");
+            writer.header("X", "Y");
 
             for(int i=0; i < table.size(); i++) {
                 Point current = table.get(i);
-                writer.write(current.getX()+ "," + current.getY() + "\n");
+                writer.field(current.getX()).field(current.getY()).endRow();
+            }
+        } catch(IOException e) {
+            System.out.println("An error occurred while writing to the CSV file");
+            e.printStackTrace();
+        }
+    }
+
+    public static void plotToCSV(PointSeries table, String filename) {
+        try (CsvWriter writer = new CsvWriter(filename)) {
+            // Write the headers
+            writer.header("X", "Y");
+
+            for(int i=0; i < table.size(); i++) {
+                writer.field(table.getX(i)).field(table.getY(i)).endRow();
             }
         } catch(IOException e) {
             System.out.println("An error occurred while writing to the CSV file");
@@ -47,30 +68,74 @@ public class PlotLibrary {
 
 
     public static ArrayList<Point> plotParabola(double c, int n, int size, double density){
+        return parabolaSeries(c, n, size, density).toList();
+    }
+
+    public static PointSeries parabolaSeries(double c, int n, int size, double density){
+        return parabolaSeries(c, n, size, density, false);
+    }
+
+    // approximate trades the exact c * Math.pow(x, n) values for SignalKernels.powerBySquaring, several
+    // times faster for exponents other than 2 and off in the last bits
+    public static PointSeries parabolaSeries(double c, int n, int size, double density, boolean approximate){
         int number_of_points = (int)(size * density);
         double left_bound = -size/2;
-        double right_bound = size/2;
         double interval = (double)size/number_of_points;
-        ArrayList<Point> table = new ArrayList<>();
-        for(int i = 0; i <= number_of_points; i++){
-            double x = left_bound + (interval * i);
-            double y = c * Math.pow(x ,n);
-            table.add(new Point(x, y));
+        double[] xs = new double[Math.max(0, number_of_points + 1)];
+        double[] ys = new double[xs.length];
+        SignalKernels.linspace(xs, left_bound, interval);
+        if (approximate) {
+            SignalKernels.powerBySquaring(xs, c, n, ys);
+        } else {
+            SignalKernels.power(xs, c, n, ys);
         }
-        return table;
-}
+        return PointSeries.wrap(xs, ys);
+    }
+
+    // Salts the points in place with fresh noise on every call; use a SaltEngine for a reproducible copy
     public static ArrayList<Point> Salt(ArrayList<Point> points, double salinity){
-        ArrayList<Point> salted_points = points;
-        Random gen = new Random();
-        for(int i = 0; i < points.size(); i++){
-            Point current = salted_points.get(i);
-            double salted_y = current.getY() + (salinity * gen.nextDouble(-1,1));
-            current.setY(salted_y);
-        }
-        return salted_points;
+        return new SaltEngine(new SplittableRandom().nextLong(), SaltEngine.Noise.UNIFORM, salinity).saltInPlace(points);
+    }
+
+    public static PointSeries Salt(PointSeries points, double salinity){
+        return new SaltEngine(new SplittableRandom().nextLong(), SaltEngine.Noise.UNIFORM, salinity).saltInPlace(points);
     }
 
     public static ArrayList<Point> Smooth(ArrayList<Point> points, int window) {
+        return Smooth(PointSeries.fromList(points), window).toList();
+    }
+
+    public static PointSeries Smooth(PointSeries points, int window) {
+        // Running-sum smoother, linear in the number of points whatever the window
+        double[] avg_y = SlidingWindowSmoother.smooth(points.toYArray(), window);
+        return PointSeries.wrap(points.toXArray(), avg_y);
+    }
+
+    // Smooths with any of the Smoother filters: box, exponential, Savitzky-Golay, median, kernel or LOESS
+    public static ArrayList<Point> Smooth(ArrayList<Point> points, Smoother smoother) {
+        return smoother.smooth(PointSeries.fromList(points)).toList();
+    }
+
+    public static PointSeries Smooth(PointSeries points, Smoother smoother) {
+        return smoother.smooth(points);
+    }
+
+    public static ArrayList<Point> SmoothParallel(ArrayList<Point> points, int window) {
+        return SmoothParallel(PointSeries.fromList(points), window).toList();
+    }
+
+    public static PointSeries SmoothParallel(PointSeries points, int window) {
+        return SmoothParallel(points, window, ParallelChunks.DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    // Same output as Smooth, bit for bit, computed in chunks on the pool once the series reaches threshold points
+    public static PointSeries SmoothParallel(PointSeries points, int window, int threshold, ForkJoinPool pool) {
+        double[] avg_y = new double[points.size()];
+        SlidingWindowSmoother.smoothParallel(points.toYArray(), avg_y, window, threshold, pool);
+        return PointSeries.wrap(points.toXArray(), avg_y);
+    }
+
+    public static ArrayList<Point> SmoothNaive(ArrayList<Point> points, int window) {
         ArrayList<Point> smoothed_points = new ArrayList<>();
 
         for (int i = 0; i < points.size(); i++) {
@@ -0,0 +1,194 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Streams x,y points out of a CSV file without building a String per line.
+ *
+ * Bytes are read through a FileChannel into one reusable buffer and the numbers are parsed
+ * straight from it by AsciiParser. Blank lines and any non-numeric lines before the first point (such as the
+ * X,Y header written by plotToCSV) are skipped. Points are handed out in chunks, so the
+ * memory used does not depend on the size of the file.
+ */
+public class PointCsvReader implements Closeable {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private int position;
+    private int limit;
+    private boolean endOfFile;
+    private long lineNumber;
+    private long pointsRead;
+
+    // Fields parsed out of the current line
+    private double x;
+    private double y;
+
+    public PointCsvReader(String filename) throws IOException {
+        this(Paths.get(filename));
+    }
+
+    public PointCsvReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.bytes = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Reads up to maxPoints points into chunk, replacing what was there.
+     *
+     * @return the number of points read, 0 once the file is exhausted
+     */
+    public int read(PointSeries chunk, int maxPoints) throws IOException {
+        chunk.clear();
+        while (chunk.size() < maxPoints && nextPoint()) {
+            chunk.add(x, y);
+        }
+        return chunk.size();
+    }
+
+    /**
+     * Hands the whole file to consumer in chunks of up to chunkSize points. The same PointSeries
+     * is reused for every chunk, so consumers must not hold on to it.
+     *
+     * @throws IllegalArgumentException if chunkSize is not positive
+     */
+    public void forEachChunk(int chunkSize, Consumer<PointSeries> consumer) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        }
+        PointSeries chunk = new PointSeries(chunkSize);
+        while (read(chunk, chunkSize) > 0) {
+            consumer.accept(chunk);
+        }
+    }
+
+    public PointSeries readAll() throws IOException {
+        PointSeries all = new PointSeries();
+        while (nextPoint()) {
+            all.add(x, y);
+        }
+        return all;
+    }
+
+    // Advances to the next data line and parses it into x and y
+    private boolean nextPoint() throws IOException {
+        while (true) {
+            int end = findLineEnd();
+            if (end < 0) {
+                return false;
+            }
+            int start = position;
+            position = end + 1;
+            lineNumber++;
+
+            // Trim a trailing \r from Windows line endings
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            if (end == start) {
+                continue;
+            }
+
+            int comma = start;
+            while (comma < end && bytes[comma] != ',') {
+                comma++;
+            }
+            int secondEnd = comma + 1;
+            while (secondEnd < end && bytes[secondEnd] != ',') {
+                secondEnd++;
+            }
+            try {
+                if (comma >= end) {
+                    throw new IOException("no second column");
+                }
+                x = parseDouble(start, comma);
+                y = parseDouble(comma + 1, secondEnd);
+            } catch (IOException e) {
+                if (pointsRead == 0) {
+                    continue; // Header line
+                }
+                throw new IOException("Malformed point on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            pointsRead++;
+            return true;
+        }
+    }
+
+    // Index of the '\n' ending the current line, refilling the buffer as needed; -1 at end of file
+    private int findLineEnd() throws IOException {
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (bytes[scan] == '\n') {
+                    return scan;
+                }
+            }
+            if (endOfFile) {
+                if (position == limit) {
+                    return -1;
+                }
+                // Last line without a trailing newline: terminate it in place
+                if (limit == bytes.length) {
+                    compact();
+                }
+                bytes[limit] = '\n';
+                return limit++;
+            }
+            int scanned = scan - position;
+            fill();
+            scan = position + scanned;
+        }
+    }
+
+    // Moves the unread tail to the front of the buffer and reads more bytes after it
+    private void fill() throws IOException {
+        compact();
+        buffer.clear().position(limit);
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void compact() throws IOException {
+        int remaining = limit - position;
+        if (remaining == bytes.length) {
+            throw new IOException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+        }
+        System.arraycopy(bytes, position, bytes, 0, remaining);
+        position = 0;
+        limit = remaining;
+    }
+
+    // Parses a number from bytes[from, to), ignoring spaces around it
+    private double parseDouble(int from, int to) throws IOException {
+        while (from < to && bytes[from] == ' ') {
+            from++;
+        }
+        while (to > from && bytes[to - 1] == ' ') {
+            to--;
+        }
+        try {
+            return AsciiParser.parseDouble(buffer, from, to);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a number: \"" + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1) + "\"", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,35 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Appends chunks of points to a CSV file in the same X,Y layout as plotToCSV,
+ * so a streamed pipeline can write its output as it goes.
+ */
+public class PointCsvWriter implements Consumer<PointSeries>, Closeable {
+
+    private final CsvWriter writer;
+
+    public PointCsvWriter(String filename) throws IOException {
+        this.writer = new CsvWriter(filename);
+        // Write the headers
+        writer.header("X", "Y");
+    }
+
+    @Override
+    public void accept(PointSeries chunk) {
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                writer.field(chunk.getX(i)).field(chunk.getY(i)).endRow();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
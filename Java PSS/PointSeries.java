@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A series of points stored as two parallel double arrays instead of one Point object per sample.
+ *
+ * A series grows like an ArrayList when points are added. slice() returns a view that shares
+ * the backing arrays, so writes through a view are visible in the parent; views cannot grow.
+ */
+public class PointSeries {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] xs;
+    private double[] ys;
+    private final int offset;
+    private int size;
+    private final boolean view;
+
+    public PointSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PointSeries(int capacity) {
+        this.xs = new double[Math.max(capacity, 1)];
+        this.ys = new double[Math.max(capacity, 1)];
+        this.offset = 0;
+        this.size = 0;
+        this.view = false;
+    }
+
+    private PointSeries(double[] xs, double[] ys, int offset, int size, boolean view) {
+        this.xs = xs;
+        this.ys = ys;
+        this.offset = offset;
+        this.size = size;
+        this.view = view;
+    }
+
+    // Wraps the arrays without copying them; the series takes ownership and may replace them when it grows
+    public static PointSeries wrap(double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys must be the same length");
+        }
+        return new PointSeries(xs, ys, 0, xs.length, false);
+    }
+
+    public static PointSeries fromList(List<Point> points) {
+        PointSeries series = new PointSeries(points.size());
+        for (Point point : points) {
+            series.add(point.getX(), point.getY());
+        }
+        return series;
+    }
+
+    public ArrayList<Point> toList() {
+        ArrayList<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(xs[offset + i], ys[offset + i]));
+        }
+        return points;
+    }
+
+    public void add(double x, double y) {
+        if (view) {
+            throw new UnsupportedOperationException("Cannot add to a slice of a PointSeries");
+        }
+        if (size == xs.length) {
+            int capacity = xs.length + (xs.length >> 1) + 1;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    // Empties the series but keeps its arrays, so it can be refilled without allocating
+    public void clear() {
+        if (view) {
+            throw new UnsupportedOperationException("Cannot clear a slice of a PointSeries");
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getX(int i) {
+        return xs[offset + checkIndex(i)];
+    }
+
+    public double getY(int i) {
+        return ys[offset + checkIndex(i)];
+    }
+
+    public void setX(int i, double x) {
+        xs[offset + checkIndex(i)] = x;
+    }
+
+    public void setY(int i, double y) {
+        ys[offset + checkIndex(i)] = y;
+    }
+
+    public Point get(int i) {
+        return new Point(getX(i), getY(i));
+    }
+
+    // View of points [from, to) that shares storage with this series
+    public PointSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("slice [" + from + ", " + to + ") of size " + size);
+        }
+        return new PointSeries(xs, ys, offset + from, to - from, true);
+    }
+
+    // Independent copy with its own, exactly sized arrays
+    public PointSeries copy() {
+        return new PointSeries(Arrays.copyOfRange(xs, offset, offset + size),
+                Arrays.copyOfRange(ys, offset, offset + size), 0, size, false);
+    }
+
+    public double[] toXArray() {
+        return Arrays.copyOfRange(xs, offset, offset + size);
+    }
+
+    public double[] toYArray() {
+        return Arrays.copyOfRange(ys, offset, offset + size);
+    }
+
+    // Raw access for kernels that loop over the arrays directly; valid indices are [offset(), offset() + size())
+    double[] xs() {
+        return xs;
+    }
+
+    double[] ys() {
+        return ys;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        return "PointSeries{" +
+                "size=" + size +
+                '}';
+    }
+}
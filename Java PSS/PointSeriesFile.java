@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores a PointSeries as two binary columns, so reading it back is a memory map and a bulk copy
+ * instead of a CSV parse. Convert a plotToCSV file with
+ *   java PointSeriesFile Salted.csv [Salted.series] [--compress]
+ *
+ * Layout, little-endian: int magic "SERS", short version, short reserved, int size, int reserved,
+ * then an entry for the x and one for the y column (int encoding, int reserved, long offset,
+ * long length), with the column data from byte 64. A column is RAW doubles, or XOR: each value's
+ * bits XORed with the previous value's, written as a control byte (leading and trailing zero bytes)
+ * followed by the bytes between. XOR suits smooth or evenly spaced data, whose neighbours share
+ * their sign, exponent and top mantissa bits.
+ */
+public class PointSeriesFile {
+
+    static final String EXTENSION = ".series";
+
+    static final int MAGIC = 'S' | 'E' << 8 | 'R' << 16 | 'S' << 24;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int X_ENTRY = 16;
+    static final int Y_ENTRY = 40;
+
+    static final int RAW = 0;
+    static final int XOR = 1;
+
+    // Doubles converted per bulk put when writing raw columns
+    private static final int CHUNK = 1 << 16;
+
+    public PointSeriesFile(){
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        String input = null;
+        String output = null;
+        boolean compress = false;
+        for (String arg : args) {
+            if (arg.equals("--compress")) {
+                compress = true;
+            } else if (input == null) {
+                input = arg;
+            } else {
+                output = arg;
+            }
+        }
+        if (input == null) {
+            System.out.println("Usage: java PointSeriesFile <points.csv> [points" + EXTENSION + "] [--compress]");
+            System.exit(2);
+        }
+        if (output == null) {
+            int dot = input.lastIndexOf('.');
+            output = (dot > 0 ? input.substring(0, dot) : input) + EXTENSION;
+        }
+        PointSeries points;
+        try (PointCsvReader reader = new PointCsvReader(input)) {
+            points = reader.readAll();
+        }
+        write(output, points, compress);
+        System.out.println("Wrote " + output + ": " + points.size() + " points in "
+                + Files.size(Paths.get(output)) + " bytes");
+    }
+
+    public static void write(String filename, PointSeries points, boolean compress) throws IOException {
+        write(Paths.get(filename), points, compress);
+    }
+
+    public static void write(Path path, PointSeries points, boolean compress) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putShort(4, VERSION);
+        header.putInt(8, points.size());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            long end = writeColumn(channel, buffer, header, X_ENTRY, points.xs(), points.offset(), points.size(),
+                    compress, HEADER_SIZE);
+            writeColumn(channel, buffer, header, Y_ENTRY, points.ys(), points.offset(), points.size(),
+                    compress, (end + 7) & ~7L);
+            writeFully(channel, header, 0);
+        }
+    }
+
+    // Maps the file and copies both columns into a new series
+    public static PointSeries read(String filename) throws IOException {
+        return read(Paths.get(filename));
+    }
+
+    public static PointSeries read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException(path + " is not a series file: only " + fileSize + " bytes");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a series file");
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException(path + " has unsupported series file version " + header.getShort(4));
+            }
+            int size = header.getInt(8);
+            if (size < 0) {
+                throw new IOException(path + " has a corrupt series file header");
+            }
+            try {
+                double[] xs = readColumn(channel, header, X_ENTRY, size, path);
+                double[] ys = readColumn(channel, header, Y_ENTRY, size, path);
+                return PointSeries.wrap(xs, ys);
+            } catch (BufferUnderflowException e) {
+                throw new IOException(path + " is truncated: a compressed column ends early", e);
+            }
+        }
+    }
+
+    // Writes values[from, from + count) starting at file offset start, records it in the header and
+    // returns the offset after it
+    private static long writeColumn(FileChannel channel, ByteBuffer buffer, ByteBuffer header, int entry,
+                                    double[] values, int from, int count, boolean compress, long start)
+            throws IOException {
+        long position = start;
+        buffer.clear();
+        if (!compress) {
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            for (int i = 0; i < count; i += CHUNK) {
+                int length = Math.min(CHUNK, count - i);
+                doubles.clear();
+                doubles.put(values, from + i, length);
+                buffer.clear().limit(8 * length);
+                position = writeFully(channel, buffer, position);
+            }
+        } else {
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < 9) {
+                    buffer.flip();
+                    position = writeFully(channel, buffer, position);
+                    buffer.clear();
+                }
+                long bits = Double.doubleToRawLongBits(values[from + i]);
+                long xor = bits ^ previous;
+                previous = bits;
+                int leading = xor == 0 ? 8 : Long.numberOfLeadingZeros(xor) / 8;
+                int trailing = xor == 0 ? 0 : Long.numberOfTrailingZeros(xor) / 8;
+                buffer.put((byte) (leading << 4 | trailing));
+                long middle = xor >>> (8 * trailing);
+                for (int b = 8 - leading - trailing; b > 0; b--) {
+                    buffer.put((byte) middle);
+                    middle >>>= 8;
+                }
+            }
+            buffer.flip();
+            position = writeFully(channel, buffer, position);
+        }
+        header.putInt(entry, compress ? XOR : RAW);
+        header.putLong(entry + 8, start);
+        header.putLong(entry + 16, position - start);
+        return position;
+    }
+
+    private static double[] readColumn(FileChannel channel, ByteBuffer header, int entry, int size, Path path)
+            throws IOException {
+        int encoding = header.getInt(entry);
+        long offset = header.getLong(entry + 8);
+        long length = header.getLong(entry + 16);
+        if (offset < HEADER_SIZE || length < 0 || length > Integer.MAX_VALUE || offset + length > channel.size()) {
+            throw new IOException(path + " has a corrupt column entry at byte " + entry);
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+        double[] values = new double[size];
+        if (encoding == RAW) {
+            if (length != 8L * size) {
+                throw new IOException(path + " has " + length + " bytes for a column of " + size + " points");
+            }
+            bytes.asDoubleBuffer().get(values);
+        } else if (encoding == XOR) {
+            long bits = 0;
+            for (int i = 0; i < size; i++) {
+                int control = bytes.get() & 0xff;
+                int trailing = control & 15;
+                int count = 8 - (control >>> 4) - trailing;
+                long middle = 0;
+                for (int b = 0; b < count; b++) {
+                    middle |= (bytes.get() & 0xffL) << (8 * b);
+                }
+                bits ^= middle << (8 * trailing);
+                values[i] = Double.longBitsToDouble(bits);
+            }
+        } else {
+            throw new IOException(path + " has unknown column encoding " + encoding);
+        }
+        return values;
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+}
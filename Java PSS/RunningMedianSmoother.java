@@ -0,0 +1,156 @@
+/**
+ * Centered running median over 2 * window + 1 points, shrinking at the ends like PlotLibrary.Smooth.
+ * An even number of points gives the mean of the two middle values, as MATLAB's movmedian does.
+ *
+ * The window is split between a max-heap of its lower half and a min-heap of its upper half. Every
+ * value remembers which heap it is in and where, so the value leaving the window is removed directly
+ * instead of lazily, and each step costs O(log window) with no allocation.
+ */
+public class RunningMedianSmoother implements Smoother {
+
+    private final int window;
+    private final int capacity;
+
+    // Window values by slot (point index modulo capacity), and each slot's place in a heap
+    private final double[] values;
+    private final int[] heapIndex;
+    private final boolean[] inLow;
+
+    // Slot numbers; low is a max-heap, high a min-heap, and low holds the extra value when the count is odd
+    private final int[] low;
+    private final int[] high;
+    private int lowSize;
+    private int highSize;
+
+    public RunningMedianSmoother(int window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("window must not be negative, got " + window);
+        }
+        this.window = window;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * window + 1);
+        this.values = new double[capacity];
+        this.heapIndex = new int[capacity];
+        this.inLow = new boolean[capacity];
+        this.low = new int[capacity / 2 + 1];
+        this.high = new int[capacity / 2 + 1];
+    }
+
+    @Override
+    public void smooth(double[] ys, double[] out) {
+        int n = ys.length;
+        lowSize = 0;
+        highSize = 0;
+        int added = 0;
+        for (int i = 0; i < n; i++) {
+            // Remove before adding: the entering point reuses the leaving point's slot
+            long leaving = (long) i - window - 1;
+            if (leaving >= 0) {
+                remove((int) (leaving % capacity));
+            }
+            long last = Math.min(n - 1L, (long) i + window);
+            while (added <= last) {
+                insert(added % capacity, ys[added]);
+                added++;
+            }
+            out[i] = lowSize > highSize ? values[low[0]] : (values[low[0]] + values[high[0]]) / 2;
+        }
+    }
+
+    private void insert(int slot, double value) {
+        values[slot] = value;
+        if (lowSize == 0 || value <= values[low[0]]) {
+            push(true, slot);
+        } else {
+            push(false, slot);
+        }
+        rebalance();
+    }
+
+    private void remove(int slot) {
+        boolean fromLow = inLow[slot];
+        int[] heap = fromLow ? low : high;
+        int size = fromLow ? --lowSize : --highSize;
+        int i = heapIndex[slot];
+        if (i != size) {
+            int moved = heap[size];
+            place(fromLow, i, moved);
+            siftUp(fromLow, i);
+            siftDown(fromLow, heapIndex[moved]);
+        }
+        rebalance();
+    }
+
+    // Keeps lowSize == highSize or lowSize == highSize + 1
+    private void rebalance() {
+        if (lowSize > highSize + 1) {
+            int slot = low[0];
+            removeTop(true);
+            push(false, slot);
+        } else if (highSize > lowSize) {
+            int slot = high[0];
+            removeTop(false);
+            push(true, slot);
+        }
+    }
+
+    private void push(boolean toLow, int slot) {
+        int i = toLow ? lowSize++ : highSize++;
+        inLow[slot] = toLow;
+        place(toLow, i, slot);
+        siftUp(toLow, i);
+    }
+
+    private void removeTop(boolean fromLow) {
+        int[] heap = fromLow ? low : high;
+        int size = fromLow ? --lowSize : --highSize;
+        if (size > 0) {
+            place(fromLow, 0, heap[size]);
+            siftDown(fromLow, 0);
+        }
+    }
+
+    private void place(boolean isLow, int i, int slot) {
+        (isLow ? low : high)[i] = slot;
+        heapIndex[slot] = i;
+    }
+
+    // True if slot a belongs nearer the top than slot b
+    private boolean above(boolean isLow, int a, int b) {
+        return isLow ? values[a] > values[b] : values[a] < values[b];
+    }
+
+    private void siftUp(boolean isLow, int i) {
+        int[] heap = isLow ? low : high;
+        int slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!above(isLow, slot, heap[parent])) {
+                break;
+            }
+            place(isLow, i, heap[parent]);
+            i = parent;
+        }
+        place(isLow, i, slot);
+    }
+
+    private void siftDown(boolean isLow, int i) {
+        int[] heap = isLow ? low : high;
+        int size = isLow ? lowSize : highSize;
+        int slot = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && above(isLow, heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!above(isLow, heap[child], slot)) {
+                break;
+            }
+            place(isLow, i, heap[child]);
+            i = child;
+        }
+        place(isLow, i, slot);
+    }
+}
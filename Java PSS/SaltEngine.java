@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Seeded, reproducible noise for salting series.
+ *
+ * Point i of a series always gets its noise from block i / BLOCK, and every block has its own
+ * L64X128MixRandom stream seeded from (seed, block number). The noise therefore depends only on
+ * the seed and the point's index, never on how many threads ran or how the work was split, so a
+ * parallel run gives exactly the same series as a serial one. An engine has no mutable state and
+ * can be shared between threads.
+ *
+ * salt() returns a salted copy and leaves its input alone; saltInPlace() adds the noise to the
+ * input and returns it, like PlotLibrary.Salt.
+ */
+public class SaltEngine {
+
+    public enum Noise {
+        // amplitude is the half-width: uniform in [-amplitude, amplitude)
+        UNIFORM,
+        // amplitude is the standard deviation
+        GAUSSIAN,
+        // amplitude is the Cauchy scale (half-width at half-maximum); heavy-tailed, with no finite variance
+        CAUCHY
+    }
+
+    // Points per independent random stream, and the unit of parallel work
+    static final int BLOCK = 1 << 14;
+
+    private static final RandomGeneratorFactory<RandomGenerator> GENERATORS =
+            RandomGeneratorFactory.of("L64X128MixRandom");
+
+    private final long seed;
+    private final Noise noise;
+    private final double amplitude;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public SaltEngine(long seed, Noise noise, double amplitude) {
+        this(seed, noise, amplitude, ForkJoinPool.commonPool(), ParallelChunks.DEFAULT_THRESHOLD);
+    }
+
+    // Series of at least threshold points are salted in parallel on the pool
+    public SaltEngine(long seed, Noise noise, double amplitude, ForkJoinPool pool, int threshold) {
+        this.seed = seed;
+        this.noise = noise;
+        this.amplitude = amplitude;
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public PointSeries salt(PointSeries points) {
+        return saltInPlace(points.copy());
+    }
+
+    public PointSeries saltInPlace(PointSeries points) {
+        addNoise(points.ys(), points.offset(), points.offset() + points.size(), 0);
+        return points;
+    }
+
+    public ArrayList<Point> salt(ArrayList<Point> points) {
+        return saltInPlace(PointSeries.fromList(points)).toList();
+    }
+
+    public ArrayList<Point> saltInPlace(ArrayList<Point> points) {
+        PointSeries salted = saltInPlace(PointSeries.fromList(points));
+        for (int i = 0; i < points.size(); i++) {
+            points.get(i).setY(salted.getY(i));
+        }
+        return points;
+    }
+
+    // Adds the noise of points firstIndex, firstIndex + 1, ... to ys[from..to). Salting a long series
+    // chunk by chunk with the right firstIndex gives the same result as salting it all at once.
+    public void addNoise(double[] ys, int from, int to, long firstIndex) {
+        if (firstIndex < 0) {
+            throw new IllegalArgumentException("firstIndex must not be negative, got " + firstIndex);
+        }
+        int n = to - from;
+        // Finish the block firstIndex starts in, so the parallel chunks after it start on block boundaries
+        int head = (int) Math.min(n, (BLOCK - firstIndex % BLOCK) % BLOCK);
+        fill(ys, from, from + head, firstIndex);
+        ParallelChunks.run(pool, n - head, BLOCK, threshold,
+                (a, b) -> fill(ys, from + head + a, from + head + b, firstIndex + head + a));
+    }
+
+    private void fill(double[] ys, int from, int to, long index) {
+        int i = from;
+        while (i < to) {
+            long block = index / BLOCK;
+            int skip = (int) (index - block * BLOCK);
+            int count = Math.min(to - i, BLOCK - skip);
+            RandomGenerator random = generator(block);
+            for (int k = 0; k < skip; k++) {
+                draw(random);
+            }
+            switch (noise) {
+                case UNIFORM:
+                    SignalKernels.addUniformNoise(ys, i, i + count, amplitude, random);
+                    break;
+                case GAUSSIAN:
+                    SignalKernels.addGaussianNoise(ys, i, i + count, amplitude, random);
+                    break;
+                default:
+                    SignalKernels.addCauchyNoise(ys, i, i + count, amplitude, random);
+                    break;
+            }
+            i += count;
+            index += count;
+        }
+    }
+
+    // Consumes exactly what the kernel would for one point
+    private void draw(RandomGenerator random) {
+        if (noise == Noise.GAUSSIAN) {
+            random.nextGaussian();
+        } else {
+            random.nextDouble();
+        }
+    }
+
+    private RandomGenerator generator(long block) {
+        // SplitMix64 finalizer, so neighbouring blocks get unrelated seeds
+        long z = seed + (block + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return GENERATORS.create(z ^ (z >>> 31));
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Savitzky-Golay filter: an unweighted least-squares polynomial of the given degree over each window
+ * of 2 * halfWindow + 1 points. It keeps peaks and slopes that a box average of the same width
+ * flattens; degree 0 and 1 give the plain box average in the interior.
+ */
+public class SavitzkyGolaySmoother extends LocalPolynomialSmoother {
+
+    public SavitzkyGolaySmoother(int halfWindow, int degree) {
+        super(halfWindow, degree);
+    }
+
+    @Override
+    double weight(int distance, int maxDistance) {
+        return 1;
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Bulk generator and salting kernels over primitive arrays, for building very large synthetic series.
+ *
+ * Every kernel is a plain counted loop over whole arrays, or over strips of STRIP elements that stay
+ * in L1, so there is no per-point call, boxing or lambda and C2 can unroll and auto-vectorize
+ * (SuperWord) the arithmetic passes. When the run has --add-modules jdk.incubator.vector, linspace,
+ * power with an exponent of 2, polynomial and the noise passes use VectorSignalKernels instead, which
+ * gives the same bits.
+ *
+ * power and sine give exactly c * Math.pow(x, n) and Math.sin(x), as the generators always have.
+ * powerBySquaring and sineRamp are 4-7x faster on 10M points but differ in the last bits (up to about
+ * 5e-15 for sine), so callers have to ask for them.
+ */
+public class SignalKernels {
+
+    // Elements per strip; three double strips fit comfortably in a 32 KB L1 cache
+    static final int STRIP = 1024;
+
+    // Points between exact re-seeds of the sine recurrence, which keeps its drift near 1e-15
+    static final int SINE_BLOCK = 64;
+
+    // Whether jdk.incubator.vector can be loaded; VectorSignalKernels is only touched when it can
+    static final boolean VECTOR = vectorApiAvailable();
+
+    public SignalKernels(){
+
+    }
+
+    private static boolean vectorApiAvailable() {
+        try {
+            Class.forName("jdk.incubator.vector.DoubleVector");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // out[i] = start + step * i
+    public static void linspace(double[] out, double start, double step) {
+        if (VECTOR) {
+            VectorSignalKernels.linspace(out, start, step);
+            return;
+        }
+        for (int i = 0; i < out.length; i++) {
+            out[i] = start + step * i;
+        }
+    }
+
+    // out[i] = c * Math.pow(xs[i], n), bit for bit
+    public static void power(double[] xs, double c, int n, double[] out) {
+        int len = Math.min(xs.length, out.length);
+        if (n == 2) {
+            square(xs, c, out, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            out[i] = c * Math.pow(xs[i], n);
+        }
+    }
+
+    // The parabola case: a loop C2 vectorizes, with the same bits as c * Math.pow(x, 2)
+    private static void square(double[] xs, double c, double[] out, int len) {
+        if (VECTOR) {
+            VectorSignalKernels.square(xs, c, out, len);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            out[i] = c * (xs[i] * xs[i]);
+        }
+    }
+
+    // out[i] = c * xs[i]^n by binary powering; n may be negative. Needs about log2(n) multiplies per
+    // point where Math.pow needs a full log/exp evaluation, but each multiply rounds, so for exponents
+    // other than 2 the result can differ from power in the last bits.
+    public static void powerBySquaring(double[] xs, double c, int n, double[] out) {
+        int len = Math.min(xs.length, out.length);
+        if (n == 2) {
+            square(xs, c, out, len);
+            return;
+        }
+        long e = Math.abs((long) n);
+        for (int i = 0; i < len; i++) {
+            double result = 1;
+            double base = xs[i];
+            for (long bits = e; bits != 0; bits >>>= 1) {
+                if ((bits & 1) != 0) {
+                    result *= base;
+                }
+                if (bits > 1) {
+                    base *= base;
+                }
+            }
+            out[i] = n < 0 ? c / result : c * result;
+        }
+    }
+
+    // out[i] = coefficients[0] + coefficients[1] * x + coefficients[2] * x^2 + ..., by Horner's rule
+    // run one coefficient at a time across a strip, so each pass is a single multiply-add per element
+    public static void polynomial(double[] xs, double[] coefficients, double[] out) {
+        int len = Math.min(xs.length, out.length);
+        int degree = coefficients.length - 1;
+        for (int from = 0; from < len; from += STRIP) {
+            int to = Math.min(len, from + STRIP);
+            double top = degree < 0 ? 0 : coefficients[degree];
+            for (int i = from; i < to; i++) {
+                out[i] = top;
+            }
+            for (int k = degree - 1; k >= 0; k--) {
+                double coefficient = coefficients[k];
+                if (VECTOR) {
+                    VectorSignalKernels.hornerStep(xs, coefficient, out, from, to);
+                    continue;
+                }
+                for (int i = from; i < to; i++) {
+                    out[i] = out[i] * xs[i] + coefficient;
+                }
+            }
+        }
+    }
+
+    // out[i] = Math.sin(start + step * i), bit for bit
+    public static void sine(double[] out, double start, double step) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sin(start + step * i);
+        }
+    }
+
+    // out[i] = sin(start + step * i) to within about 5e-15. Within a block each value is rotated from
+    // the previous one with two multiply-adds instead of a Math.sin call; every block starts again from
+    // an exact Math.sin/cos
+    public static void sineRamp(double[] out, double start, double step) {
+        double stepSin = Math.sin(step);
+        double stepCos = Math.cos(step);
+        for (int from = 0; from < out.length; from += SINE_BLOCK) {
+            int to = Math.min(out.length, from + SINE_BLOCK);
+            double x = start + step * from;
+            double s = Math.sin(x);
+            double c = Math.cos(x);
+            for (int i = from; i < to; i++) {
+                out[i] = s;
+                double next = s * stepCos + c * stepSin;
+                c = c * stepCos - s * stepSin;
+                s = next;
+            }
+        }
+    }
+
+    // ys[from..to) += amplitude * u with u uniform in [-1, 1). The raw doubles are drawn into a strip
+    // first so the scale-and-add pass is a separate, vectorizable loop.
+    public static void addUniformNoise(double[] ys, int from, int to, double amplitude, RandomGenerator random) {
+        double[] noise = new double[Math.min(STRIP, Math.max(to - from, 1))];
+        double scale = 2 * amplitude;
+        for (int start = from; start < to; start += STRIP) {
+            int end = Math.min(to, start + STRIP);
+            for (int i = 0; i < end - start; i++) {
+                noise[i] = random.nextDouble();
+            }
+            addScaled(ys, start, noise, end - start, scale, amplitude);
+        }
+    }
+
+    // ys[from..to) += sigma * z with z standard normal, one nextGaussian() per point
+    public static void addGaussianNoise(double[] ys, int from, int to, double sigma, RandomGenerator random) {
+        double[] noise = new double[Math.min(STRIP, Math.max(to - from, 1))];
+        for (int start = from; start < to; start += STRIP) {
+            int end = Math.min(to, start + STRIP);
+            for (int i = 0; i < end - start; i++) {
+                noise[i] = random.nextGaussian();
+            }
+            addScaled(ys, start, noise, end - start, sigma, 0);
+        }
+    }
+
+    // ys[from..to) += scale * t with t standard Cauchy, one nextDouble() per point; the tails are heavy
+    // enough that a few points land far outside any plot range
+    public static void addCauchyNoise(double[] ys, int from, int to, double scale, RandomGenerator random) {
+        double[] noise = new double[Math.min(STRIP, Math.max(to - from, 1))];
+        for (int start = from; start < to; start += STRIP) {
+            int end = Math.min(to, start + STRIP);
+            for (int i = 0; i < end - start; i++) {
+                noise[i] = Math.tan(Math.PI * (random.nextDouble() - 0.5));
+            }
+            addScaled(ys, start, noise, end - start, scale, 0);
+        }
+    }
+
+    // ys[start + j] += noise[j] * scale - offset for j < count; an offset of 0 leaves noise[j] * scale as is
+    private static void addScaled(double[] ys, int start, double[] noise, int count, double scale, double offset) {
+        if (VECTOR) {
+            VectorSignalKernels.addScaled(ys, start, noise, count, scale, offset);
+            return;
+        }
+        for (int j = 0; j < count; j++) {
+            ys[start + j] += noise[j] * scale - offset;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Centered box smoother that keeps a running sum of the window instead of re-adding
+ * every value, so the cost is O(n) no matter how wide the window is.
+ *
+ * The running sum is compensated (Neumaier) and re-seeded from scratch at the start
+ * of every block, which keeps rounding drift bounded on very long series.
+ */
+public class SlidingWindowSmoother {
+
+    // Shortest distance between two re-seeds of the running sum
+    static final int MIN_BLOCK = 4096;
+
+    public SlidingWindowSmoother(){
+
+    }
+
+    public static double[] smooth(double[] ys, int window) {
+        double[] out = new double[ys.length];
+        smooth(ys, out, window);
+        return out;
+    }
+
+    public static void smooth(double[] ys, double[] out, int window) {
+        smoothRange(ys, out, window, 0, ys.length);
+    }
+
+    public static double[] smoothParallel(double[] ys, int window) {
+        double[] out = new double[ys.length];
+        smoothParallel(ys, out, window, ParallelChunks.DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+        return out;
+    }
+
+    // Splits the series on block boundaries, so every chunk re-seeds exactly where the serial pass
+    // would and the output is bit-identical to smooth(). Each chunk reads its window-wide halo straight
+    // from ys. Series shorter than threshold are smoothed on the calling thread.
+    public static void smoothParallel(double[] ys, double[] out, int window, int threshold, ForkJoinPool pool) {
+        int block = blockLength(Math.max(window, 0));
+        ParallelChunks.run(pool, ys.length, block, threshold, (from, to) -> smoothRange(ys, out, window, from, to));
+    }
+
+    // Smooths out[from..to) using the whole of ys as the neighbourhood. from must be a block boundary.
+    static void smoothRange(double[] ys, double[] out, int window, int from, int to) {
+        int n = ys.length;
+        if (window < 0) {
+            // Same as the nested loop: an empty window averages to 0
+            for (int i = from; i < to; i++) {
+                out[i] = 0;
+            }
+            return;
+        }
+        int block = blockLength(window);
+        for (int blockStart = from; blockStart < to; blockStart += block) {
+            int blockEnd = (int) Math.min((long) blockStart + block, to);
+
+            // Seed the sum for the first index of the block
+            int lo = Math.max(0, blockStart - window);
+            int hi = (int) Math.min(n - 1L, (long) blockStart + window);
+            double sum = 0;
+            double comp = 0;
+            for (int j = lo; j <= hi; j++) {
+                double t = sum + ys[j];
+                comp += (Math.abs(sum) >= Math.abs(ys[j])) ? (sum - t) + ys[j] : (ys[j] - t) + sum;
+                sum = t;
+            }
+            out[blockStart] = (sum + comp) / (hi - lo + 1);
+
+            for (int i = blockStart + 1; i < blockEnd; i++) {
+                long entering = (long) i + window;
+                if (entering < n) {
+                    double v = ys[(int) entering];
+                    double t = sum + v;
+                    comp += (Math.abs(sum) >= Math.abs(v)) ? (sum - t) + v : (v - t) + sum;
+                    sum = t;
+                    hi++;
+                }
+                int leaving = i - window - 1;
+                if (leaving >= 0) {
+                    double v = -ys[leaving];
+                    double t = sum + v;
+                    comp += (Math.abs(sum) >= Math.abs(v)) ? (sum - t) + v : (v - t) + sum;
+                    sum = t;
+                    lo++;
+                }
+                out[i] = (sum + comp) / (hi - lo + 1);
+            }
+        }
+    }
+
+    // Re-seeding costs 2 * window + 1 adds, so keep blocks long enough for that to stay under ~1/8 of the work
+    static int blockLength(int window) {
+        long span = 2L * window + 1;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_BLOCK, 8 * span));
+    }
+
+    // The original O(n * window) loop, kept as the reference for tests and benchmarks
+    public static void smoothNaive(double[] ys, double[] out, int window) {
+        int n = ys.length;
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            int count = 0;
+            int start_index = (int) Math.max(0, (long) i - window);
+            int end_index = (int) Math.min(n - 1, (long) i + window);
+            for (int j = start_index; j <= end_index; j++) {
+                sum += ys[j];
+                count++;
+            }
+            out[i] = (count > 0) ? sum / count : 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * A smoothing filter over a series sampled at evenly spaced indices.
+ *
+ * Implementations keep whatever working memory they need from construction, so smooth(ys, out)
+ * allocates nothing and one instance can be reused for series after series. That working memory
+ * also means an instance must not be used by two threads at once.
+ */
+public interface Smoother {
+
+    // Writes the smoothed values of ys into out, which must be at least as long and must not be ys
+    void smooth(double[] ys, double[] out);
+
+    default double[] smooth(double[] ys) {
+        double[] out = new double[ys.length];
+        smooth(ys, out);
+        return out;
+    }
+
+    default PointSeries smooth(PointSeries points) {
+        return PointSeries.wrap(points.toXArray(), smooth(points.toYArray()));
+    }
+}
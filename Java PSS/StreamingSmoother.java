@@ -0,0 +1,121 @@
+import java.util.function.Consumer;
+
+/**
+ * Centered box smoother for series that arrive in chunks, such as from PointCsvReader.
+ *
+ * Gives the same averages as Smooth over the whole series to within rounding, but only keeps the last
+ * 2 * window + 1 values. Each smoothed point can only be emitted once the window values
+ * after it have arrived, so output lags input by window points; call finish() after the
+ * last chunk to flush the tail.
+ */
+public class StreamingSmoother implements Consumer<PointSeries> {
+
+    private final int window;
+    private final Consumer<PointSeries> downstream;
+    private final PointSeries out;
+    private final int chunkSize;
+
+    // Ring buffers of the most recent values, indexed by point number modulo their length
+    private final double[] xs;
+    private final double[] ys;
+    private final int block;
+    private long received;
+    private long lo;
+    private double sum;
+    private double comp;
+
+    // Hands downstream the smoothed points in chunks of chunkSize; throws IllegalArgumentException if
+    // chunkSize is not positive, as PointCsvReader.forEachChunk does
+    public StreamingSmoother(int window, int chunkSize, Consumer<PointSeries> downstream) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        }
+        this.window = window;
+        this.chunkSize = chunkSize;
+        this.downstream = downstream;
+        this.out = new PointSeries(chunkSize);
+        int ring = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, 2L * window + 2));
+        this.xs = new double[ring];
+        this.ys = new double[ring];
+        this.block = SlidingWindowSmoother.blockLength(Math.max(window, 0));
+    }
+
+    @Override
+    public void accept(PointSeries chunk) {
+        for (int i = 0; i < chunk.size(); i++) {
+            push(chunk.getX(i), chunk.getY(i));
+        }
+    }
+
+    public void push(double x, double y) {
+        if (window < 0) {
+            // Same as the nested loop: an empty window averages to 0
+            emit(x, 0);
+            return;
+        }
+        long j = received++;
+        long leaving = j - 2L * window - 1;
+        if (leaving >= 0) {
+            add(-ys[slot(leaving)]);
+            lo = leaving + 1;
+        }
+        xs[slot(j)] = x;
+        ys[slot(j)] = y;
+        add(y);
+        if (j % block == 0) {
+            reseed(j);
+        }
+
+        long center = j - window;
+        if (center >= 0) {
+            emit(xs[slot(center)], (sum + comp) / (j - lo + 1));
+        }
+    }
+
+    // Emits the last window points, whose windows are cut short by the end of the series
+    public void finish() {
+        if (window >= 0) {
+            long n = received;
+            for (long i = Math.max(0, n - window); i < n; i++) {
+                long leaving = i - window - 1;
+                if (leaving >= 0) {
+                    add(-ys[slot(leaving)]);
+                    lo = leaving + 1;
+                }
+                emit(xs[slot(i)], (sum + comp) / (n - lo));
+            }
+        }
+        if (!out.isEmpty()) {
+            downstream.accept(out);
+            out.clear();
+        }
+    }
+
+    private void emit(double x, double y) {
+        out.add(x, y);
+        if (out.size() == chunkSize) {
+            downstream.accept(out);
+            out.clear();
+        }
+    }
+
+    // Compensated (Neumaier) addition into the running sum
+    private void add(double v) {
+        double t = sum + v;
+        comp += (Math.abs(sum) >= Math.abs(v)) ? (sum - t) + v : (v - t) + sum;
+        sum = t;
+    }
+
+    // Recomputes the running sum from the buffered values so drift cannot build up
+    private void reseed(long j) {
+        sum = 0;
+        comp = 0;
+        for (long k = lo; k <= j; k++) {
+            add(ys[slot(k)]);
+        }
+    }
+
+    private int slot(long index) {
+        return (int) (index % xs.length);
+    }
+}
@@ -0,0 +1,76 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SignalKernels passes written with the Java Vector API (jdk.incubator.vector), for runs started
+ * with --add-modules jdk.incubator.vector. Each does the same multiplies and adds per element as the
+ * scalar loop it stands in for, with no fused multiply-add, so results are identical bit for bit.
+ *
+ * Only SignalKernels calls these, and only once its probe has found the module; without it this class
+ * is never loaded.
+ */
+final class VectorSignalKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // 0, 1, 2, ... for one vector
+    private static final double[] LANES = new double[SPECIES.length()];
+
+    static {
+        for (int i = 0; i < LANES.length; i++) {
+            LANES[i] = i;
+        }
+    }
+
+    private VectorSignalKernels() {
+    }
+
+    // out[i] = start + step * i
+    static void linspace(double[] out, double start, double step) {
+        DoubleVector lanes = DoubleVector.fromArray(SPECIES, LANES, 0);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            lanes.add(i).mul(step).add(start).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = start + step * i;
+        }
+    }
+
+    // out[i] = c * (xs[i] * xs[i]) for i < len
+    static void square(double[] xs, double c, double[] out, int len) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, xs, i);
+            x.mul(x).mul(c).intoArray(out, i);
+        }
+        for (; i < len; i++) {
+            out[i] = c * (xs[i] * xs[i]);
+        }
+    }
+
+    // out[i] = out[i] * xs[i] + coefficient for i in [from, to), one Horner step
+    static void hornerStep(double[] xs, double coefficient, double[] out, int from, int to) {
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, out, i).mul(DoubleVector.fromArray(SPECIES, xs, i))
+                    .add(coefficient).intoArray(out, i);
+        }
+        for (; i < to; i++) {
+            out[i] = out[i] * xs[i] + coefficient;
+        }
+    }
+
+    // ys[start + j] += noise[j] * scale - offset for j < count
+    static void addScaled(double[] ys, int start, double[] noise, int count, double scale, double offset) {
+        int j = 0;
+        for (int bound = SPECIES.loopBound(count); j < bound; j += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, ys, start + j)
+                    .add(DoubleVector.fromArray(SPECIES, noise, j).mul(scale).sub(offset))
+                    .intoArray(ys, start + j);
+        }
+        for (; j < count; j++) {
+            ys[start + j] += noise[j] * scale - offset;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Convolver's FFT path against its direct path and a plain loop, for random kernels on both sides of
+ * the width-31 crossover, writing to a separate array and in place.
+ */
+class ConvolverTest {
+
+    // Both sides of DIRECT_MAX_WIDTH, plus kernels wider than some of the series
+    private static final int[] WIDTHS = {1, 3, 5, 15, 29, 31, 33, 35, 63, 65, 127, 257, 1025};
+
+    // Shorter than a kernel, around a block and several blocks
+    private static final int[] LENGTHS = {0, 1, 2, 17, 100, 257, 1000, 4099};
+
+    // FFT results may be off by this much times the largest possible |out|, sum |kernel| * max |ys|
+    private static final double FFT_TOLERANCE = 1e-12;
+
+    @Test
+    void picksTheDirectPathUpToTheCrossover() {
+        assertFalse(new Convolver(new double[Convolver.DIRECT_MAX_WIDTH]).usesFft());
+        assertTrue(new Convolver(new double[Convolver.DIRECT_MAX_WIDTH + 2]).usesFft());
+    }
+
+    @Test
+    void fftMatchesDirect() {
+        Random random = new Random(31);
+        for (int width : WIDTHS) {
+            double[] kernel = randomValues(random, width);
+            Convolver direct = new Convolver(kernel, false);
+            Convolver fft = new Convolver(kernel, true);
+            for (int length : LENGTHS) {
+                double[] ys = randomValues(random, length);
+                double[] expected = correlate(kernel, ys);
+                double tolerance = FFT_TOLERANCE * sumOfAbs(kernel) * maxAbs(ys);
+                String where = "width " + width + " length " + length;
+
+                assertArrayEquals(expected, direct.correlate(ys), where + " direct");
+                assertArrayEquals(expected, inPlace(direct, ys), where + " direct in place");
+                // Twice each, as nothing from one call may carry over into the next
+                for (int run = 0; run < 2; run++) {
+                    assertClose(expected, fft.correlate(ys), tolerance, where + " fft");
+                    assertClose(expected, inPlace(fft, ys), tolerance, where + " fft in place");
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsEvenKernels() {
+        assertThrows(IllegalArgumentException.class, () -> new Convolver(new double[4]));
+    }
+
+    private static double[] inPlace(Convolver convolver, double[] ys) {
+        double[] out = ys.clone();
+        convolver.correlate(out, out);
+        return out;
+    }
+
+    // out[i] = sum over k of kernel[k] * ys[i - radius + k], zero beyond either end
+    private static double[] correlate(double[] kernel, double[] ys) {
+        int radius = kernel.length / 2;
+        double[] out = new double[ys.length];
+        for (int i = 0; i < ys.length; i++) {
+            double sum = 0;
+            for (int k = 0; k < kernel.length; k++) {
+                int j = i - radius + k;
+                if (j >= 0 && j < ys.length) {
+                    sum += kernel[k] * ys[j];
+                }
+            }
+            out[i] = sum;
+        }
+        return out;
+    }
+
+    private static void assertClose(double[] expected, double[] actual, double tolerance, String where) {
+        assertEquals(expected.length, actual.length, where);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], tolerance, where + " at " + i);
+        }
+    }
+
+    private static double[] randomValues(Random random, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextGaussian() * 100;
+        }
+        return values;
+    }
+
+    private static double sumOfAbs(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += Math.abs(value);
+        }
+        return sum;
+    }
+
+    private static double maxAbs(double[] values) {
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, Math.abs(value));
+        }
+        return max;
+    }
+}
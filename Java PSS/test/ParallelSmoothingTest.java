@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The parallel box and rolling-mean smoothers against their serial versions, compared as raw double
+ * bits. A threshold of 1 makes every series go through ParallelChunks, cut into several chunks.
+ */
+class ParallelSmoothingTest {
+
+    // Not multiples of any window below or of a re-seed block, which is at least 4096 long
+    private static final int[] LENGTHS = {0, 1, 2, 999, 4097, 3 * 4096 + 17, 8 * 4096 + 123, 50_001};
+
+    // 700 re-seeds every 11208 points instead of every MIN_BLOCK; 100_000 is wider than every series
+    private static final int[] WINDOWS = {1, 2, 7, 50, 700, 100_000};
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void smoothParallelMatchesSmooth() {
+        Random random = new Random(12);
+        for (int length : LENGTHS) {
+            PointSeries series = series(random, length);
+            for (int window : WINDOWS) {
+                String where = "length " + length + " window " + window;
+                PointSeries serial = PlotLibrary.Smooth(series, window);
+                assertSameBits(serial, PlotLibrary.SmoothParallel(series, window, 1, pool), where);
+
+                double[] out = new double[length];
+                SlidingWindowSmoother.smoothParallel(series.toYArray(), out, window, 1, pool);
+                assertSameBits(serial.toYArray(), out, where);
+            }
+        }
+    }
+
+    @Test
+    void smootherParallelMatchesSmoother() {
+        Random random = new Random(21);
+        for (int length : LENGTHS) {
+            PointSeries series = series(random, length);
+            for (int window : WINDOWS) {
+                assertSameBits(ApachePSS.Smoother(series, window), ApachePSS.SmootherParallel(series, window, 1, pool),
+                        "length " + length + " window " + window);
+            }
+            assertSameBits(ApachePSS.Smoother(series, ApachePSS.INFINITE_WINDOW),
+                    ApachePSS.SmootherParallel(series, ApachePSS.INFINITE_WINDOW, 1, pool),
+                    "length " + length + " infinite window");
+        }
+    }
+
+    @Test
+    void smoothMatchesNestedLoop() {
+        Random random = new Random(3);
+        double[] ys = series(random, 3 * 4096 + 17).toYArray();
+        for (int window : WINDOWS) {
+            double[] expected = new double[ys.length];
+            SlidingWindowSmoother.smoothNaive(ys, expected, window);
+            // The running sum is compensated, so it is close to the plain sums but not bit for bit
+            assertArrayEquals(expected, SlidingWindowSmoother.smooth(ys, window), 1e-9, "window " + window);
+        }
+    }
+
+    private static PointSeries series(Random random, int length) {
+        PointSeries series = new PointSeries(length);
+        for (int i = 0; i < length; i++) {
+            series.add(i, 0.05 * i * i / Math.max(1, length) + random.nextGaussian() * 50);
+        }
+        return series;
+    }
+
+    private static void assertSameBits(PointSeries expected, PointSeries actual, String where) {
+        assertSameBits(expected.toXArray(), actual.toXArray(), where + " x");
+        assertSameBits(expected.toYArray(), actual.toYArray(), where + " y");
+    }
+
+    private static void assertSameBits(double[] expected, double[] actual, String where) {
+        assertEquals(expected.length, actual.length, where);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                    where + " at " + i);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SaltEngine's noise may only depend on the seed and each point's index: the same on one thread as on
+ * several, the same from salt as from saltInPlace, and the same salted at once as salted in pieces.
+ * Arrays are compared as raw double bits.
+ */
+class SaltEngineTest {
+
+    // Several noise blocks and a partial one
+    private static final int LENGTH = 5 * SaltEngine.BLOCK + 123;
+
+    private static final long SEED = 0x5A17L;
+
+    private static ForkJoinPool single;
+    private static ForkJoinPool parallel;
+
+    @BeforeAll
+    static void startPools() {
+        single = new ForkJoinPool(1);
+        parallel = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPools() {
+        single.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    void sameOutputOnOneThreadAndSeveral() {
+        for (SaltEngine.Noise noise : SaltEngine.Noise.values()) {
+            double[] serial = new SaltEngine(SEED, noise, 3, single, 1).salt(parabola()).toYArray();
+            double[] threaded = new SaltEngine(SEED, noise, 3, parallel, 1).salt(parabola()).toYArray();
+            assertSameBits(serial, threaded, noise + " on 1 and 4 threads");
+        }
+    }
+
+    @Test
+    void sameSeedSameOutput() {
+        for (SaltEngine.Noise noise : SaltEngine.Noise.values()) {
+            double[] first = new SaltEngine(SEED, noise, 3, parallel, 1).salt(parabola()).toYArray();
+            double[] second = new SaltEngine(SEED, noise, 3, parallel, 1).salt(parabola()).toYArray();
+            assertSameBits(first, second, noise + " twice");
+            double[] other = new SaltEngine(SEED + 1, noise, 3, parallel, 1).salt(parabola()).toYArray();
+            assertFalse(Arrays.equals(first, other), noise + " with another seed");
+        }
+    }
+
+    @Test
+    void saltMatchesSaltInPlace() {
+        for (SaltEngine.Noise noise : SaltEngine.Noise.values()) {
+            SaltEngine engine = new SaltEngine(SEED, noise, 3, parallel, 1);
+            PointSeries input = parabola();
+            double[] copied = engine.salt(input).toYArray();
+            assertSameBits(parabola().toYArray(), input.toYArray(), noise + " salt changed its input");
+
+            PointSeries salted = engine.saltInPlace(input);
+            assertSame(input, salted, noise + " saltInPlace returned another series");
+            assertSameBits(copied, salted.toYArray(), noise + " salt and saltInPlace");
+        }
+    }
+
+    @Test
+    void piecesMatchWholeSeries() {
+        for (SaltEngine.Noise noise : SaltEngine.Noise.values()) {
+            SaltEngine engine = new SaltEngine(SEED, noise, 3, parallel, 1);
+            double[] whole = engine.salt(parabola()).toYArray();
+            double[] pieces = parabola().toYArray();
+            // Cuts inside blocks and on a block boundary
+            int[] cuts = {0, 1000, SaltEngine.BLOCK, 3 * SaltEngine.BLOCK + 7, LENGTH};
+            for (int c = 0; c + 1 < cuts.length; c++) {
+                engine.addNoise(pieces, cuts[c], cuts[c + 1], cuts[c]);
+            }
+            assertSameBits(whole, pieces, noise + " in pieces");
+        }
+    }
+
+    private static PointSeries parabola() {
+        PointSeries series = new PointSeries(LENGTH);
+        for (int i = 0; i < LENGTH; i++) {
+            double x = i - LENGTH / 2.0;
+            series.add(x, 1e-6 * x * x);
+        }
+        return series;
+    }
+
+    private static void assertSameBits(double[] expected, double[] actual, String where) {
+        assertEquals(expected.length, actual.length, where);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(actual[i]),
+                    where + " at " + i);
+        }
+    }
+}
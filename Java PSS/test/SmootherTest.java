@@ -0,0 +1,212 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The Smoother filters against brute-force results worked out window by window.
+ */
+class SmootherTest {
+
+    // 20 and 40 give kernels wider than Convolver.DIRECT_MAX_WIDTH, so the FFT path is covered too
+    private static final int[] HALF_WINDOWS = {1, 2, 5, 20, 40};
+
+    private static final int[] LENGTHS = {1, 2, 3, 10, 81, 1000};
+
+    // Relative to the largest |value| in the series
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void savitzkyGolayDegreeZeroIsTheBoxAverage() {
+        Random random = new Random(15);
+        for (int halfWindow : HALF_WINDOWS) {
+            int width = 2 * halfWindow + 1;
+            for (int length : LENGTHS) {
+                double[] ys = noise(random, length);
+                double[] box = new BoxSmoother(halfWindow).smooth(ys);
+                for (int degree = 0; degree <= 1; degree++) {
+                    double[] sg = new SavitzkyGolaySmoother(halfWindow, degree).smooth(ys);
+                    String where = "half window " + halfWindow + " degree " + degree + " length " + length;
+                    if (length < width) {
+                        // One fit over the whole series: a constant, or a line that is the mean at the centre
+                        if (degree == 0) {
+                            for (int i = 0; i < length; i++) {
+                                assertClose(mean(ys, 0, length), sg[i], ys, where + " at " + i);
+                            }
+                        }
+                        continue;
+                    }
+                    for (int i = halfWindow; i < length - halfWindow; i++) {
+                        assertClose(box[i], sg[i], ys, where + " at " + i);
+                    }
+                    if (degree == 0) {
+                        // The ends are read off the first and last full window
+                        for (int i = 0; i < halfWindow; i++) {
+                            assertClose(mean(ys, 0, width), sg[i], ys, where + " at " + i);
+                            assertClose(mean(ys, length - width, length), sg[length - 1 - i], ys,
+                                    where + " at " + (length - 1 - i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void savitzkyGolayTextbookCoefficients() {
+        double[] impulse = new double[11];
+        impulse[5] = 35;
+        double[] out = new SavitzkyGolaySmoother(2, 2).smooth(impulse);
+        assertArrayEquals(new double[] {-3, 12, 17, 12, -3}, Arrays.copyOfRange(out, 3, 8), 1e-12);
+    }
+
+    @Test
+    void polynomialsOfTheFitDegreePassThrough() {
+        Random random = new Random(51);
+        for (int halfWindow : HALF_WINDOWS) {
+            for (int degree = 0; degree <= Math.min(3, 2 * halfWindow); degree++) {
+                LocalPolynomialSmoother[] smoothers = {
+                        new SavitzkyGolaySmoother(halfWindow, degree),
+                        new LoessSmoother(halfWindow, degree)
+                };
+                for (int length : LENGTHS) {
+                    // A series shorter than the degree allows is fitted with a lower degree
+                    int fitted = Math.min(degree, length - 1);
+                    double[] ys = polynomial(random, fitted, length);
+                    for (LocalPolynomialSmoother smoother : smoothers) {
+                        String where = smoother.getClass().getSimpleName() + " half window " + halfWindow
+                                + " degree " + degree + " length " + length;
+                        double[] out = smoother.smooth(ys);
+                        for (int i = 0; i < length; i++) {
+                            assertClose(ys[i], out[i], ys, where + " at " + i);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void runningMedianMatchesSortAndPick() {
+        Random random = new Random(7);
+        // Even and odd windows; cut short at the ends, windows also hold an even number of points
+        for (int window : new int[] {0, 1, 2, 3, 4, 7, 10, 25}) {
+            RunningMedianSmoother median = new RunningMedianSmoother(window);
+            for (int length : LENGTHS) {
+                // Few distinct values, so most windows hold repeats
+                double[] ys = new double[length];
+                for (int i = 0; i < length; i++) {
+                    ys[i] = random.nextInt(6) - 2;
+                }
+                double[] expected = sortAndPick(ys, window);
+                // Twice, as the instance is reused
+                for (int run = 0; run < 2; run++) {
+                    assertArrayEquals(expected, median.smooth(ys), 0, "window " + window + " length " + length);
+                }
+            }
+        }
+    }
+
+    @Test
+    void kernelMatchesRenormalizedSum() {
+        Random random = new Random(30);
+        for (int halfWindow : HALF_WINDOWS) {
+            double[] kernel = new double[2 * halfWindow + 1];
+            for (int k = 0; k < kernel.length; k++) {
+                kernel[k] = 0.1 + random.nextDouble();
+            }
+            KernelSmoother smoother = new KernelSmoother(kernel);
+            for (int length : LENGTHS) {
+                double[] ys = noise(random, length);
+                double[] out = smoother.smooth(ys);
+                for (int i = 0; i < length; i++) {
+                    double sum = 0;
+                    double weight = 0;
+                    for (int k = 0; k < kernel.length; k++) {
+                        int j = i - halfWindow + k;
+                        if (j >= 0 && j < length) {
+                            sum += kernel[k] * ys[j];
+                            weight += kernel[k];
+                        }
+                    }
+                    assertClose(sum / weight, out[i], ys, "half window " + halfWindow + " length " + length
+                            + " at " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void exponentialMatchesRecurrence() {
+        Random random = new Random(2);
+        double[] ys = noise(random, 1000);
+        for (int span : new int[] {1, 2, 5, 101}) {
+            double alpha = 2.0 / (span + 1);
+            double[] expected = new double[ys.length];
+            expected[0] = ys[0];
+            for (int i = 1; i < ys.length; i++) {
+                expected[i] = expected[i - 1] + alpha * (ys[i] - expected[i - 1]);
+            }
+            assertArrayEquals(expected, ExponentialSmoother.ofSpan(span).smooth(ys), 0, "span " + span);
+        }
+    }
+
+    // Median of ys[i - window .. i + window] cut to the series, the mean of the middle two for an even count
+    private static double[] sortAndPick(double[] ys, int window) {
+        double[] out = new double[ys.length];
+        for (int i = 0; i < ys.length; i++) {
+            int lo = Math.max(0, i - window);
+            int hi = Math.min(ys.length - 1, i + window);
+            double[] sorted = Arrays.copyOfRange(ys, lo, hi + 1);
+            Arrays.sort(sorted);
+            int count = sorted.length;
+            out[i] = count % 2 == 1 ? sorted[count / 2] : (sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+        }
+        return out;
+    }
+
+    // Random coefficients, evaluated at x in [-2, 2]
+    private static double[] polynomial(Random random, int degree, int length) {
+        double[] coefficients = new double[degree + 1];
+        for (int p = 0; p <= degree; p++) {
+            coefficients[p] = random.nextGaussian() * 10;
+        }
+        double[] ys = new double[length];
+        for (int i = 0; i < length; i++) {
+            double x = length == 1 ? 0 : -2 + 4.0 * i / (length - 1);
+            double value = 0;
+            for (int p = degree; p >= 0; p--) {
+                value = value * x + coefficients[p];
+            }
+            ys[i] = value;
+        }
+        return ys;
+    }
+
+    private static double[] noise(Random random, int length) {
+        double[] ys = new double[length];
+        for (int i = 0; i < length; i++) {
+            ys[i] = 100 + random.nextGaussian() * 20;
+        }
+        return ys;
+    }
+
+    private static double mean(double[] ys, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += ys[i];
+        }
+        return sum / (to - from);
+    }
+
+    private static void assertClose(double expected, double actual, double[] ys, String where) {
+        double scale = 1;
+        for (double y : ys) {
+            scale = Math.max(scale, Math.abs(y));
+        }
+        assertEquals(expected, actual, TOLERANCE * scale, where);
+    }
+}
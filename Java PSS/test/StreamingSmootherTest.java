@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * StreamingSmoother against Smooth over the whole series, fed in chunks of every size and handing on
+ * chunks of the size it was given.
+ */
+class StreamingSmootherTest {
+
+    // Running sums are added up in a different order from Smooth's
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void matchesSmooth() {
+        Random random = new Random(3);
+        for (int length : new int[] {0, 1, 10, 1000}) {
+            PointSeries series = new PointSeries(length);
+            for (int i = 0; i < length; i++) {
+                series.add(i, random.nextDouble() * 100 - 50);
+            }
+            for (int window : new int[] {0, 1, 5, 50, 2000}) {
+                PointSeries expected = PlotLibrary.Smooth(series, window);
+                for (int chunkSize : new int[] {1, 3, 1000}) {
+                    for (int inputChunk : new int[] {1, 7, 1000}) {
+                        String where = "length " + length + " window " + window + " chunk " + chunkSize
+                                + " input " + inputChunk;
+                        List<PointSeries> chunks = new ArrayList<>();
+                        StreamingSmoother smoother = new StreamingSmoother(window, chunkSize,
+                                chunk -> chunks.add(chunk.copy()));
+                        for (int from = 0; from < length; from += inputChunk) {
+                            smoother.accept(series.slice(from, Math.min(length, from + inputChunk)));
+                        }
+                        smoother.finish();
+
+                        int i = 0;
+                        for (int c = 0; c < chunks.size(); c++) {
+                            PointSeries chunk = chunks.get(c);
+                            if (c < chunks.size() - 1) {
+                                assertEquals(chunkSize, chunk.size(), where);
+                            } else {
+                                assertTrue(chunk.size() > 0 && chunk.size() <= chunkSize, where);
+                            }
+                            for (int k = 0; k < chunk.size(); k++, i++) {
+                                assertEquals(expected.getX(i), chunk.getX(k), 0, where);
+                                assertEquals(expected.getY(i), chunk.getY(k), TOLERANCE, where + " point " + i);
+                            }
+                        }
+                        assertEquals(length, i, where);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void chunkSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new StreamingSmoother(5, 0, chunk -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingSmoother(5, -1, chunk -> { }));
+    }
+}
@@ -0,0 +1,385 @@
+import java.math.BigInteger;
+
+/**
+ * Formats numbers directly into ASCII bytes, without making a String for each field.
+ *
+ * Doubles are written in the shortest form that parses back to the same value, using the Schubfach
+ * algorithm (R. Giulietti, "The Schubfach way to render doubles", 2020). The layout is the one
+ * Double.toString uses: plain notation from 1e-3 up to 1e7 and d.dddE[-]n outside that range. On
+ * JDK 17, Double.toString sometimes prints one or two more digits than needed (JDK-4511638). This
+ * class always prints the shortest digits, which is what Double.toString prints from JDK 19 on, except
+ * for a few of the smallest subnormals, where JDK 19 prefers a closer two-digit decimal.
+ *
+ * @see AsciiParser
+ * @see CsvWriter
+ */
+public final class AsciiFormatter {
+
+    /**
+     * The most bytes formatDouble writes, as for "-2.2250738585072014E-308".
+     */
+    public static final int MAX_DOUBLE_LENGTH = 24;
+
+    /**
+     * The most bytes formatLong writes, as for "-9223372036854775808".
+     */
+    public static final int MAX_LONG_LENGTH = 20;
+
+    // Precision, smallest exponent and smallest normal significand of a double
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << 52;
+    // Subnormal significands below this are scaled by ten first, so the rounding has enough precision
+    private static final long C_TINY = 3;
+    // Range of decimal exponents k for which 10^-k is tabulated
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+    // Digits in the normalised decimal significand
+    private static final int H = 17;
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final long[] POWERS_OF_TEN = new long[H + 2];
+
+    // 126-bit approximations g = floor(10^-k * 2^-r) + 1 with 2^125 <= g < 2^126, split into
+    // the high and low 63 bits at index 2 * (k - K_MIN) and 2 * (k - K_MIN) + 1
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    // "00", "01", ..., "99"
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+        for (int k = K_MIN; k <= K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger g;
+            if (k <= 0) {
+                BigInteger power = BigInteger.TEN.pow(-k);
+                g = r >= 0 ? power.shiftRight(r) : power.shiftLeft(-r);
+            } else {
+                g = BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            }
+            g = g.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - K_MIN) + 1] = g.longValue() & MASK_63;
+        }
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private AsciiFormatter() {
+    }
+
+    /**
+     * Writes the shortest decimal text that parses back to value, laid out like Double.toString.
+     * NaN and the infinities are written as NaN, Infinity and -Infinity.
+     *
+     * @param value  The value to write.
+     * @param out    The array to write into; at least MAX_DOUBLE_LENGTH bytes must be free from offset.
+     * @param offset The index of the first byte to write.
+     * @return The index after the last byte written.
+     */
+    public static int formatDouble(double value, byte[] out, int offset) {
+        long bits = Double.doubleToRawLongBits(value);
+        long t = bits & (C_MIN - 1);
+        int bq = (int) (bits >>> (P - 1)) & 0x7ff;
+        if (bq == 0x7ff) {
+            return ascii(t != 0 ? "NaN" : bits < 0 ? "-Infinity" : "Infinity", out, offset);
+        }
+        int i = offset;
+        if (bits < 0) {
+            out[i++] = '-';
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude >= 1e-3 && magnitude < 1e7) {
+            // Prices and other values with at most six decimals. If m / 10^6 rounds to the value, then
+            // m * 10^-6 is the only multiple of 10^-6 within its rounding interval (which is narrower
+            // than 10^-6 below 2^33), so with trailing zeros dropped it is also the shortest decimal.
+            long m = Math.round(magnitude * 1e6);
+            if (m / 1e6 == magnitude) {
+                return fixed6(m, (int) magnitude, out, i);
+            }
+        }
+        if (bq != 0) {
+            int mq = -Q_MIN + 1 - bq;
+            long c = C_MIN | t;
+            // Integers below 2^53 are their own shortest decimal
+            if (0 < mq && mq < P) {
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return digits(f, 0, out, i);
+                }
+            }
+            return shortest(-mq, c, 0, out, i);
+        }
+        if (t != 0) {
+            return t < C_TINY ? shortest(Q_MIN, 10 * t, -1, out, i) : shortest(Q_MIN, t, 0, out, i);
+        }
+        out[i] = '0';
+        out[i + 1] = '.';
+        out[i + 2] = '0';
+        return i + 3;
+    }
+
+    /**
+     * Writes a long in decimal.
+     *
+     * @param value  The value to write.
+     * @param out    The array to write into; at least MAX_LONG_LENGTH bytes must be free from offset.
+     * @param offset The index of the first byte to write.
+     * @return The index after the last byte written.
+     */
+    public static int formatLong(long value, byte[] out, int offset) {
+        if (value == Long.MIN_VALUE) {
+            return ascii("-9223372036854775808", out, offset);
+        }
+        int i = offset;
+        if (value < 0) {
+            out[i++] = '-';
+            value = -value;
+        }
+        int length = 1;
+        while (length < 19 && value >= POWERS_OF_TEN[length]) {
+            length++;
+        }
+        int end = i + length;
+        int at = end;
+        // Peel off eight digits at a time, so only the first one or two splits need a 64-bit division
+        while (value >= 100_000_000) {
+            long q = value / 100_000_000;
+            at -= 8;
+            write8((int) (value - q * 100_000_000), out, at);
+            value = q;
+        }
+        writeInt((int) value, out, at);
+        return end;
+    }
+
+    // Writes m * 10^-6 in plain notation, given its integer part
+    private static int fixed6(long m, int integer, byte[] out, int offset) {
+        int fraction = (int) (m - integer * 1_000_000L);
+        int at = integer;
+        int length = 1;
+        while (at >= 10) {
+            at /= 10;
+            length++;
+        }
+        int dot = offset + length;
+        writeInt(integer, out, dot);
+        out[dot] = '.';
+        int high = fraction / 10_000;
+        int rest = fraction - high * 10_000;
+        out[dot + 1] = DIGIT_PAIRS[2 * high];
+        out[dot + 2] = DIGIT_PAIRS[2 * high + 1];
+        write4(rest, out, dot + 3);
+        return trimZeros(out, dot, dot + 7);
+    }
+
+    // Writes a non-negative int so that its last digit is just before end
+    private static void writeInt(int value, byte[] out, int end) {
+        int at = end;
+        while (value >= 100) {
+            int q = value / 100;
+            int pair = value - q * 100;
+            at -= 2;
+            out[at] = DIGIT_PAIRS[2 * pair];
+            out[at + 1] = DIGIT_PAIRS[2 * pair + 1];
+            value = q;
+        }
+        if (value >= 10) {
+            out[at - 2] = DIGIT_PAIRS[2 * value];
+            out[at - 1] = DIGIT_PAIRS[2 * value + 1];
+        } else {
+            out[at - 1] = (byte) ('0' + value);
+        }
+    }
+
+    // Finds the shortest decimal in the rounding interval of c * 2^q, preferring the closest to it,
+    // and writes it. dk corrects the exponent when c was scaled by ten.
+    private static int shortest(int q, long c, int dk, byte[] out, int offset) {
+        int open = (int) c & 1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        // The interval is symmetric except just above a power of two, where the gap below is half as wide
+        if (c != C_MIN || q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+        long vb = roundToOdd(g1, g0, cb << h);
+        long vbl = roundToOdd(g1, g0, cbl << h);
+        long vbr = roundToOdd(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // Try one digit fewer first: the multiples of ten either side of s
+            long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + open <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + open <= vbr;
+            if (upin != wpin) {
+                return digits(upin ? sp10 : tp10, k, out, offset);
+            }
+        } else {
+            // Only the smallest subnormals get here. Where Double.toString from JDK 19 on takes the closer
+            // of two digits, e.g. 9.9E-324 for 2 * Double.MIN_VALUE, take one digit if one rounds to the
+            // value (1.0E-323), checked against the true interval when c was scaled by ten
+            long half = dk == 0 ? 2 : 20;
+            int tinyOpen = dk == 0 ? open : (int) (c / 10) & 1;
+            long lower = roundToOdd(g1, g0, cb - half << h);
+            long upper = roundToOdd(g1, g0, cb + half << h);
+            long sp10 = s / 10 * 10;
+            long tp10 = sp10 + 10;
+            boolean upin = lower + tinyOpen <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + tinyOpen <= upper;
+            if (upin || wpin) {
+                long cmp = vb - (sp10 + tp10 << 1);
+                boolean lowerOne = upin && (!wpin || cmp < 0 || cmp == 0 && (sp10 / 10 & 1) == 0);
+                return digits(lowerOne ? sp10 : tp10, k + dk, out, offset);
+            }
+        }
+        long t = s + 1;
+        boolean uin = vbl + open <= s << 2;
+        boolean win = (t << 2) + open <= vbr;
+        if (uin != win) {
+            return digits(uin ? s : t, k + dk, out, offset);
+        }
+        // Both s and s + 1 are in the interval: take the closer, or the even one on a tie
+        long cmp = vb - (s + t << 1);
+        return digits(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk, out, offset);
+    }
+
+    // Writes f * 10^e, where f > 0 has at most 17 digits
+    private static int digits(long f, int e, byte[] out, int offset) {
+        int length = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+        if (f >= POWERS_OF_TEN[length]) {
+            length++;
+        }
+        // Normalise to 0.d1 d2 ... d17 * 10^e
+        f *= POWERS_OF_TEN[H - length];
+        e += length;
+        // Split into 1 + 8 + 8 digits by multiplying with reciprocals of 10^8 instead of dividing
+        long upper = Math.multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+        int low = (int) (f - upper * 100_000_000);
+        int first = (int) (upper * 1_441_151_881L >>> 57);
+        int middle = (int) (upper - first * 100_000_000L);
+
+        if (0 < e && e <= 7) {
+            // ddd.ddd: write the digits one place to the right, then move the integer part back over '.'
+            write17(first, middle, low, out, offset + 1);
+            for (int i = 0; i < e; i++) {
+                out[offset + i] = out[offset + i + 1];
+            }
+            out[offset + e] = '.';
+            return trimZeros(out, offset + e, offset + H + 1);
+        }
+        if (-3 < e && e <= 0) {
+            // 0.00ddd
+            out[offset] = '0';
+            out[offset + 1] = '.';
+            int at = offset + 2;
+            for (int i = 0; i < -e; i++) {
+                out[at++] = '0';
+            }
+            write17(first, middle, low, out, at);
+            return trimZeros(out, offset + 1, at + H);
+        }
+        // d.dddE[-]n
+        write17(first, middle, low, out, offset + 1);
+        out[offset] = out[offset + 1];
+        out[offset + 1] = '.';
+        int end = trimZeros(out, offset + 1, offset + H + 1);
+        out[end++] = 'E';
+        int exponent = e - 1;
+        if (exponent < 0) {
+            out[end++] = '-';
+            exponent = -exponent;
+        }
+        if (exponent >= 100) {
+            out[end++] = (byte) ('0' + exponent / 100);
+            exponent %= 100;
+            out[end++] = DIGIT_PAIRS[2 * exponent];
+            out[end++] = DIGIT_PAIRS[2 * exponent + 1];
+        } else if (exponent >= 10) {
+            out[end++] = DIGIT_PAIRS[2 * exponent];
+            out[end++] = DIGIT_PAIRS[2 * exponent + 1];
+        } else {
+            out[end++] = (byte) ('0' + exponent);
+        }
+        return end;
+    }
+
+    // Writes one digit, then two blocks of eight
+    private static void write17(int first, int middle, int low, byte[] out, int offset) {
+        out[offset] = (byte) ('0' + first);
+        write8(middle, out, offset + 1);
+        write8(low, out, offset + 9);
+    }
+
+    // Writes exactly eight digits, as two independent halves of four
+    private static void write8(int value, byte[] out, int offset) {
+        int high = value / 10_000;
+        write4(high, out, offset);
+        write4(value - high * 10_000, out, offset + 4);
+    }
+
+    private static void write4(int value, byte[] out, int offset) {
+        int high = value / 100;
+        int low = value - high * 100;
+        out[offset] = DIGIT_PAIRS[2 * high];
+        out[offset + 1] = DIGIT_PAIRS[2 * high + 1];
+        out[offset + 2] = DIGIT_PAIRS[2 * low];
+        out[offset + 3] = DIGIT_PAIRS[2 * low + 1];
+    }
+
+    // Drops trailing zeros from [.., end), keeping at least one digit after the point at index dot
+    private static int trimZeros(byte[] out, int dot, int end) {
+        while (end > dot + 2 && out[end - 1] == '0') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int ascii(String text, byte[] out, int offset) {
+        for (int i = 0; i < text.length(); i++) {
+            out[offset + i] = (byte) text.charAt(i);
+        }
+        return offset + text.length();
+    }
+
+    // Rounds g * cp / 2^127 to odd, where g = g1 * 2^63 + g0
+    private static long roundToOdd(long g1, long g0, long cp) {
+        long x1 = Math.multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = Math.multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    // floor(e * log10(2)) for |e| <= 5,456,721
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    // floor(e * log10(2) + log10(3/4)) for |e| <= 5,456,721
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    // floor(e * log2(10)) for |e| <= 1,838,394
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+}
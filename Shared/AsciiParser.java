@@ -0,0 +1,135 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses numbers directly out of ASCII bytes, without making a String for each field. Stock Bot's
+ * StockCsvLoader and Java PSS's PointCsvReader both read their files through it.
+ *
+ * @see AsciiFormatter
+ * @see IsoDate
+ */
+public final class AsciiParser {
+
+    // Exact powers of ten; a value with at most 15 significant digits and |exponent| <= 22
+    // is correctly rounded when its integer digits are multiplied or divided by one of these
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private AsciiParser() {
+    }
+
+    /**
+     * Parses a decimal number from the bytes in [from, to). Values with up to 15 significant digits
+     * and a decimal exponent, counting any E notation, within 22 of zero are parsed exactly without
+     * allocating; anything else, NaN and Infinity included, falls back to Double.parseDouble.
+     *
+     * @param bytes The buffer to read from, using absolute positions.
+     * @param from  The index of the first byte.
+     * @param to    The index after the last byte.
+     * @return The parsed value.
+     * @throws NumberFormatException If the bytes are not a number.
+     */
+    public static double parseDouble(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            if (b < '0' || b > '9') {
+                break;
+            }
+            sawDigit = true;
+            if (mantissa != 0 || b != '0') {
+                if (++digits > 15) {
+                    return slowParseDouble(bytes, from, to);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+            }
+            if (fraction) {
+                exponent--;
+            }
+        }
+        if (!sawDigit) {
+            return slowParseDouble(bytes, from, to);
+        }
+        if (i < to && (bytes.get(i) == 'e' || bytes.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                negativeExponent = bytes.get(i) == '-';
+                i++;
+            }
+            int explicit = 0;
+            int start = i;
+            for (; i < to && bytes.get(i) >= '0' && bytes.get(i) <= '9' && explicit < 10_000; i++) {
+                explicit = explicit * 10 + (bytes.get(i) - '0');
+            }
+            if (i == start) {
+                return slowParseDouble(bytes, from, to);
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (i != to || exponent < -22 || exponent > 22) {
+            return slowParseDouble(bytes, from, to);
+        }
+
+        double value = mantissa;
+        value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a whole number from the bytes in [from, to).
+     *
+     * @param bytes The buffer to read from, using absolute positions.
+     * @param from  The index of the first byte.
+     * @param to    The index after the last byte.
+     * @return The parsed value.
+     * @throws NumberFormatException If the bytes are not a whole number.
+     */
+    public static long parseLong(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+        if (i == to || to - i > 18) {
+            return Long.parseLong(text(bytes, from, to));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a whole number: \"" + text(bytes, from, to) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(ByteBuffer bytes, int from, int to) {
+        return Double.parseDouble(text(bytes, from, to));
+    }
+
+    static String text(ByteBuffer bytes, int from, int to) {
+        byte[] copy = new byte[to - from];
+        bytes.get(from, copy);
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
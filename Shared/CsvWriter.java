@@ -0,0 +1,210 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes CSV rows straight into one reusable byte buffer and flushes it through a FileChannel
+ * in large blocks. It writes Stock Bot's exports and Java PSS's point files.
+ *
+ * Numbers and dates are formatted in place by AsciiFormatter and IsoDate, so a row makes no
+ * Strings or other garbage. The writer adds the commas between fields and the newline at the end
+ * of each row, so every row has exactly the fields written to it. Text fields are quoted only when
+ * they contain a comma, a quote or a line break.
+ *
+ * A writer is not safe to use from two threads at once.
+ *
+ * @see AsciiFormatter
+ * @see IsoDate
+ */
+public class CsvWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int position;
+    private boolean rowStarted;
+
+    /**
+     * Creates or truncates a file to write to.
+     *
+     * @param filename The name of the output CSV file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public CsvWriter(String filename) throws IOException {
+        this(Paths.get(filename));
+    }
+
+    /**
+     * Creates or truncates a file to write to.
+     *
+     * @param path The output CSV file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public CsvWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.bytes = new byte[BUFFER_SIZE];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Writes a whole row of text fields, such as a header.
+     *
+     * @param names The fields.
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter header(String... names) throws IOException {
+        for (String name : names) {
+            field(name);
+        }
+        return endRow();
+    }
+
+    /**
+     * Appends a number field, formatted by AsciiFormatter.formatDouble.
+     *
+     * @param value The value.
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter field(double value) throws IOException {
+        startField(AsciiFormatter.MAX_DOUBLE_LENGTH);
+        position = AsciiFormatter.formatDouble(value, bytes, position);
+        return this;
+    }
+
+    /**
+     * Appends an integer field.
+     *
+     * @param value The value.
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter field(long value) throws IOException {
+        startField(AsciiFormatter.MAX_LONG_LENGTH);
+        position = AsciiFormatter.formatLong(value, bytes, position);
+        return this;
+    }
+
+    /**
+     * Appends a yyyy-MM-dd date field.
+     *
+     * @param epochDay The date as days since 1970-01-01; the year must be between 0 and 9999.
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter dateField(int epochDay) throws IOException {
+        startField(10);
+        position = IsoDate.format(epochDay, bytes, position);
+        return this;
+    }
+
+    /**
+     * Appends a text field, quoted if it contains a comma, a quote or a line break.
+     * A null field is written empty.
+     *
+     * @param text The text.
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter field(CharSequence text) throws IOException {
+        startField(0);
+        if (text == null) {
+            return this;
+        }
+        String value = text.toString();
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (quote) {
+            value = '"' + value.replace("\"", "\"\"") + '"';
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        for (int from = 0; from < encoded.length; ) {
+            if (position == bytes.length) {
+                flush();
+            }
+            int count = Math.min(encoded.length - from, bytes.length - position);
+            System.arraycopy(encoded, from, bytes, position, count);
+            position += count;
+            from += count;
+        }
+        return this;
+    }
+
+    /**
+     * Appends an empty field, for a missing value.
+     *
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter emptyField() throws IOException {
+        startField(0);
+        return this;
+    }
+
+    /**
+     * Ends the current row.
+     *
+     * @return This writer, for chaining.
+     * @throws IOException If the buffer cannot be flushed.
+     */
+    public CsvWriter endRow() throws IOException {
+        ensure(1);
+        bytes[position++] = '\n';
+        rowStarted = false;
+        return this;
+    }
+
+    /**
+     * Writes everything buffered so far to the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+
+    /**
+     * Flushes the buffer and closes the file.
+     *
+     * @throws IOException If the file cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Makes room for the separator and length more bytes, then writes the separator
+    private void startField(int length) throws IOException {
+        ensure(length + 1);
+        if (rowStarted) {
+            bytes[position++] = ',';
+        }
+        rowStarted = true;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (bytes.length - position < length) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Picks which points of a long series to draw, so a chart of millions of points costs no more to build
+ * and render than one of a few thousand, and looks the same.
+ *
+ * Every method returns the indices of the points to keep, in ascending order for x values that are
+ * sorted. largestTriangleThreeBuckets and minMax are for line charts and keep every point when there
+ * are no more than asked for; perCell is for scatter plots.
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Reduces a line to a number of points with Steinarsson's largest-triangle-three-buckets method.
+     * The first and last points are kept, the points in between are split into equal buckets, and
+     * from each bucket the point that forms the largest triangle with the point kept before it and
+     * the average of the next bucket is kept. Peaks and troughs survive, unlike with averaging.
+     *
+     * @param x         The x values, in ascending order.
+     * @param y         The y values.
+     * @param threshold How many points to keep, at least 3.
+     * @return The indices of the kept points, in ascending order.
+     * @throws IllegalArgumentException If threshold is less than 3 or the arrays differ in length.
+     */
+    public static int[] largestTriangleThreeBuckets(double[] x, double[] y, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Threshold must be at least 3, got " + threshold);
+        }
+        int n = checkLengths(x, y);
+        if (n <= threshold) {
+            return allIndices(n);
+        }
+        int[] kept = new int[threshold];
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // The average of the next bucket, or the last point for the last bucket
+            int nextFrom = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextTo = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextFrom; i < nextTo; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextTo - nextFrom;
+            averageY /= nextTo - nextFrom;
+
+            int from = (int) (bucket * bucketSize) + 1;
+            int to = nextFrom;
+            double ax = x[a];
+            double ay = y[a];
+            double largest = -1;
+            int chosen = from;
+            for (int i = from; i < to; i++) {
+                // Twice the triangle's area; the factor does not change which is largest
+                double area = Math.abs((ax - averageX) * (y[i] - ay) - (ax - x[i]) * (averageY - ay));
+                if (area > largest) {
+                    largest = area;
+                    chosen = i;
+                }
+            }
+            kept[bucket + 1] = chosen;
+            a = chosen;
+        }
+        kept[threshold - 1] = n - 1;
+        return kept;
+    }
+
+    /**
+     * Reduces a series to the lowest and highest point in each of a number of equal slices of the x
+     * range, such as one per pixel column of a chart. Drawn as a line at that width, the result covers
+     * the same pixels as the whole series; drawn as a scatter plot it would only show each column's
+     * envelope. When points are dropped, those with a NaN y or a non-finite x, which are not drawn
+     * anyway, are among them.
+     *
+     * @param x       The x values, in any order.
+     * @param y       The y values.
+     * @param buckets How many slices to split the x range into, at least 1.
+     * @return The indices of the kept points, at most two per slice, slice by slice from the lowest x.
+     * @throws IllegalArgumentException If buckets is less than 1 or the arrays differ in length.
+     */
+    public static int[] minMax(double[] x, double[] y, int buckets) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Buckets must be at least 1, got " + buckets);
+        }
+        int n = checkLengths(x, y);
+        if (n <= 2 * buckets) {
+            return allIndices(n);
+        }
+        double lowest = Double.POSITIVE_INFINITY;
+        double highest = Double.NEGATIVE_INFINITY;
+        for (double value : x) {
+            if (Double.isFinite(value)) {
+                lowest = Math.min(lowest, value);
+                highest = Math.max(highest, value);
+            }
+        }
+        double scale = highest > lowest ? buckets / (highest - lowest) : 0;
+        int[] min = new int[buckets];
+        int[] max = new int[buckets];
+        Arrays.fill(min, -1);
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(x[i]) || Double.isNaN(y[i])) {
+                continue;
+            }
+            int bucket = Math.min((int) ((x[i] - lowest) * scale), buckets - 1);
+            if (min[bucket] < 0) {
+                min[bucket] = i;
+                max[bucket] = i;
+            } else if (y[i] < y[min[bucket]]) {
+                min[bucket] = i;
+            } else if (y[i] > y[max[bucket]]) {
+                max[bucket] = i;
+            }
+        }
+        int[] kept = new int[2 * buckets];
+        int count = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (min[bucket] < 0) {
+                continue;
+            }
+            kept[count++] = Math.min(min[bucket], max[bucket]);
+            if (min[bucket] != max[bucket]) {
+                kept[count++] = Math.max(min[bucket], max[bucket]);
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Reduces a scatter plot to the first point in each occupied cell of a grid over the x and y ranges,
+     * such as one cell per pixel of the chart. Every pixel with a point in it keeps one, so a cloud keeps
+     * its shape and density and each mark moves by under a cell. Points with a non-finite x or y, which
+     * are not drawn, are dropped.
+     *
+     * @param x       The x values, in any order.
+     * @param y       The y values.
+     * @param columns How many cells to split the x range into, at least 1.
+     * @param rows    How many cells to split the y range into, at least 1.
+     * @return The indices of the kept points, in ascending order, at most columns * rows of them.
+     * @throws IllegalArgumentException If columns or rows is less than 1, columns * rows does not fit in
+     *                                  an int, or the arrays differ in length.
+     */
+    public static int[] perCell(double[] x, double[] y, int columns, int rows) {
+        if (columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Columns and rows must be at least 1, got " + columns + " and " + rows);
+        }
+        if ((long) columns * rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Columns * rows must fit in an int, got " + columns + " * " + rows);
+        }
+        int n = checkLengths(x, y);
+        double lowX = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (Double.isFinite(x[i]) && Double.isFinite(y[i])) {
+                lowX = Math.min(lowX, x[i]);
+                highX = Math.max(highX, x[i]);
+                lowY = Math.min(lowY, y[i]);
+                highY = Math.max(highY, y[i]);
+            }
+        }
+        double scaleX = highX > lowX ? columns / (highX - lowX) : 0;
+        double scaleY = highY > lowY ? rows / (highY - lowY) : 0;
+        BitSet occupied = new BitSet(columns * rows);
+        int[] kept = new int[Math.min(n, columns * rows)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(x[i]) || !Double.isFinite(y[i])) {
+                continue;
+            }
+            int column = Math.min((int) ((x[i] - lowX) * scaleX), columns - 1);
+            int row = Math.min((int) ((y[i] - lowY) * scaleY), rows - 1);
+            int cell = column * rows + row;
+            if (!occupied.get(cell)) {
+                occupied.set(cell);
+                kept[count++] = i;
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    private static int checkLengths(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must be the same length, got " + x.length + " and " + y.length);
+        }
+        return x.length;
+    }
+
+    private static int[] allIndices(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,211 @@
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Parses and formats yyyy-MM-dd dates as epoch days (days since 1970-01-01).
+ *
+ * The digits are read and written by hand instead of through SimpleDateFormat or DateTimeFormatter,
+ * so nothing is allocated per date and, since there is no shared state, every method is safe to
+ * call from any number of threads at once.
+ */
+public final class IsoDate {
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private IsoDate() {
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date.
+     *
+     * @param text The date text.
+     * @return The date as days since 1970-01-01.
+     * @throws DateTimeParseException If the text is not a valid yyyy-MM-dd date.
+     */
+    public static int parse(CharSequence text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new DateTimeParseException("Not a yyyy-MM-dd date: \"" + text + "\"", text, 0);
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) {
+                continue;
+            }
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Not a yyyy-MM-dd date: \"" + text + "\"", text, i);
+            }
+            if (i < 4) {
+                year = year * 10 + digit;
+            } else if (i < 7) {
+                month = month * 10 + digit;
+            } else {
+                day = day * 10 + digit;
+            }
+        }
+        return checkedEpochDay(year, month, day, text);
+    }
+
+    /**
+     * Parses a yyyy-MM-dd date from the ten bytes starting at from.
+     *
+     * @param bytes The buffer to read from, using absolute positions.
+     * @param from  The index of the first byte.
+     * @return The date as days since 1970-01-01.
+     * @throws DateTimeParseException If the bytes are not a valid yyyy-MM-dd date.
+     */
+    public static int parse(ByteBuffer bytes, int from) {
+        int year = digits(bytes, from, 4);
+        int month = digits(bytes, from + 5, 2);
+        int day = digits(bytes, from + 8, 2);
+        if (year < 0 || month < 0 || day < 0 || bytes.get(from + 4) != '-' || bytes.get(from + 7) != '-') {
+            String text = AsciiParser.text(bytes, from, from + 10);
+            throw new DateTimeParseException("Not a yyyy-MM-dd date: \"" + text + "\"", text, 0);
+        }
+        return checkedEpochDay(year, month, day, null);
+    }
+
+    /**
+     * Writes a date as yyyy-MM-dd.
+     *
+     * @param epochDay The date as days since 1970-01-01; the year must be between 0 and 9999.
+     * @param out      The builder to append the ten characters to.
+     * @return The builder, for chaining.
+     */
+    public static StringBuilder format(int epochDay, StringBuilder out) {
+        int civil = civil(epochDay);
+        int year = civil >>> 9;
+        int month = (civil >>> 5) & 15;
+        int day = civil & 31;
+        return out.append((char) ('0' + year / 1000))
+                .append((char) ('0' + year / 100 % 10))
+                .append((char) ('0' + year / 10 % 10))
+                .append((char) ('0' + year % 10))
+                .append('-')
+                .append((char) ('0' + month / 10))
+                .append((char) ('0' + month % 10))
+                .append('-')
+                .append((char) ('0' + day / 10))
+                .append((char) ('0' + day % 10));
+    }
+
+    /**
+     * Writes a date as ten yyyy-MM-dd ASCII bytes.
+     *
+     * @param epochDay The date as days since 1970-01-01; the year must be between 0 and 9999.
+     * @param out      The array to write into.
+     * @param offset   The index of the first byte to write.
+     * @return The index after the last byte written.
+     */
+    public static int format(int epochDay, byte[] out, int offset) {
+        int civil = civil(epochDay);
+        int year = civil >>> 9;
+        int month = (civil >>> 5) & 15;
+        int day = civil & 31;
+        out[offset] = (byte) ('0' + year / 1000);
+        out[offset + 1] = (byte) ('0' + year / 100 % 10);
+        out[offset + 2] = (byte) ('0' + year / 10 % 10);
+        out[offset + 3] = (byte) ('0' + year % 10);
+        out[offset + 4] = '-';
+        out[offset + 5] = (byte) ('0' + month / 10);
+        out[offset + 6] = (byte) ('0' + month % 10);
+        out[offset + 7] = '-';
+        out[offset + 8] = (byte) ('0' + day / 10);
+        out[offset + 9] = (byte) ('0' + day % 10);
+        return offset + 10;
+    }
+
+    /**
+     * Formats a date as a yyyy-MM-dd String.
+     *
+     * @param epochDay The date as days since 1970-01-01.
+     * @return The formatted date.
+     */
+    public static String format(int epochDay) {
+        return format(epochDay, new StringBuilder(10)).toString();
+    }
+
+    /**
+     * Converts a calendar date to days since 1970-01-01 in the proleptic Gregorian calendar.
+     *
+     * @param year  The year.
+     * @param month The month, 1 to 12.
+     * @param day   The day of the month.
+     * @return The epoch day.
+     */
+    public static int epochDay(int year, int month, int day) {
+        // Howard Hinnant's days_from_civil
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the date as a java.util.Date at midnight in the default time zone,
+     * which is what SimpleDateFormat("yyyy-MM-dd") used to produce.
+     *
+     * @param epochDay The date as days since 1970-01-01.
+     * @return A new Date.
+     */
+    public static Date toDate(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Returns the calendar day that a java.util.Date falls on in the default time zone.
+     *
+     * @param date The date.
+     * @return The date as days since 1970-01-01.
+     */
+    public static int fromDate(Date date) {
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    // Packs year << 9 | month << 5 | day; Howard Hinnant's civil_from_days
+    private static int civil(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+
+    private static int checkedEpochDay(int year, int month, int day, CharSequence text) {
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            String shown = text != null ? text.toString() : String.format("%04d-%02d-%02d", year, month, day);
+            throw new DateTimeParseException("Invalid date: \"" + shown + "\"", shown, 0);
+        }
+        return epochDay(year, month, day);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    // Reads count decimal digits, or returns -1 if any of them is not a digit
+    private static int digits(ByteBuffer bytes, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Sum, mean, variance, minimum and maximum of the last window values, each updated in constant time
+ * no matter how wide the window is. It stands in for a windowed DescriptiveStatistics, which keeps its
+ * values in a ResizableDoubleArray and goes over the whole window again for every getMean.
+ *
+ * The mean and variance are kept with Welford's update, applied in reverse for the value leaving the
+ * window, and the sum alongside them. All three are recomputed from the window once per window values
+ * added, so rounding error cannot build up; the result then only depends on the values added since.
+ * The minimum and maximum come from a WindowExtreme each.
+ *
+ * Only finite values go into the running sums. While the window holds a NaN or an infinity, the
+ * statistics are worked out from the window itself, so they come out NaN or infinite as expected.
+ * As with a DescriptiveStatistics, the variance is the sample variance: 0 for one value and NaN for none.
+ */
+public class RollingStatistics {
+
+    // Value number k (counting from 0) lives in slot k % window; next is count % window
+    private final double[] values;
+    private long count;
+    private int next;
+
+    // Welford state and sum over the finite values in the window
+    private int finite;
+    private double mean;
+    private double m2;
+    private double sum;
+    private int nonFinite;
+
+    private final WindowExtreme min;
+    private final WindowExtreme max;
+
+    /**
+     * Constructs rolling statistics.
+     *
+     * @param windowSize The number of values to keep statistics over.
+     * @throws IllegalArgumentException If windowSize is less than 1.
+     */
+    public RollingStatistics(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1, got " + windowSize);
+        }
+        this.values = new double[windowSize];
+        this.min = new WindowExtreme(windowSize, true);
+        this.max = new WindowExtreme(windowSize, false);
+    }
+
+    /**
+     * Adds a value, dropping the oldest one once the window is full.
+     *
+     * @param value The new value.
+     */
+    public void addValue(double value) {
+        if (count >= values.length) {
+            remove(values[next]);
+        }
+        values[next] = value;
+        add(value);
+        if (value == value) {
+            min.push(value, count);
+            max.push(value, count);
+        }
+        count++;
+        next++;
+        if (next == values.length) {
+            next = 0;
+            recompute();
+        }
+    }
+
+    /**
+     * Adds a value and returns the mean of the window.
+     *
+     * @param value The new value.
+     * @return The mean after this value.
+     */
+    public double update(double value) {
+        addValue(value);
+        return getMean();
+    }
+
+    /**
+     * Returns the number of values in the window.
+     *
+     * @return The number of values.
+     */
+    public int getN() {
+        return (int) Math.min(count, values.length);
+    }
+
+    /**
+     * Returns the number of values the statistics cover once the window is full.
+     *
+     * @return The window size.
+     */
+    public int getWindowSize() {
+        return values.length;
+    }
+
+    /**
+     * Returns the sum of the window.
+     *
+     * @return The sum, 0 if no value has been added.
+     */
+    public double getSum() {
+        if (nonFinite > 0) {
+            double total = 0;
+            for (int i = 0; i < getN(); i++) {
+                total += values[i];
+            }
+            return total;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the mean of the window.
+     *
+     * @return The mean, or NaN if no value has been added.
+     */
+    public double getMean() {
+        int n = getN();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        return nonFinite > 0 ? getSum() / n : mean;
+    }
+
+    /**
+     * Returns the sample variance of the window.
+     *
+     * @return The variance, 0 for one value, or NaN if no value has been added or the window
+     *         holds a NaN or an infinity.
+     */
+    public double getVariance() {
+        int n = getN();
+        if (n == 0 || nonFinite > 0) {
+            return Double.NaN;
+        }
+        return n == 1 ? 0 : Math.max(0, m2 / (n - 1));
+    }
+
+    /**
+     * Returns the sample standard deviation of the window.
+     *
+     * @return The square root of getVariance.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the lowest value in the window.
+     *
+     * @return The minimum, or NaN if no value has been added or the window holds a NaN.
+     */
+    public double getMin() {
+        if (nonFinite > 0) {
+            double lowest = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < getN(); i++) {
+                lowest = Math.min(lowest, values[i]);
+            }
+            return lowest;
+        }
+        return min.value();
+    }
+
+    /**
+     * Returns the highest value in the window.
+     *
+     * @return The maximum, or NaN if no value has been added or the window holds a NaN.
+     */
+    public double getMax() {
+        if (nonFinite > 0) {
+            double highest = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < getN(); i++) {
+                highest = Math.max(highest, values[i]);
+            }
+            return highest;
+        }
+        return max.value();
+    }
+
+    /**
+     * Empties the window.
+     */
+    public void clear() {
+        count = 0;
+        next = 0;
+        finite = 0;
+        mean = 0;
+        m2 = 0;
+        sum = 0;
+        nonFinite = 0;
+        min.clear();
+        max.clear();
+    }
+
+    private void add(double value) {
+        if (!Double.isFinite(value)) {
+            nonFinite++;
+            return;
+        }
+        finite++;
+        double delta = value - mean;
+        mean += delta / finite;
+        m2 += delta * (value - mean);
+        sum += value;
+    }
+
+    private void remove(double value) {
+        if (!Double.isFinite(value)) {
+            nonFinite--;
+            return;
+        }
+        finite--;
+        if (finite == 0) {
+            mean = 0;
+            m2 = 0;
+            sum = 0;
+            return;
+        }
+        double delta = value - mean;
+        mean -= delta / finite;
+        m2 -= delta * (value - mean);
+        sum -= value;
+    }
+
+    // Exact sum, mean and sum of squared deviations of the finite values. Only called when the window is
+    // full and next has wrapped, so slot order is age order.
+    private void recompute() {
+        double total = 0;
+        int finiteCount = 0;
+        for (double value : values) {
+            if (Double.isFinite(value)) {
+                total += value;
+                finiteCount++;
+            }
+        }
+        double average = finiteCount == 0 ? 0 : total / finiteCount;
+        double squares = 0;
+        for (double value : values) {
+            if (Double.isFinite(value)) {
+                squares += (value - average) * (value - average);
+            }
+        }
+        finite = finiteCount;
+        sum = total;
+        mean = average;
+        m2 = squares;
+    }
+}
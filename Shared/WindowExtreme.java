@@ -0,0 +1,82 @@
+/**
+ * The lowest or highest of the values that arrived within the last window arrivals, kept with a
+ * monotonic deque so that each push is constant time on average no matter how wide the window is.
+ * The candidates are held oldest first in a circular buffer together with the arrival number of each;
+ * a value beaten by a newer one can never be the extreme again, so it is dropped.
+ *
+ * Arrivals are numbered by the caller, which may skip numbers for values it leaves out, as
+ * RollingStatistics does for NaN. Stock Bot's RollingExtreme indicator pushes every value.
+ */
+public final class WindowExtreme {
+
+    private final boolean min;
+    private final double[] values;
+    private final long[] arrivals;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs an empty window.
+     *
+     * @param window The number of arrivals a value stays in the window for.
+     * @param min    True to keep the minimum, false for the maximum.
+     * @throws IllegalArgumentException If window is less than 1.
+     */
+    public WindowExtreme(int window, boolean min) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1, got " + window);
+        }
+        this.min = min;
+        this.values = new double[window];
+        this.arrivals = new long[window];
+    }
+
+    /**
+     * Adds a value, first dropping every candidate that has left the window (there can be several when
+     * arrival numbers were skipped) and every one from the back that the new value beats or equals.
+     *
+     * @param value   The new value.
+     * @param arrival Its arrival number, greater than that of any value pushed since the last clear.
+     */
+    public void push(double value, long arrival) {
+        int window = values.length;
+        while (size > 0 && arrivals[head] <= arrival - window) {
+            head = head + 1 == window ? 0 : head + 1;
+            size--;
+        }
+        while (size > 0) {
+            int back = head + size - 1;
+            if (back >= window) {
+                back -= window;
+            }
+            if (min ? values[back] < value : values[back] > value) {
+                break;
+            }
+            size--;
+        }
+        int tail = head + size;
+        if (tail >= window) {
+            tail -= window;
+        }
+        values[tail] = value;
+        arrivals[tail] = arrival;
+        size++;
+    }
+
+    /**
+     * Returns the extreme of the values pushed within the window of the latest arrival.
+     *
+     * @return The minimum or maximum, or NaN if nothing has been pushed.
+     */
+    public double value() {
+        return size == 0 ? Double.NaN : values[head];
+    }
+
+    /**
+     * Forgets every value pushed so far.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
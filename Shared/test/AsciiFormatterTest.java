@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Every double AsciiFormatter writes must parse back, through Double.parseDouble and AsciiParser, to
+ * the same bits, in no more significant digits than Double.toString uses and in the same layout.
+ */
+class AsciiFormatterTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private final byte[] out = new byte[AsciiFormatter.MAX_DOUBLE_LENGTH + 8];
+
+    @Test
+    void specialCases() {
+        assertEquals("0.0", format(0.0));
+        assertEquals("-0.0", format(-0.0));
+        assertEquals("NaN", format(Double.NaN));
+        assertEquals("Infinity", format(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY));
+        assertEquals("5.0E-324", format(Double.MIN_VALUE));
+        assertEquals("-5.0E-324", format(-Double.MIN_VALUE));
+        // One digit is enough here, though JDK 19's Double.toString prints 9.9E-324
+        assertEquals("1.0E-323", format(2 * Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", format(Double.MAX_VALUE));
+        assertEquals("2.2250738585072014E-308", format(Double.MIN_NORMAL));
+        // The longest text there is
+        assertEquals(AsciiFormatter.MAX_DOUBLE_LENGTH, format(-Double.MIN_NORMAL).length());
+        // Either side of the switch between plain and E notation
+        assertEquals("0.001", format(1e-3));
+        assertEquals("9.99E-4", format(9.99e-4));
+        assertEquals("9999999.0", format(9999999.0));
+        assertEquals("1.0E7", format(1e7));
+        assertEquals("123.45", format(123.45));
+        assertEquals("1.0", format(1.0));
+    }
+
+    @Test
+    void edgeValuesRoundTrip() {
+        double[] values = {
+                0.0, -0.0, Double.MIN_VALUE, 2 * Double.MIN_VALUE, 3 * Double.MIN_VALUE, 10 * Double.MIN_VALUE,
+                Math.nextDown(Double.MIN_NORMAL), Double.MIN_NORMAL, Math.nextUp(Double.MIN_NORMAL),
+                Double.MAX_VALUE, Math.nextDown(Double.MAX_VALUE), 0x1p53, Math.nextUp(0x1p53), 0x1p63,
+                Math.nextDown(1e-3), 1e-3, Math.nextUp(1e-3), Math.nextDown(1e7), 1e7, Math.nextUp(1e7),
+                Math.nextDown(0x1p33), 0x1p33, 1e22, 1e23, 5e-324, 0.1, 0.2, 0.3, 1.0 / 3, 2.0 / 3, Math.PI, Math.E
+        };
+        for (double value : values) {
+            assertRoundTrips(value);
+            assertRoundTrips(-value);
+        }
+    }
+
+    @Test
+    void subnormalsRoundTrip() {
+        SplittableRandom random = new SplittableRandom(17);
+        for (long bits = 1; bits < 1000; bits++) {
+            assertRoundTrips(Double.longBitsToDouble(bits));
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            assertRoundTrips(Double.longBitsToDouble(random.nextLong(1, 1L << 52)));
+        }
+    }
+
+    @Test
+    void randomBitsRoundTrip() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isFinite(value)) {
+                assertRoundTrips(value);
+            }
+        }
+    }
+
+    @Test
+    void everyExponentRoundTrips() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (long exponent = 0; exponent < 0x7ff; exponent++) {
+            for (int i = 0; i < 200; i++) {
+                long bits = exponent << 52 | random.nextLong(1L << 52);
+                assertRoundTrips(Double.longBitsToDouble(bits));
+            }
+        }
+    }
+
+    @Test
+    void pricesAndIntegersRoundTrip() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int i = 0; i < SAMPLES; i++) {
+            // Prices with up to six decimals, as the CSV files hold, and whole numbers
+            assertRoundTrips(random.nextLong(1_000_000_000_000L) / 1e6);
+            assertRoundTrips(random.nextLong(100_000_000) / 100.0);
+            assertRoundTrips((double) random.nextLong(1L << 53));
+        }
+        for (double power = 1e-30; power < 1e30; power *= 10) {
+            assertRoundTrips(power);
+        }
+    }
+
+    @Test
+    void longsMatchLongToString() {
+        SplittableRandom random = new SplittableRandom(5);
+        long[] values = {0, 1, -1, 9, 10, 99, 100, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1,
+                999_999_999_999_999_999L, 1_000_000_000_000_000_000L};
+        for (long value : values) {
+            assertLongRoundTrips(value);
+        }
+        for (int i = 0; i < SAMPLES; i++) {
+            assertLongRoundTrips(random.nextLong() >> random.nextInt(64));
+        }
+    }
+
+    private void assertRoundTrips(double value) {
+        String text = format(value);
+        String expected = Double.toString(value);
+        String where = expected + " written as " + text;
+        long bits = Double.doubleToRawLongBits(value);
+        assertEquals(bits, Double.doubleToRawLongBits(Double.parseDouble(text)), where);
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        assertEquals(bits, Double.doubleToRawLongBits(AsciiParser.parseDouble(bytes, 0, text.length())), where);
+        assertTrue(significantDigits(text) <= significantDigits(expected), where);
+        assertEquals(expected.indexOf('E') >= 0, text.indexOf('E') >= 0, where);
+    }
+
+    private void assertLongRoundTrips(long value) {
+        int end = AsciiFormatter.formatLong(value, out, 0);
+        String text = new String(out, 0, end, StandardCharsets.US_ASCII);
+        assertEquals(Long.toString(value), text);
+        assertEquals(value, AsciiParser.parseLong(ByteBuffer.wrap(out), 0, end));
+    }
+
+    private String format(double value) {
+        int end = AsciiFormatter.formatDouble(value, out, 0);
+        assertTrue(end <= AsciiFormatter.MAX_DOUBLE_LENGTH, "wrote " + end + " bytes");
+        return new String(out, 0, end, StandardCharsets.US_ASCII);
+    }
+
+    // Digits of the significand without leading or trailing zeros, e.g. 1 for "100.0" and 2 for "1.5E-7"
+    private static int significantDigits(String text) {
+        int e = text.indexOf('E');
+        String digits = (e >= 0 ? text.substring(0, e) : text).replace("-", "").replace(".", "");
+        int first = 0;
+        while (first < digits.length() - 1 && digits.charAt(first) == '0') {
+            first++;
+        }
+        int last = digits.length();
+        while (last > first + 1 && digits.charAt(last - 1) == '0') {
+            last--;
+        }
+        return last - first;
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * WindowExtreme against a scan of the window, with repeated values and with arrival numbers skipped
+ * the way RollingStatistics skips NaN.
+ */
+class WindowExtremeTest {
+
+    @Test
+    void matchesAScanOfTheWindow() {
+        SplittableRandom random = new SplittableRandom(21);
+        for (int window : new int[] {1, 2, 3, 7, 64}) {
+            for (boolean skip : new boolean[] {false, true}) {
+                WindowExtreme min = new WindowExtreme(window, true);
+                WindowExtreme max = new WindowExtreme(window, false);
+                int n = 2000;
+                double[] values = new double[n];
+                boolean[] pushed = new boolean[n];
+                for (int round = 0; round < 2; round++) {
+                    for (int arrival = 0; arrival < n; arrival++) {
+                        values[arrival] = random.nextInt(10);
+                        pushed[arrival] = !skip || random.nextInt(4) != 0;
+                        if (pushed[arrival]) {
+                            min.push(values[arrival], arrival);
+                            max.push(values[arrival], arrival);
+                        }
+                        double lowest = Double.POSITIVE_INFINITY;
+                        double highest = Double.NEGATIVE_INFINITY;
+                        for (int k = Math.max(0, arrival - window + 1); k <= arrival; k++) {
+                            if (pushed[k]) {
+                                lowest = Math.min(lowest, values[k]);
+                                highest = Math.max(highest, values[k]);
+                            }
+                        }
+                        String where = "window " + window + " skip " + skip + " arrival " + arrival;
+                        if (pushed[arrival]) {
+                            assertEquals(lowest, min.value(), where);
+                            assertEquals(highest, max.value(), where);
+                        }
+                    }
+                    // A cleared window starts again from arrival 0
+                    min.clear();
+                    max.clear();
+                    assertEquals(Double.NaN, min.value());
+                    assertEquals(Double.NaN, max.value());
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowExtreme(0, true));
+    }
+}
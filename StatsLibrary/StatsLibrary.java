@@ -1,3 +1,8 @@
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
 /**
  * Project 2 specific Stats Library
  *
@@ -5,10 +10,165 @@
  */
 public class StatsLibrary {
 
+    private static final double LN_SQRT_2PI = 0.91893853320467274178;
+    private static final double SQRT_2PI = 2.50662827463100050242;
+    private static final double EPSILON = 1e-16;
+    private static final double TINY = 1e-300;
+    private static final int MAX_ITERATIONS = 100_000;
+
+    // Shape from which regularizedGammaQ integrates numerically instead of summing a series that needs
+    // about 6 sqrt(a) terms, and the Gauss-Legendre nodes and weights on [0, 1] it integrates with
+    private static final double GAMMA_QUADRATURE_MIN = 1e4;
+    private static final double[][] GAUSS_LEGENDRE = gaussLegendre(24);
+
+    // Coefficients of the central and asymptotic tail approximations in standardCdf
+    private static final double[] CODY_C = {0.39894151208813466764, 8.8831497943883759412,
+            93.506656132177855979, 597.27027639480026226, 2494.5375852903726711, 6848.1904505362823326,
+            11602.651437647350124};
+    private static final double[] CODY_D = {22.266688044328115691, 235.38790178262499861,
+            1519.377599407554805, 6485.558298266760755, 18615.571640885098091, 34900.952721145977266,
+            38912.003286093271411};
+    private static final double[] CODY_P = {0.21589853405795699, 0.1274011611602473639,
+            0.022235277870649807, 0.001421619193227893466};
+    private static final double[] CODY_Q = {1.28426009614491121, 0.468238212480865118,
+            0.0659881378689285515, 0.00378239633202758244};
+
+    /**
+     * A probability distribution with its density, cumulative distribution, quantile function and
+     * sampling. The batch methods run one of them over a whole array; use them rather than a loop of
+     * single calls when summarizing many values.
+     */
+    public interface Distribution {
+
+        /**
+         * Computes the expected mean value of the distribution.
+         *
+         * @return The mean value
+         */
+        double expectedValue();
+
+        /**
+         * Determines the variance of the distribution.
+         *
+         * @return The variance
+         */
+        double variance();
+
+        /**
+         * Computes the probability density at x, or for a discrete distribution the probability of x.
+         *
+         * @param x The point to evaluate
+         * @return The density or probability
+         */
+        double pdf(double x);
+
+        /**
+         * Computes the probability that a value is at most x.
+         *
+         * @param x The point to evaluate
+         * @return The cumulative probability
+         */
+        double cdf(double x);
+
+        /**
+         * Finds the smallest x whose cumulative probability is at least p.
+         *
+         * @param p The cumulative probability, between 0 and 1
+         * @return The quantile
+         * @throws IllegalArgumentException If p is outside [0, 1]
+         */
+        double quantile(double p);
+
+        /**
+         * Draws a random value from the distribution.
+         *
+         * @param random The source of randomness
+         * @return The sampled value
+         */
+        double sample(RandomGenerator random);
+
+        /**
+         * Computes pdf for every value of xs.
+         *
+         * @param xs The points to evaluate
+         * @param out The array the densities are written to, at least as long as xs
+         */
+        default void pdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                out[i] = pdf(xs[i]);
+            }
+        }
+
+        /**
+         * Computes cdf for every value of xs.
+         *
+         * @param xs The points to evaluate
+         * @param out The array the cumulative probabilities are written to, at least as long as xs
+         */
+        default void cdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                out[i] = cdf(xs[i]);
+            }
+        }
+
+        /**
+         * Computes quantile for every value of ps.
+         *
+         * @param ps The cumulative probabilities, each between 0 and 1
+         * @param out The array the quantiles are written to, at least as long as ps
+         * @throws IllegalArgumentException If a probability is outside [0, 1]
+         */
+        default void quantile(double[] ps, double[] out) {
+            checkLengths(ps, out);
+            for (int i = 0; i < ps.length; i++) {
+                out[i] = quantile(ps[i]);
+            }
+        }
+
+        /**
+         * Fills an array with random values from the distribution.
+         *
+         * @param random The source of randomness
+         * @param out The array to fill
+         */
+        default void sample(RandomGenerator random, double[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = sample(random);
+            }
+        }
+    }
+
     /**
      * Class for uniform distribution functions
      */
-    public class UniformDistribution {
+    public static class UniformDistribution implements Distribution {
+
+        private final double min;
+        private final double max;
+
+        /**
+         * Creates the uniform distribution between 0 and 1.
+         */
+        public UniformDistribution() {
+            this(0, 1);
+        }
+
+        /**
+         * Creates a uniform distribution.
+         *
+         * @param min The minimum boundary of the distribution
+         * @param max The maximum boundary of the distribution
+         * @throws IllegalArgumentException If min is not below max
+         */
+        public UniformDistribution(double min, double max) {
+            if (!(min < max) || !Double.isFinite(max - min)) {
+                throw new IllegalArgumentException("Invalid bounds [" + min + ", " + max + "]");
+            }
+            this.min = min;
+            this.max = max;
+        }
 
         /**
          * Computes the expected mean value for a uniform distribution.
@@ -17,7 +177,7 @@ public class StatsLibrary {
          * @param max The maximum boundary of the distribution
          * @return The mean value
          */
-        public double expectedValue(double min, double max) {
+        public static double expectedValue(double min, double max) {
             return (min + max) / 2;
         }
 
@@ -28,10 +188,989 @@ public class StatsLibrary {
          * @param maxValue The maximum boundary of the distribution
          * @return The calculated variance
          */
-        public double variance(double minValue, double maxValue) {
+        public static double variance(double minValue, double maxValue) {
             return Math.pow(maxValue - minValue, 2) / 12;
         }
 
+        @Override
+        public double expectedValue() {
+            return expectedValue(min, max);
+        }
+
+        @Override
+        public double variance() {
+            return variance(min, max);
+        }
+
+        @Override
+        public double pdf(double x) {
+            if (x != x) {
+                return Double.NaN;
+            }
+            return x < min || x > max ? 0 : 1 / (max - min);
+        }
+
+        @Override
+        public double cdf(double x) {
+            if (x <= min) {
+                return 0;
+            }
+            return x >= max ? 1 : (x - min) / (max - min);
+        }
+
+        @Override
+        public double quantile(double p) {
+            checkProbability(p);
+            return p == 1 ? max : min + p * (max - min);
+        }
+
+        @Override
+        public double sample(RandomGenerator random) {
+            return random.nextDouble(min, max);
+        }
+
+        @Override
+        public void cdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            double scale = 1 / (max - min);
+            for (int i = 0; i < xs.length; i++) {
+                double x = xs[i];
+                out[i] = x <= min ? 0 : x >= max ? 1 : (x - min) * scale;
+            }
+        }
+    }
+
+    /**
+     * Class for normal distribution functions
+     */
+    public static class NormalDistribution implements Distribution {
+
+        private final double mean;
+        private final double standardDeviation;
+
+        /**
+         * Creates the standard normal distribution, with mean 0 and standard deviation 1.
+         */
+        public NormalDistribution() {
+            this(0, 1);
+        }
+
+        /**
+         * Creates a normal distribution.
+         *
+         * @param mean The mean of the distribution
+         * @param standardDeviation The standard deviation of the distribution
+         * @throws IllegalArgumentException If the standard deviation is not positive
+         */
+        public NormalDistribution(double mean, double standardDeviation) {
+            if (!(standardDeviation > 0) || !Double.isFinite(standardDeviation) || !Double.isFinite(mean)) {
+                throw new IllegalArgumentException("Invalid parameters: mean " + mean
+                        + ", standard deviation " + standardDeviation);
+            }
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+        }
+
+        @Override
+        public double expectedValue() {
+            return mean;
+        }
+
+        @Override
+        public double variance() {
+            return standardDeviation * standardDeviation;
+        }
+
+        @Override
+        public double pdf(double x) {
+            double z = (x - mean) / standardDeviation;
+            return Math.exp(-0.5 * z * z) / (standardDeviation * SQRT_2PI);
+        }
+
+        @Override
+        public double cdf(double x) {
+            return standardCdf((x - mean) / standardDeviation);
+        }
+
+        @Override
+        public double quantile(double p) {
+            checkProbability(p);
+            return mean + standardDeviation * standardQuantile(p);
+        }
+
+        @Override
+        public double sample(RandomGenerator random) {
+            return random.nextGaussian(mean, standardDeviation);
+        }
+
+        @Override
+        public void pdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            double scale = 1 / standardDeviation;
+            double height = scale / SQRT_2PI;
+            for (int i = 0; i < xs.length; i++) {
+                double z = (xs[i] - mean) * scale;
+                out[i] = height * Math.exp(-0.5 * z * z);
+            }
+        }
+
+        @Override
+        public void cdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                out[i] = standardCdf((xs[i] - mean) / standardDeviation);
+            }
+        }
+    }
+
+    /**
+     * Class for exponential distribution functions
+     */
+    public static class ExponentialDistribution implements Distribution {
+
+        private final double rate;
+
+        /**
+         * Creates an exponential distribution.
+         *
+         * @param rate The rate of the distribution, one over its mean
+         * @throws IllegalArgumentException If the rate is not positive
+         */
+        public ExponentialDistribution(double rate) {
+            if (!(rate > 0) || !Double.isFinite(rate)) {
+                throw new IllegalArgumentException("Invalid rate " + rate);
+            }
+            this.rate = rate;
+        }
+
+        @Override
+        public double expectedValue() {
+            return 1 / rate;
+        }
+
+        @Override
+        public double variance() {
+            return 1 / (rate * rate);
+        }
+
+        @Override
+        public double pdf(double x) {
+            return x < 0 ? 0 : rate * Math.exp(-rate * x);
+        }
+
+        @Override
+        public double cdf(double x) {
+            return x <= 0 ? 0 : -Math.expm1(-rate * x);
+        }
+
+        @Override
+        public double quantile(double p) {
+            checkProbability(p);
+            return -Math.log1p(-p) / rate;
+        }
+
+        @Override
+        public double sample(RandomGenerator random) {
+            return random.nextExponential() / rate;
+        }
+
+        @Override
+        public void pdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                double x = xs[i];
+                out[i] = x < 0 ? 0 : rate * Math.exp(-rate * x);
+            }
+        }
+
+        @Override
+        public void cdf(double[] xs, double[] out) {
+            checkLengths(xs, out);
+            for (int i = 0; i < xs.length; i++) {
+                double x = xs[i];
+                out[i] = x <= 0 ? 0 : -Math.expm1(-rate * x);
+            }
+        }
+    }
+
+    /**
+     * Class for binomial distribution functions
+     */
+    public static class BinomialDistribution implements Distribution {
+
+        private final int trials;
+        private final double p;
+        private final double q;
+
+        /**
+         * Creates a binomial distribution.
+         *
+         * @param trials The number of trials
+         * @param p The probability of success in each trial
+         * @throws IllegalArgumentException If trials is negative or p is outside [0, 1]
+         */
+        public BinomialDistribution(int trials, double p) {
+            if (trials < 0 || !(p >= 0 && p <= 1)) {
+                throw new IllegalArgumentException("Invalid parameters: " + trials + " trials, p " + p);
+            }
+            this.trials = trials;
+            this.p = p;
+            this.q = 1 - p;
+        }
+
+        @Override
+        public double expectedValue() {
+            return trials * p;
+        }
+
+        @Override
+        public double variance() {
+            return trials * p * q;
+        }
+
+        @Override
+        public double pdf(double x) {
+            if (x != Math.rint(x) || x < 0 || x > trials) {
+                return x != x ? Double.NaN : 0;
+            }
+            return binomialProbability(x, trials, p, q);
+        }
+
+        @Override
+        public double cdf(double x) {
+            if (x != x) {
+                return Double.NaN;
+            }
+            if (x < 0) {
+                return 0;
+            }
+            if (x >= trials || p == 0) {
+                return 1;
+            }
+            if (p == 1) {
+                return 0;
+            }
+            double k = Math.floor(x);
+            return regularizedBeta(q, p, trials - k, k + 1);
+        }
+
+        @Override
+        public double quantile(double probability) {
+            checkProbability(probability);
+            if (probability == 0 || p == 0) {
+                return 0;
+            }
+            if (probability == 1 || p == 1) {
+                return trials;
+            }
+            return searchQuantile(this::cdf, probability, expectedValue(), Math.sqrt(variance()),
+                    (q - p) / Math.sqrt(variance()), trials);
+        }
+
+        /**
+         * Draws a random number of successes. Small means are walked up from 0 along the probabilities;
+         * larger ones are found by inverting the cdf.
+         *
+         * @param random The source of randomness
+         * @return The sampled number of successes
+         */
+        @Override
+        public double sample(RandomGenerator random) {
+            // Walk the rarer outcome, so its mean is the smaller one
+            double success = Math.min(p, q);
+            if (trials * success >= 30) {
+                return quantile(random.nextDouble());
+            }
+            double u = random.nextDouble();
+            double probability = Math.exp(trials * Math.log1p(-success));
+            double ratio = success / (1 - success);
+            int k = 0;
+            while (u > probability && k < trials) {
+                u -= probability;
+                k++;
+                probability *= ratio * (trials - k + 1) / k;
+            }
+            return p > 0.5 ? trials - k : k;
+        }
+    }
+
+    /**
+     * Class for Poisson distribution functions
+     */
+    public static class PoissonDistribution implements Distribution {
+
+        private final double lambda;
+
+        /**
+         * Creates a Poisson distribution.
+         *
+         * @param lambda The mean number of events
+         * @throws IllegalArgumentException If lambda is not positive
+         */
+        public PoissonDistribution(double lambda) {
+            if (!(lambda > 0) || !Double.isFinite(lambda)) {
+                throw new IllegalArgumentException("Invalid mean " + lambda);
+            }
+            this.lambda = lambda;
+        }
+
+        @Override
+        public double expectedValue() {
+            return lambda;
+        }
+
+        @Override
+        public double variance() {
+            return lambda;
+        }
+
+        @Override
+        public double pdf(double x) {
+            if (x != Math.rint(x) || x < 0) {
+                return x != x ? Double.NaN : 0;
+            }
+            return x == 0 ? Math.exp(-lambda) : poissonProbability(x, lambda);
+        }
+
+        @Override
+        public double cdf(double x) {
+            if (x != x) {
+                return Double.NaN;
+            }
+            if (x < 0) {
+                return 0;
+            }
+            if (x == Double.POSITIVE_INFINITY) {
+                return 1;
+            }
+            return regularizedGammaQ(Math.floor(x) + 1, lambda);
+        }
+
+        @Override
+        public double quantile(double probability) {
+            checkProbability(probability);
+            if (probability == 0) {
+                return 0;
+            }
+            if (probability == 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double deviation = Math.sqrt(lambda);
+            return searchQuantile(this::cdf, probability, lambda, deviation, 1 / deviation, Double.MAX_VALUE);
+        }
+
+        /**
+         * Draws a random number of events. Small means are walked up from 0 along the probabilities;
+         * larger ones are found by inverting the cdf.
+         *
+         * @param random The source of randomness
+         * @return The sampled number of events
+         */
+        @Override
+        public double sample(RandomGenerator random) {
+            if (lambda >= 30) {
+                return quantile(random.nextDouble());
+            }
+            double u = random.nextDouble();
+            double probability = Math.exp(-lambda);
+            int k = 0;
+            while (u > probability && probability > 0) {
+                u -= probability;
+                k++;
+                probability *= lambda / k;
+            }
+            return k;
+        }
+    }
+
+    /**
+     * Single-pass count, mean, central moments up to the fourth, minimum and maximum of a stream of
+     * values. Two accumulators over separate parts of the data combine into the accumulator of all of
+     * it, so large arrays can be summarized in parallel chunks without a second pass. Works as a
+     * collector too: {@code stream.collect(Moments::new, Moments::accept, Moments::combine)}.
+     *
+     * Values are added with Welford's update extended to the third and fourth moments, and combined with
+     * the pairwise formulas of Chan et al. and Pebay, which keep their accuracy when the mean is large
+     * next to the spread. Variance, skewness and kurtosis are the bias-corrected sample statistics.
+     */
+    public static class Moments implements DoubleConsumer {
+
+        private long n;
+        private double mean;
+        private double m2;
+        private double m3;
+        private double m4;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        /**
+         * Summarizes an array in one pass.
+         *
+         * @param values The values to summarize
+         * @return The moments of the values
+         */
+        public static Moments of(double[] values) {
+            Moments moments = new Moments();
+            moments.accept(values, 0, values.length);
+            return moments;
+        }
+
+        /**
+         * Summarizes an array in chunks on the common fork-join pool and combines the chunks.
+         *
+         * @param values The values to summarize
+         * @return The moments of the values
+         */
+        public static Moments parallelOf(double[] values) {
+            int chunk = 1 << 16;
+            int chunks = (values.length + chunk - 1) / chunk;
+            return IntStream.range(0, chunks).parallel().collect(Moments::new,
+                    (moments, c) -> moments.accept(values, c * chunk, Math.min(values.length, (c + 1) * chunk)),
+                    Moments::combine);
+        }
+
+        /**
+         * Adds a value.
+         *
+         * @param value The value to add
+         */
+        @Override
+        public void accept(double value) {
+            double before = n;
+            n++;
+            double delta = value - mean;
+            double deltaN = delta / n;
+            double deltaN2 = deltaN * deltaN;
+            double term = delta * deltaN * before;
+            mean += deltaN;
+            m4 += term * deltaN2 * (1.0 * n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+            m3 += term * deltaN * (n - 2) - 3 * deltaN * m2;
+            m2 += term;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+         * Adds part of an array.
+         *
+         * @param values The array holding the values
+         * @param from The index of the first value to add
+         * @param to The index after the last value to add
+         */
+        public void accept(double[] values, int from, int to) {
+            for (int i = from; i < to; i++) {
+                accept(values[i]);
+            }
+        }
+
+        /**
+         * Adds the values summarized by another accumulator, leaving that one unchanged.
+         *
+         * @param other The moments of the other values
+         * @return This accumulator
+         */
+        public Moments combine(Moments other) {
+            if (other.n == 0) {
+                return this;
+            }
+            if (n == 0) {
+                n = other.n;
+                mean = other.mean;
+                m2 = other.m2;
+                m3 = other.m3;
+                m4 = other.m4;
+                min = other.min;
+                max = other.max;
+                return this;
+            }
+            double a = n;
+            double b = other.n;
+            double total = a + b;
+            double delta = other.mean - mean;
+            double delta2 = delta * delta;
+            double combined4 = m4 + other.m4
+                    + delta2 * delta2 * a * b * (a * a - a * b + b * b) / (total * total * total)
+                    + 6 * delta2 * (a * a * other.m2 + b * b * m2) / (total * total)
+                    + 4 * delta * (a * other.m3 - b * m3) / total;
+            double combined3 = m3 + other.m3
+                    + delta2 * delta * a * b * (a - b) / (total * total)
+                    + 3 * delta * (a * other.m2 - b * m2) / total;
+            m2 += other.m2 + delta2 * a * b / total;
+            m3 = combined3;
+            m4 = combined4;
+            mean += delta * b / total;
+            n += other.n;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        /**
+         * Returns the number of values added.
+         *
+         * @return The count
+         */
+        public long getN() {
+            return n;
+        }
+
+        /**
+         * Returns the sum of the values.
+         *
+         * @return The sum, 0 if no value has been added
+         */
+        public double getSum() {
+            return mean * n;
+        }
+
+        /**
+         * Returns the mean of the values.
+         *
+         * @return The mean, or NaN if no value has been added
+         */
+        public double getMean() {
+            return n == 0 ? Double.NaN : mean;
+        }
+
+        /**
+         * Returns the sample variance of the values.
+         *
+         * @return The variance, 0 for one value, or NaN if no value has been added
+         */
+        public double getVariance() {
+            if (n == 0) {
+                return Double.NaN;
+            }
+            return n == 1 ? 0 : m2 / (n - 1);
+        }
+
+        /**
+         * Returns the sample standard deviation of the values.
+         *
+         * @return The square root of the variance
+         */
+        public double getStandardDeviation() {
+            return Math.sqrt(getVariance());
+        }
+
+        /**
+         * Returns the bias-corrected sample skewness of the values.
+         *
+         * @return The skewness, 0 if every value is the same, or NaN for fewer than three values
+         */
+        public double getSkewness() {
+            if (n < 3) {
+                return Double.NaN;
+            }
+            if (m2 == 0) {
+                return 0;
+            }
+            double variance = m2 / (n - 1);
+            return n * m3 / ((n - 1.0) * (n - 2.0) * variance * Math.sqrt(variance));
+        }
+
+        /**
+         * Returns the bias-corrected sample excess kurtosis of the values, 0 for normally distributed data.
+         *
+         * @return The kurtosis, 0 if every value is the same, or NaN for fewer than four values
+         */
+        public double getKurtosis() {
+            if (n < 4) {
+                return Double.NaN;
+            }
+            if (m2 == 0) {
+                return 0;
+            }
+            double variance = m2 / (n - 1);
+            double count = n;
+            return count * (count + 1) * m4 / ((count - 1) * (count - 2) * (count - 3) * variance * variance)
+                    - 3 * (count - 1) * (count - 1) / ((count - 2) * (count - 3));
+        }
+
+        /**
+         * Returns the lowest value.
+         *
+         * @return The minimum, or positive infinity if no value has been added
+         */
+        public double getMin() {
+            return min;
+        }
 
+        /**
+         * Returns the highest value.
+         *
+         * @return The maximum, or negative infinity if no value has been added
+         */
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Moments{n=" + n + ", mean=" + getMean() + ", variance=" + getVariance()
+                    + ", skewness=" + getSkewness() + ", kurtosis=" + getKurtosis()
+                    + ", min=" + min + ", max=" + max + "}";
+        }
+    }
+
+    private static void checkProbability(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("Probability " + p + " is outside [0, 1]");
+        }
+    }
+
+    private static void checkLengths(double[] in, double[] out) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output holds " + out.length + " values, needs " + in.length);
+        }
+    }
+
+    // Standard normal cdf by W. J. Cody's rational Chebyshev approximations (ACM TOMS algorithm 715):
+    // one near 0, one up to sqrt(32) and an asymptotic one beyond, each good to about 1e-16 relative.
+    // The tail is worked out for -|z| so it keeps its precision, and exp(-z^2 / 2) is split in two
+    // products because z^2 itself would round
+    private static double standardCdf(double z) {
+        double y = Math.abs(z);
+        if (y <= 0.67448975) {
+            double numerator = 0;
+            double denominator = 0;
+            if (y > 1e-17) {
+                double z2 = z * z;
+                numerator = 0.065682337918207449113 * z2;
+                denominator = z2;
+                numerator = (numerator + 2.2352520354606839287) * z2;
+                denominator = (denominator + 47.20258190468824187) * z2;
+                numerator = (numerator + 161.02823106855587881) * z2;
+                denominator = (denominator + 976.09855173777669322) * z2;
+                numerator = (numerator + 1067.6894854603709582) * z2;
+                denominator = (denominator + 10260.932208618978205) * z2;
+            }
+            return 0.5 + z * (numerator + 18154.981253343561249) / (denominator + 45507.789335026729956);
+        }
+        if (y != y) {
+            return Double.NaN;
+        }
+        double ratio;
+        if (y <= 5.656854249492380195) {
+            double numerator = 1.0765576773720192317e-8 * y;
+            double denominator = y;
+            for (int i = 0; i < 7; i++) {
+                numerator = (numerator + CODY_C[i]) * y;
+                denominator = (denominator + CODY_D[i]) * y;
+            }
+            ratio = (numerator + 9842.7148383839780218) / (denominator + 19685.429676859990727);
+        } else if (y < 40) {
+            double inverse = 1 / (z * z);
+            double numerator = 0.02307344176494017303 * inverse;
+            double denominator = inverse;
+            for (int i = 0; i < 4; i++) {
+                numerator = (numerator + CODY_P[i]) * inverse;
+                denominator = (denominator + CODY_Q[i]) * inverse;
+            }
+            ratio = (1 / SQRT_2PI - inverse * (numerator + 2.9112874951168792e-5)
+                    / (denominator + 7.29751555083966205e-5)) / y;
+        } else {
+            return z < 0 ? 0 : 1;
+        }
+        double rounded = Math.floor(y * 16) / 16;
+        double rest = (y - rounded) * (y + rounded);
+        double tail = Math.exp(-0.5 * rounded * rounded) * Math.exp(-0.5 * rest) * ratio;
+        return z < 0 ? tail : 1 - tail;
+    }
+
+    // Standard normal quantile: the rational approximation of Abramowitz and Stegun 26.2.23, good to
+    // 4.5e-4, polished with Halley steps on the cdf
+    private static double standardQuantile(double p) {
+        if (p == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (p == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (p > 0.5) {
+            return -standardQuantile(1 - p);
+        }
+        double t = Math.sqrt(-2 * Math.log(p));
+        double z = -(t - (2.515517 + t * (0.802853 + t * 0.010328))
+                / (1 + t * (1.432788 + t * (0.189269 + t * 0.001308))));
+        for (int i = 0; i < 3; i++) {
+            double density = Math.exp(-0.5 * z * z - LN_SQRT_2PI);
+            if (density == 0) {
+                break;
+            }
+            double u = (standardCdf(z) - p) / density;
+            double step = u / (1 + 0.5 * z * u);
+            z -= step;
+            if (Math.abs(step) <= EPSILON * Math.abs(z)) {
+                break;
+            }
+        }
+        return z;
+    }
+
+    // Smallest whole k <= max with cdf(k) >= p, for 0 < p < 1. Starts at the Cornish-Fisher estimate
+    // from the mean, standard deviation and skewness, steps outwards in doubling strides until p is
+    // bracketed, then bisects, so it takes a few cdf calls however far out p is. Works on doubles so
+    // no mean is too large; above 2^53 it stops once no double lies between the bounds
+    private static double searchQuantile(DoubleUnaryOperator cdf, double p, double mean, double deviation,
+                                         double skewness, double max) {
+        double z = standardQuantile(p);
+        double estimate = Math.floor(mean + deviation * (z + (z * z - 1) * skewness / 6) + 0.5);
+        double guess = Math.max(0, Math.min(max, estimate));
+        // cdf(low) < p <= cdf(high); low = -1 stands for below the support
+        double low;
+        double high;
+        if (cdf.applyAsDouble(guess) >= p) {
+            high = guess;
+            low = guess - 1;
+            double stride = 1;
+            while (low >= 0 && cdf.applyAsDouble(low) >= p) {
+                high = low;
+                stride *= 2;
+                low = Math.max(-1, high - stride);
+            }
+        } else {
+            low = guess;
+            high = Math.min(max, guess + 1);
+            double stride = 1;
+            while (high < max && cdf.applyAsDouble(high) < p) {
+                low = high;
+                stride *= 2;
+                high = Math.min(max, low + stride);
+            }
+        }
+        while (high - low > 1) {
+            double middle = Math.floor(low + (high - low) / 2);
+            if (middle <= low || middle >= high) {
+                break;
+            }
+            if (cdf.applyAsDouble(middle) >= p) {
+                high = middle;
+            } else {
+                low = middle;
+            }
+        }
+        return high;
+    }
+
+    // ln Gamma(x) for x > 0, by the Lanczos approximation with g = 7
+    private static double logGamma(double x) {
+        if (x < 0.5) {
+            return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1 - x);
+        }
+        x -= 1;
+        double a = 0.99999999999980993 + 676.5203681218851 / (x + 1) - 1259.1392167224028 / (x + 2)
+                + 771.32342877765313 / (x + 3) - 176.61502916214059 / (x + 4) + 12.507343278686905 / (x + 5)
+                - 0.13857109526572012 / (x + 6) + 9.9843695780195716e-6 / (x + 7)
+                + 1.5056327351493116e-7 / (x + 8);
+        double t = x + 7.5;
+        return LN_SQRT_2PI + (x + 0.5) * Math.log(t) - t + Math.log(a);
+    }
+
+    // The error of Stirling's formula, ln Gamma(x + 1) - (x + 0.5) ln x + x - ln sqrt(2 pi), for x > 0.
+    // Together with deviance this gives binomial and Poisson probabilities to full relative accuracy
+    // however many trials there are (C. Loader, Fast and Accurate Computation of Binomial Probabilities)
+    private static double stirlingError(double x) {
+        if (x <= 15) {
+            return logGamma(x + 1) - (x + 0.5) * Math.log(x) + x - LN_SQRT_2PI;
+        }
+        double x2 = x * x;
+        if (x > 500) {
+            return (1.0 / 12 - 1.0 / 360 / x2) / x;
+        }
+        if (x > 80) {
+            return (1.0 / 12 - (1.0 / 360 - 1.0 / 1260 / x2) / x2) / x;
+        }
+        if (x > 35) {
+            return (1.0 / 12 - (1.0 / 360 - (1.0 / 1260 - 1.0 / 1680 / x2) / x2) / x2) / x;
+        }
+        return (1.0 / 12 - (1.0 / 360 - (1.0 / 1260 - (1.0 / 1680 - 1.0 / 1188 / x2) / x2) / x2) / x2) / x;
+    }
+
+    // x ln(x / mean) + mean - x, summed as a series when x is close to mean to avoid cancellation
+    private static double deviance(double x, double mean) {
+        if (Math.abs(x - mean) < 0.1 * (x + mean)) {
+            double v = (x - mean) / (x + mean);
+            double sum = (x - mean) * v;
+            double term = 2 * x * v;
+            v *= v;
+            for (int j = 1; j < MAX_ITERATIONS; j++) {
+                term *= v;
+                double next = sum + term / (2 * j + 1);
+                if (next == sum) {
+                    return next;
+                }
+                sum = next;
+            }
+            return sum;
+        }
+        return x * Math.log(x / mean) + mean - x;
+    }
+
+    // mean^x e^-mean / Gamma(x + 1) for x > 0
+    private static double poissonProbability(double x, double mean) {
+        return Math.exp(-stirlingError(x) - deviance(x, mean)) / Math.sqrt(2 * Math.PI * x);
+    }
+
+    // Gamma(n + 1) / (Gamma(x + 1) Gamma(n - x + 1)) p^x q^(n - x) for 0 <= x <= n, with q = 1 - p
+    private static double binomialProbability(double x, double n, double p, double q) {
+        if (p == 0) {
+            return x == 0 ? 1 : 0;
+        }
+        if (q == 0) {
+            return x == n ? 1 : 0;
+        }
+        if (x == 0) {
+            return Math.exp(n * Math.log1p(-p));
+        }
+        if (x == n) {
+            return Math.pow(p, n);
+        }
+        double log = stirlingError(n) - stirlingError(x) - stirlingError(n - x)
+                - deviance(x, n * p) - deviance(n - x, n * q);
+        return Math.exp(log) * Math.sqrt(n / (2 * Math.PI * x * (n - x)));
+    }
+
+    // Regularized incomplete beta I_x(a, b) for a, b >= 1, with y = 1 - x passed in so it keeps its
+    // precision, from the continued fraction on whichever side converges quickly
+    private static double regularizedBeta(double x, double y, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (y <= 0) {
+            return 1;
+        }
+        // x^a y^b / (a B(a, b))
+        double front = binomialProbability(a, a + b, x, y) * b / (a + b);
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaFraction(x, a, b);
+        }
+        return 1 - front * a / b * betaFraction(y, b, a);
+    }
+
+    // Continued fraction for the incomplete beta, by the modified Lentz method
+    private static double betaFraction(double x, double a, double b) {
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < TINY ? TINY : d);
+        double h = d;
+        for (int m = 1; m < MAX_ITERATIONS; m++) {
+            int m2 = 2 * m;
+            double numerator = m * (b - m) * x / ((a - 1 + m2) * (a + m2));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            h *= d * c;
+            numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + 1 + m2));
+            d = 1 + numerator * d;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = 1 + numerator / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+        return h;
+    }
+
+    // Regularized upper incomplete gamma Q(a, x) for a >= 1, from the series for P below a + 1 and
+    // the continued fraction for Q above it
+    private static double regularizedGammaQ(double a, double x) {
+        if (x <= 0) {
+            return 1;
+        }
+        if (a >= GAMMA_QUADRATURE_MIN) {
+            return regularizedGammaQByQuadrature(a, x);
+        }
+        // x^a e^-x / Gamma(a)
+        double front = a * poissonProbability(a, x);
+        if (x < a + 1) {
+            double term = 1 / a;
+            double sum = term;
+            for (int n = 1; n < MAX_ITERATIONS; n++) {
+                term *= x / (a + n);
+                sum += term;
+                if (Math.abs(term) < Math.abs(sum) * EPSILON) {
+                    break;
+                }
+            }
+            return 1 - front * sum;
+        }
+        double b = x + 1 - a;
+        double c = 1 / TINY;
+        double d = 1 / b;
+        double h = d;
+        for (int i = 1; i < MAX_ITERATIONS; i++) {
+            double numerator = -i * (i - a);
+            b += 2;
+            d = numerator * d + b;
+            d = 1 / (Math.abs(d) < TINY ? TINY : d);
+            c = b + numerator / c;
+            c = Math.abs(c) < TINY ? TINY : c;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < EPSILON) {
+                break;
+            }
+        }
+        return front * h;
+    }
+
+    // Q(a, x) for large a as the integral of t^(a-1) e^-t / Gamma(a) = poissonProbability(a - 1, t) over
+    // the smaller tail, after Numerical Recipes' gammpapprox. The integrand peaks at a - 1 with width
+    // sqrt(a - 1); the range covers the tail out to where it is negligible, which far from the peak is
+    // a few dozen of its e-folding lengths rather than a multiple of the width
+    private static double regularizedGammaQByQuadrature(double a, double x) {
+        double a1 = a - 1;
+        double width = Math.sqrt(a1);
+        if (x > a1) {
+            double upper = x + Math.min(Math.max(a1 + 11.5 * width - x, 6 * width), 50 * x / (x - a1));
+            return integrateGammaDensity(a1, x, upper);
+        }
+        double span = Math.max(x - (a1 - 7.5 * width), 5 * width);
+        double lower = Math.max(0, x - Math.min(span, 50 * x / (a1 - x)));
+        return 1 - integrateGammaDensity(a1, lower, x);
+    }
+
+    private static double integrateGammaDensity(double a1, double from, double to) {
+        double[] nodes = GAUSS_LEGENDRE[0];
+        double[] weights = GAUSS_LEGENDRE[1];
+        double sum = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            sum += weights[i] * poissonProbability(a1, from + (to - from) * nodes[i]);
+        }
+        return sum * (to - from);
+    }
+
+    // Nodes and weights of n-point Gauss-Legendre quadrature on [0, 1], the nodes being the roots of the
+    // Legendre polynomial P_n found by Newton's method
+    private static double[][] gaussLegendre(int n) {
+        double[] nodes = new double[n];
+        double[] weights = new double[n];
+        for (int i = 0; i < (n + 1) / 2; i++) {
+            double z = Math.cos(Math.PI * (i + 0.75) / (n + 0.5));
+            double derivative;
+            double previous;
+            do {
+                double p1 = 1;
+                double p2 = 0;
+                for (int j = 0; j < n; j++) {
+                    double p3 = p2;
+                    p2 = p1;
+                    p1 = ((2 * j + 1) * z * p2 - j * p3) / (j + 1);
+                }
+                derivative = n * (z * p1 - p2) / (z * z - 1);
+                previous = z;
+                z -= p1 / derivative;
+            } while (Math.abs(z - previous) > 1e-15);
+            nodes[i] = (1 - z) / 2;
+            nodes[n - 1 - i] = (1 + z) / 2;
+            weights[i] = 1 / ((1 - z * z) * derivative * derivative);
+            weights[n - 1 - i] = weights[i];
+        }
+        return new double[][] {nodes, weights};
     }
- }
+}
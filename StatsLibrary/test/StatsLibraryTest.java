@@ -0,0 +1,191 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Moments against a two-pass reference, and the distributions' quantiles against their cdfs.
+ */
+class StatsLibraryTest {
+
+    // Several parallelOf chunks and a partial one
+    private static final int COUNT = 5 * (1 << 16) + 321;
+
+    @Test
+    void momentsMatchTwoPassReference() {
+        Random random = new Random(22);
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            // A mean far from 0 next to the spread, and a skewed, heavy tail
+            double z = random.nextGaussian();
+            values[i] = 1e6 + 3 * z + Math.exp(z);
+        }
+        double[] expected = twoPass(values);
+        StatsLibrary.Moments serial = StatsLibrary.Moments.of(values);
+        StatsLibrary.Moments parallel = StatsLibrary.Moments.parallelOf(values);
+        for (StatsLibrary.Moments moments : new StatsLibrary.Moments[] {serial, parallel}) {
+            assertEquals(COUNT, moments.getN());
+            assertEquals(expected[0], moments.getMean(), 1e-9 * Math.abs(expected[0]), "mean");
+            assertEquals(expected[1], moments.getVariance(), 1e-9 * expected[1], "variance");
+            assertEquals(expected[2], moments.getSkewness(), 1e-9, "skewness");
+            assertEquals(expected[3], moments.getKurtosis(), 1e-9, "kurtosis");
+            assertEquals(expected[4], moments.getMin(), 0, "min");
+            assertEquals(expected[5], moments.getMax(), 0, "max");
+        }
+    }
+
+    @Test
+    void combineWithAnEmptySide() {
+        double[] values = {4, 8, 15, 16, 23, 42};
+        StatsLibrary.Moments full = StatsLibrary.Moments.of(values);
+
+        StatsLibrary.Moments left = new StatsLibrary.Moments().combine(StatsLibrary.Moments.of(values));
+        StatsLibrary.Moments right = StatsLibrary.Moments.of(values).combine(new StatsLibrary.Moments());
+        for (StatsLibrary.Moments moments : new StatsLibrary.Moments[] {left, right}) {
+            assertEquals(full.getN(), moments.getN());
+            assertEquals(full.getMean(), moments.getMean(), 0);
+            assertEquals(full.getVariance(), moments.getVariance(), 0);
+            assertEquals(full.getSkewness(), moments.getSkewness(), 0);
+            assertEquals(full.getKurtosis(), moments.getKurtosis(), 0);
+            assertEquals(full.getMin(), moments.getMin(), 0);
+            assertEquals(full.getMax(), moments.getMax(), 0);
+        }
+
+        StatsLibrary.Moments empty = new StatsLibrary.Moments().combine(new StatsLibrary.Moments());
+        assertEquals(0, empty.getN());
+        assertEquals(Double.POSITIVE_INFINITY, empty.getMin(), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, empty.getMax(), 0);
+
+        // Split anywhere, the halves combine to the whole
+        for (int split = 0; split <= values.length; split++) {
+            StatsLibrary.Moments head = new StatsLibrary.Moments();
+            head.accept(values, 0, split);
+            StatsLibrary.Moments tail = new StatsLibrary.Moments();
+            tail.accept(values, split, values.length);
+            StatsLibrary.Moments combined = head.combine(tail);
+            assertEquals(full.getMean(), combined.getMean(), 1e-12, "split " + split);
+            assertEquals(full.getVariance(), combined.getVariance(), 1e-10, "split " + split);
+            assertEquals(full.getSkewness(), combined.getSkewness(), 1e-10, "split " + split);
+            assertEquals(full.getKurtosis(), combined.getKurtosis(), 1e-10, "split " + split);
+        }
+    }
+
+    @Test
+    void continuousQuantileInvertsCdf() {
+        StatsLibrary.Distribution[] distributions = {
+                new StatsLibrary.UniformDistribution(-3, 7),
+                new StatsLibrary.NormalDistribution(),
+                new StatsLibrary.NormalDistribution(1e3, 25),
+                new StatsLibrary.ExponentialDistribution(0.5)
+        };
+        for (StatsLibrary.Distribution distribution : distributions) {
+            double mean = distribution.expectedValue();
+            double deviation = Math.sqrt(distribution.variance());
+            double[] xs = new double[201];
+            for (int i = 0; i < xs.length; i++) {
+                // From 5 deviations below the mean to 5 above, cut to the support
+                double x = mean + deviation * (i - 100) / 20.0;
+                xs[i] = distribution.cdf(x) > 0 ? x : mean;
+            }
+            double[] ps = new double[xs.length];
+            double[] back = new double[xs.length];
+            distribution.cdf(xs, ps);
+            distribution.quantile(ps, back);
+            String name = distribution.getClass().getSimpleName();
+            for (int i = 0; i < xs.length; i++) {
+                assertEquals(distribution.cdf(xs[i]), ps[i], 1e-15, name + " batch cdf at " + xs[i]);
+                if (ps[i] == 1) {
+                    continue;
+                }
+                assertEquals(xs[i], back[i], 1e-9 * deviation, name + " quantile(cdf(" + xs[i] + "))");
+                assertEquals(distribution.quantile(ps[i]), back[i], 0, name + " batch quantile at " + xs[i]);
+            }
+        }
+    }
+
+    @Test
+    void discreteQuantileInvertsCdf() {
+        StatsLibrary.Distribution[] distributions = {
+                new StatsLibrary.BinomialDistribution(20, 0.3),
+                new StatsLibrary.BinomialDistribution(10_000, 0.001),
+                new StatsLibrary.BinomialDistribution(1_000_000, 0.6),
+                new StatsLibrary.PoissonDistribution(0.5),
+                new StatsLibrary.PoissonDistribution(40),
+                new StatsLibrary.PoissonDistribution(1e6)
+        };
+        for (StatsLibrary.Distribution distribution : distributions) {
+            double mean = distribution.expectedValue();
+            double deviation = Math.sqrt(distribution.variance());
+            double from = Math.max(0, Math.floor(mean - 6 * deviation));
+            double to = Math.floor(mean + 6 * deviation) + 1;
+            double step = Math.max(1, Math.floor((to - from) / 200));
+            String name = distribution.getClass().getSimpleName() + " mean " + mean;
+            for (double k = from; k <= to; k += step) {
+                double p = distribution.cdf(k);
+                // An outcome with no probability of its own shares its cdf with the one below
+                if (distribution.pdf(k) == 0 || p == 1) {
+                    continue;
+                }
+                assertEquals(k, distribution.quantile(p), 0, name + " quantile(cdf(" + k + "))");
+            }
+        }
+    }
+
+    @Test
+    void poissonMeanPastIntegerRange() {
+        double lambda = 5e9;
+        StatsLibrary.PoissonDistribution poisson = new StatsLibrary.PoissonDistribution(lambda);
+        assertTrue(lambda > Integer.MAX_VALUE);
+
+        double median = poisson.quantile(0.5);
+        assertEquals(lambda, median, 2, "median");
+        assertTrue(poisson.cdf(median) >= 0.5 && poisson.cdf(median - 1) < 0.5, "median " + median);
+
+        double upper = poisson.quantile(0.999);
+        double expected = lambda + 3.0902 * Math.sqrt(lambda);
+        assertEquals(expected, upper, 5, "0.999 quantile");
+
+        SplittableRandom random = new SplittableRandom(9);
+        for (int i = 0; i < 100; i++) {
+            double sample = poisson.sample(random);
+            assertEquals(Math.rint(sample), sample, 0, "whole number");
+            assertEquals(lambda, sample, 6 * Math.sqrt(lambda), "sample");
+        }
+    }
+
+    // Mean, sample variance, skewness, excess kurtosis, min and max, from the mean in a first pass. The
+    // mean is summed with Kahan compensation; a plain sum of values near 1e6 is off in its tenth digit
+    private static double[] twoPass(double[] values) {
+        double n = values.length;
+        double sum = 0;
+        double compensation = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        double mean = sum / n;
+        double m2 = 0;
+        double m3 = 0;
+        double m4 = 0;
+        for (double value : values) {
+            double d = value - mean;
+            m2 += d * d;
+            m3 += d * d * d;
+            m4 += d * d * d * d;
+        }
+        double variance = m2 / (n - 1);
+        double skewness = n * m3 / ((n - 1) * (n - 2) * variance * Math.sqrt(variance));
+        double kurtosis = n * (n + 1) * m4 / ((n - 1) * (n - 2) * (n - 3) * variance * variance)
+                - 3 * (n - 1) * (n - 1) / ((n - 2) * (n - 3));
+        return new double[] {mean, variance, skewness, kurtosis, min, max};
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * The outcome of one backtest run.
+ */
+public class BacktestResult {
+    private final String label;
+    private final double balance;
+    private final int sharesOwned;
+    private final double valueOfShares;
+    private final double initialBalance;
+
+    /**
+     * Constructs a result.
+     *
+     * @param label          What was run, such as the ticker, strategy and parameters.
+     * @param balance        The cash left at the end.
+     * @param sharesOwned    The shares held at the end.
+     * @param valueOfShares  The shares valued at the last opening price.
+     * @param initialBalance The cash at the start.
+     */
+    public BacktestResult(String label, double balance, int sharesOwned, double valueOfShares, double initialBalance) {
+        this.label = label;
+        this.balance = balance;
+        this.sharesOwned = sharesOwned;
+        this.valueOfShares = valueOfShares;
+        this.initialBalance = initialBalance;
+    }
+
+    /**
+     * Returns what was run.
+     *
+     * @return The label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the cash left at the end.
+     *
+     * @return The balance.
+     */
+    public double getBalance() {
+        return balance;
+    }
+
+    /**
+     * Returns the shares held at the end.
+     *
+     * @return The shares owned.
+     */
+    public int getSharesOwned() {
+        return sharesOwned;
+    }
+
+    /**
+     * Returns the shares held at the end, valued at the last opening price.
+     *
+     * @return The value of the shares.
+     */
+    public double getValueOfShares() {
+        return valueOfShares;
+    }
+
+    /**
+     * Returns the cash plus the value of the shares at the end.
+     *
+     * @return The total net worth.
+     */
+    public double getNetWorth() {
+        return balance + valueOfShares;
+    }
+
+    /**
+     * Returns the gain or loss as a fraction of the starting cash.
+     *
+     * @return The return, e.g. 0.25 for 25%.
+     */
+    public double getReturn() {
+        return getNetWorth() / initialBalance - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-50s %12.2f %8d %12.2f %12.2f %8.2f%%",
+                label, balance, sharesOwned, valueOfShares, getNetWorth(), getReturn() * 100);
+    }
+}
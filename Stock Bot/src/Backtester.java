@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs BarStrategy backtests. Market data is shared and read-only and each run gets its own
+ * Portfolio, so a whole sweep of (ticker, strategy, parameter) runs can go in parallel without
+ * the reset() a StockBot needs between runs.
+ */
+public final class Backtester {
+
+    private Backtester() {
+    }
+
+    /**
+     * One run to make in a sweep.
+     */
+    public static class Job {
+        private final String label;
+        private final BarSeries series;
+        private final double balance;
+        private final Function<BarSeries, BarStrategy> strategy;
+
+        /**
+         * Constructs a job.
+         *
+         * @param label    What is being run, shown in the results.
+         * @param series   The bars to trade.
+         * @param balance  The starting cash.
+         * @param strategy Creates the strategy for the series; called on the thread that runs the job.
+         */
+        public Job(String label, BarSeries series, double balance, Function<BarSeries, BarStrategy> strategy) {
+            this.label = label;
+            this.series = series;
+            this.balance = balance;
+            this.strategy = strategy;
+        }
+    }
+
+    /**
+     * Runs a strategy over every bar of a series, trading at each bar's opening price
+     * in the same way as StockBot.run.
+     *
+     * @param label    What is being run, shown in the result.
+     * @param series   The bars to trade.
+     * @param balance  The starting cash.
+     * @param strategy The strategy to run.
+     * @return The final state of the portfolio.
+     */
+    public static BacktestResult run(String label, BarSeries series, double balance, BarStrategy strategy) {
+        double[] rsi = IndicatorColumns.rsi(series, StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+        double[] ma = IndicatorColumns.openSma(series, StockBot.STRATEGY_MA_WINDOW);
+        double[] avgVolume = IndicatorColumns.cumulativeVolumeAverage(series);
+        Portfolio portfolio = new Portfolio(balance);
+        BarContext bar = new BarContext();
+        for (int day = 0; day < series.size(); day++) {
+            bar.setBar(series, day);
+            bar.setIndicators(rsi[day], ma[day], avgVolume[day]);
+            bar.setPosition(portfolio.getSharesOwned(), portfolio.getBalance());
+            double shares = strategy.execute(bar);
+            portfolio.trade(shares, bar.getOpen());
+        }
+        double lastOpen = series.size() == 0 ? 0 : series.getOpen(series.size() - 1);
+        return new BacktestResult(label, portfolio.getBalance(), portfolio.getSharesOwned(),
+                portfolio.getSharesOwned() * lastOpen, balance);
+    }
+
+    /**
+     * Runs every job on a fork-join pool and ranks the results by net worth, best first.
+     *
+     * @param jobs The runs to make.
+     * @param pool The pool to run them on.
+     * @return The results, best first.
+     * @throws InterruptedException If interrupted while waiting for the runs.
+     */
+    public static List<BacktestResult> sweep(List<Job> jobs, ForkJoinPool pool) throws InterruptedException {
+        try {
+            return pool.submit(() -> jobs.parallelStream()
+                    .map(job -> run(job.label, job.series, job.balance, job.strategy.apply(job.series)))
+                    .sorted(Comparator.comparingDouble(BacktestResult::getNetWorth).reversed())
+                    .collect(Collectors.toCollection(ArrayList::new))).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Prints results as a table.
+     *
+     * @param results The results, in the order to print them.
+     * @param limit   The most rows to print.
+     */
+    public static void printTable(List<BacktestResult> results, int limit) {
+        System.out.println(String.format("%-6s %-50s %12s %8s %12s %12s %9s",
+                "rank", "run", "wallet", "shares", "share value", "net worth", "return"));
+        for (int i = 0; i < Math.min(limit, results.size()); i++) {
+            System.out.println(String.format("%-6d ", i + 1) + results.get(i));
+        }
+    }
+}
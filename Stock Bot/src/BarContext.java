@@ -0,0 +1,191 @@
+/**
+ * Everything a BarStrategy can see about the current bar: its prices and volume, the
+ * indicators StockBot trades on (14-day RSI, 30-day opening-price moving average and
+ * average volume so far), and the cash and shares held before trading.
+ *
+ * One instance is reused for every bar of a run and refilled by the engine before each call.
+ */
+public final class BarContext {
+    private int day;
+    private boolean lastBar;
+    private int epochDay;
+    private double open;
+    private double high;
+    private double low;
+    private double close;
+    private double adjClose;
+    private long volume;
+    private double rsi;
+    private double ma;
+    private double avgVolume;
+    private int sharesOwned;
+    private double balance;
+
+    /**
+     * Fills in the current bar.
+     */
+    void setBar(int day, boolean lastBar, int epochDay, double open, double high, double low,
+                double close, double adjClose, long volume) {
+        this.day = day;
+        this.lastBar = lastBar;
+        this.epochDay = epochDay;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.adjClose = adjClose;
+        this.volume = volume;
+    }
+
+    /**
+     * Fills in the bar of a series.
+     */
+    void setBar(BarSeries series, int day) {
+        setBar(day, day == series.size() - 1, series.getEpochDay(day), series.getOpen(day),
+                series.getHigh(day), series.getLow(day), series.getClose(day),
+                series.getAdjClose(day), series.getVolume(day));
+    }
+
+    /**
+     * Fills in the indicators for the current bar.
+     */
+    void setIndicators(double rsi, double ma, double avgVolume) {
+        this.rsi = rsi;
+        this.ma = ma;
+        this.avgVolume = avgVolume;
+    }
+
+    /**
+     * Fills in the position before trading on the current bar.
+     */
+    void setPosition(int sharesOwned, double balance) {
+        this.sharesOwned = sharesOwned;
+        this.balance = balance;
+    }
+
+    /**
+     * Returns the index of the bar in its series, 0 for the first.
+     *
+     * @return The bar index.
+     */
+    public int getDay() {
+        return day;
+    }
+
+    /**
+     * Returns whether this is the last bar of the run.
+     *
+     * @return True on the last bar.
+     */
+    public boolean isLastBar() {
+        return lastBar;
+    }
+
+    /**
+     * Returns the date of the bar as days since 1970-01-01.
+     *
+     * @return The epoch day.
+     */
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Returns the opening price, which is the price trades are made at.
+     *
+     * @return The opening price.
+     */
+    public double getOpen() {
+        return open;
+    }
+
+    /**
+     * Returns the highest price of the bar.
+     *
+     * @return The highest price.
+     */
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * Returns the lowest price of the bar.
+     *
+     * @return The lowest price.
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * Returns the closing price of the bar.
+     *
+     * @return The closing price.
+     */
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * Returns the adjusted closing price of the bar.
+     *
+     * @return The adjusted closing price.
+     */
+    public double getAdjClose() {
+        return adjClose;
+    }
+
+    /**
+     * Returns the trading volume of the bar.
+     *
+     * @return The volume.
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Returns the 14-day RSI up to and including this bar.
+     *
+     * @return The RSI, or NaN while there are not yet 14 price changes.
+     */
+    public double getRsi() {
+        return rsi;
+    }
+
+    /**
+     * Returns the 30-day moving average of the opening price up to and including this bar.
+     *
+     * @return The moving average.
+     */
+    public double getMa() {
+        return ma;
+    }
+
+    /**
+     * Returns the average volume of every bar up to and including this one.
+     *
+     * @return The average volume.
+     */
+    public double getAvgVolume() {
+        return avgVolume;
+    }
+
+    /**
+     * Returns the shares held before trading on this bar.
+     *
+     * @return The shares owned.
+     */
+    public int getSharesOwned() {
+        return sharesOwned;
+    }
+
+    /**
+     * Returns the cash held before trading on this bar.
+     *
+     * @return The balance.
+     */
+    public double getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,449 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A memory-mapped bar file: daily bars stored column by column in a compact binary layout, so loading
+ * them is a map and a copy instead of a CSV parse. Files are written by BarFileWriter, and
+ * CsvToBarFile converts existing CSVs.
+ *
+ * Layout, little-endian throughout:
+ * <pre>
+ * 0    int    magic "BARS"
+ * 4    short  version (1)
+ * 6    short  flags: 1 = RSI column present, 2 = MA column present
+ * 8    int    number of bars
+ * 12   int    number of columns (9)
+ * 16   16 reserved bytes
+ * 32   9 column entries of 24 bytes: int encoding, int reserved, long offset, long length
+ * 256  column data, each column starting on an 8-byte boundary
+ * </pre>
+ * The columns are, in order, epoch day (int), open, high, low, close, adjusted close (double), volume
+ * (long), RSI and MA (double). A column is either RAW, the values themselves, or compressed:
+ * <ul>
+ * <li>DELTA: zigzag varint differences from the previous value, for the int and long columns.</li>
+ * <li>DECIMAL: zigzag varint differences of value * 10^6, for double columns whose every value is a
+ * decimal with at most six places, like downloaded prices. Decoding reproduces the exact doubles.</li>
+ * <li>XOR: per value, the bits XORed with the previous value's bits, stored as a control byte
+ * (leading and trailing zero bytes) and the bytes between.</li>
+ * </ul>
+ * RAW columns stay in the mapped file and are read in place. Compressed columns are decoded into
+ * arrays when the file is opened. An open BarFile never changes and is safe to read from any number
+ * of threads at once.
+ *
+ * @see BarFileWriter
+ * @see CsvToBarFile
+ */
+public final class BarFile implements BarSeries {
+
+    /**
+     * The file name extension for bar files.
+     */
+    public static final String EXTENSION = ".bars";
+
+    static final int MAGIC = 'B' | 'A' << 8 | 'R' << 16 | 'S' << 24;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 256;
+    static final int DIRECTORY_OFFSET = 32;
+    static final int ENTRY_SIZE = 24;
+
+    static final short HAS_RSI = 1;
+    static final short HAS_MA = 2;
+
+    // Column numbers
+    static final int EPOCH_DAY = 0;
+    static final int OPEN = 1;
+    static final int HIGH = 2;
+    static final int LOW = 3;
+    static final int CLOSE = 4;
+    static final int ADJ_CLOSE = 5;
+    static final int VOLUME = 6;
+    static final int RSI = 7;
+    static final int MA = 8;
+    static final int COLUMNS = 9;
+
+    // Column encodings
+    static final int RAW = 0;
+    static final int DELTA = 1;
+    static final int DECIMAL = 2;
+    static final int XOR = 3;
+
+    // Scale of the DECIMAL encoding; prices with up to six decimals store exactly
+    static final double DECIMAL_SCALE = 1e6;
+
+    private final int size;
+    private final IntBuffer epochDays;
+    private final DoubleBuffer open;
+    private final DoubleBuffer high;
+    private final DoubleBuffer low;
+    private final DoubleBuffer close;
+    private final DoubleBuffer adjClose;
+    private final LongBuffer volume;
+    private final DoubleBuffer rsi;
+    private final DoubleBuffer ma;
+
+    private BarFile(int size, ByteBuffer[] columns, int[] encodings, short flags, Path path) throws IOException {
+        this.size = size;
+        this.epochDays = ints(columns[EPOCH_DAY], encodings[EPOCH_DAY], size, path);
+        this.open = doubles(columns[OPEN], encodings[OPEN], size, path, OPEN);
+        this.high = doubles(columns[HIGH], encodings[HIGH], size, path, HIGH);
+        this.low = doubles(columns[LOW], encodings[LOW], size, path, LOW);
+        this.close = doubles(columns[CLOSE], encodings[CLOSE], size, path, CLOSE);
+        this.adjClose = doubles(columns[ADJ_CLOSE], encodings[ADJ_CLOSE], size, path, ADJ_CLOSE);
+        this.volume = longs(columns[VOLUME], encodings[VOLUME], size, path);
+        this.rsi = (flags & HAS_RSI) != 0 ? doubles(columns[RSI], encodings[RSI], size, path, RSI) : null;
+        this.ma = (flags & HAS_MA) != 0 ? doubles(columns[MA], encodings[MA], size, path, MA) : null;
+    }
+
+    /**
+     * Maps a bar file.
+     *
+     * @param fileName The name of the bar file.
+     * @return The opened file.
+     * @throws IOException If the file cannot be read or is not a valid bar file.
+     */
+    public static BarFile open(String fileName) throws IOException {
+        return open(Paths.get(fileName));
+    }
+
+    /**
+     * Maps a bar file. The mappings stay valid after this returns; there is nothing to close.
+     *
+     * @param path The bar file.
+     * @return The opened file.
+     * @throws IOException If the file cannot be read or is not a valid bar file.
+     */
+    public static BarFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException(path + " is not a bar file: only " + fileSize + " bytes");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a bar file");
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException(path + " has unsupported bar file version " + header.getShort(4));
+            }
+            short flags = header.getShort(6);
+            int size = header.getInt(8);
+            if (size < 0 || header.getInt(12) != COLUMNS) {
+                throw new IOException(path + " has a corrupt bar file header");
+            }
+
+            ByteBuffer[] columns = new ByteBuffer[COLUMNS];
+            int[] encodings = new int[COLUMNS];
+            for (int c = 0; c < COLUMNS; c++) {
+                int entry = DIRECTORY_OFFSET + c * ENTRY_SIZE;
+                encodings[c] = header.getInt(entry);
+                long offset = header.getLong(entry + 8);
+                long length = header.getLong(entry + 16);
+                if (offset < 0 || length < 0 || length > Integer.MAX_VALUE || offset + length > fileSize
+                        || offset < HEADER_SIZE && length != 0) {
+                    throw new IOException(path + " has a corrupt entry for column " + c);
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                columns[c] = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            try {
+                return new BarFile(size, columns, encodings, flags, path);
+            } catch (BufferUnderflowException e) {
+                throw new IOException(path + " is truncated: a compressed column ends early", e);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a file name has the bar file extension.
+     *
+     * @param fileName The file name.
+     * @return True if the name ends with EXTENSION.
+     */
+    public static boolean isBarFile(String fileName) {
+        return fileName.endsWith(EXTENSION);
+    }
+
+    /**
+     * Copies the bars into a StockSeries. RAW columns are copied in bulk straight from the mapping.
+     *
+     * @return A new series.
+     */
+    public StockSeries toStockSeries() {
+        int[] days = new int[size];
+        epochDays.get(0, days);
+        long[] volumes = new long[size];
+        volume.get(0, volumes);
+        return new StockSeries(days, copy(open), copy(high), copy(low), copy(close), copy(adjClose), volumes, size);
+    }
+
+    /**
+     * Returns the number of bars in the file.
+     *
+     * @return The number of bars.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether every bar column is RAW, so the bars are read straight from the mapping and
+     * nothing was decoded onto the heap.
+     *
+     * @return True if the bars live only in the mapped file.
+     */
+    boolean isMapped() {
+        return epochDays.isDirect() && open.isDirect() && high.isDirect() && low.isDirect() && close.isDirect()
+                && adjClose.isDirect() && volume.isDirect();
+    }
+
+    /**
+     * Returns whether the file has an RSI column.
+     *
+     * @return True if getRsi can be called.
+     */
+    public boolean hasRsi() {
+        return rsi != null;
+    }
+
+    /**
+     * Returns whether the file has a moving average column.
+     *
+     * @return True if getMa can be called.
+     */
+    public boolean hasMa() {
+        return ma != null;
+    }
+
+    /**
+     * Returns the date of a bar as days since 1970-01-01.
+     *
+     * @param i The bar index.
+     * @return The epoch day of the bar.
+     */
+    @Override
+    public int getEpochDay(int i) {
+        return epochDays.get(i);
+    }
+
+    /**
+     * Returns the opening price of a bar.
+     *
+     * @param i The bar index.
+     * @return The opening price.
+     */
+    @Override
+    public double getOpen(int i) {
+        return open.get(i);
+    }
+
+    /**
+     * Returns the highest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The highest price.
+     */
+    @Override
+    public double getHigh(int i) {
+        return high.get(i);
+    }
+
+    /**
+     * Returns the lowest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The lowest price.
+     */
+    @Override
+    public double getLow(int i) {
+        return low.get(i);
+    }
+
+    /**
+     * Returns the closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The closing price.
+     */
+    @Override
+    public double getClose(int i) {
+        return close.get(i);
+    }
+
+    /**
+     * Returns the adjusted closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The adjusted closing price.
+     */
+    @Override
+    public double getAdjClose(int i) {
+        return adjClose.get(i);
+    }
+
+    /**
+     * Returns the trading volume of a bar.
+     *
+     * @param i The bar index.
+     * @return The trading volume.
+     */
+    @Override
+    public long getVolume(int i) {
+        return volume.get(i);
+    }
+
+    /**
+     * Returns the RSI stored for a bar.
+     *
+     * @param i The bar index.
+     * @return The RSI.
+     * @throws IllegalStateException If the file has no RSI column.
+     */
+    public double getRsi(int i) {
+        if (rsi == null) {
+            throw new IllegalStateException("The bar file has no RSI column");
+        }
+        return rsi.get(i);
+    }
+
+    /**
+     * Returns the moving average stored for a bar.
+     *
+     * @param i The bar index.
+     * @return The moving average.
+     * @throws IllegalStateException If the file has no MA column.
+     */
+    public double getMa(int i) {
+        if (ma == null) {
+            throw new IllegalStateException("The bar file has no MA column");
+        }
+        return ma.get(i);
+    }
+
+    /**
+     * Copies the RSI column.
+     *
+     * @return A new array, or null if the file has no RSI column.
+     */
+    public double[] rsiColumn() {
+        return copy(rsi);
+    }
+
+    /**
+     * Copies the moving average column.
+     *
+     * @return A new array, or null if the file has no MA column.
+     */
+    public double[] maColumn() {
+        return copy(ma);
+    }
+
+    private double[] copy(DoubleBuffer column) {
+        if (column == null) {
+            return null;
+        }
+        double[] values = new double[size];
+        column.get(0, values);
+        return values;
+    }
+
+    private static IntBuffer ints(ByteBuffer bytes, int encoding, int size, Path path) throws IOException {
+        if (encoding == RAW) {
+            checkLength(bytes, 4L * size, path, EPOCH_DAY);
+            return bytes.asIntBuffer();
+        }
+        if (encoding != DELTA) {
+            throw new IOException(path + " has unknown encoding " + encoding + " for column " + EPOCH_DAY);
+        }
+        int[] values = new int[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += readZigzag(bytes);
+            values[i] = (int) previous;
+        }
+        return IntBuffer.wrap(values);
+    }
+
+    private static LongBuffer longs(ByteBuffer bytes, int encoding, int size, Path path) throws IOException {
+        if (encoding == RAW) {
+            checkLength(bytes, 8L * size, path, VOLUME);
+            return bytes.asLongBuffer();
+        }
+        if (encoding != DELTA) {
+            throw new IOException(path + " has unknown encoding " + encoding + " for column " + VOLUME);
+        }
+        long[] values = new long[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += readZigzag(bytes);
+            values[i] = previous;
+        }
+        return LongBuffer.wrap(values);
+    }
+
+    private static DoubleBuffer doubles(ByteBuffer bytes, int encoding, int size, Path path, int column)
+            throws IOException {
+        double[] values;
+        switch (encoding) {
+            case RAW:
+                checkLength(bytes, 8L * size, path, column);
+                return bytes.asDoubleBuffer();
+            case DECIMAL:
+                values = new double[size];
+                long scaled = 0;
+                for (int i = 0; i < size; i++) {
+                    scaled += readZigzag(bytes);
+                    values[i] = scaled / DECIMAL_SCALE;
+                }
+                return DoubleBuffer.wrap(values);
+            case XOR:
+                values = new double[size];
+                long bits = 0;
+                for (int i = 0; i < size; i++) {
+                    int control = bytes.get() & 0xff;
+                    int trailing = control & 15;
+                    int count = 8 - (control >>> 4) - trailing;
+                    long middle = 0;
+                    for (int b = 0; b < count; b++) {
+                        middle |= (bytes.get() & 0xffL) << (8 * b);
+                    }
+                    bits ^= middle << (8 * trailing);
+                    values[i] = Double.longBitsToDouble(bits);
+                }
+                return DoubleBuffer.wrap(values);
+            default:
+                throw new IOException(path + " has unknown encoding " + encoding + " for column " + column);
+        }
+    }
+
+    private static void checkLength(ByteBuffer bytes, long expected, Path path, int column) throws IOException {
+        if (bytes.capacity() != expected) {
+            throw new IOException(path + " has " + bytes.capacity() + " bytes for column " + column
+                    + " instead of " + expected);
+        }
+    }
+
+    // Reads an LEB128 varint and undoes the zigzag mapping
+    private static long readZigzag(ByteBuffer bytes) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Writes StockSeries bars, and optionally RSI and moving average columns, in the BarFile layout.
+ *
+ * The columns are streamed through one 1 MB buffer, so writing needs no memory in proportion to
+ * the series. With compression on, the date and volume columns are delta coded. Each price or
+ * indicator column is stored as DECIMAL when every value in it is a decimal with at most six places,
+ * and as XOR otherwise.
+ *
+ * @see BarFile
+ */
+public final class BarFileWriter {
+
+    static final int BUFFER_SIZE = 1 << 20;
+
+    // Most bytes one value can take in any encoding (a 64-bit varint)
+    private static final int MAX_VALUE_BYTES = 10;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ByteBuffer header;
+    private final int size;
+    // File offset of the first byte in the buffer
+    private long position;
+
+    private BarFileWriter(FileChannel channel, int size) {
+        this.channel = channel;
+        this.size = size;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.header = ByteBuffer.allocate(BarFile.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.position = BarFile.HEADER_SIZE;
+    }
+
+    /**
+     * Writes a series without indicator columns.
+     *
+     * @param fileName The name of the bar file to create or replace.
+     * @param series   The bars.
+     * @param compress Whether to compress the columns.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(String fileName, StockSeries series, boolean compress) throws IOException {
+        write(Paths.get(fileName), series, null, null, compress);
+    }
+
+    /**
+     * Writes a series and, if given, its RSI and moving average columns.
+     *
+     * @param path     The bar file to create or replace.
+     * @param series   The bars.
+     * @param rsi      The RSI for each bar, or null to leave the column out.
+     * @param ma       The moving average for each bar, or null to leave the column out.
+     * @param compress Whether to compress the columns.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If rsi or ma is shorter than the series.
+     */
+    public static void write(Path path, StockSeries series, double[] rsi, double[] ma, boolean compress)
+            throws IOException {
+        int n = series.size();
+        if (rsi != null && rsi.length < n || ma != null && ma.length < n) {
+            throw new IllegalArgumentException("Indicator columns must have a value for each of the " + n + " bars");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BarFileWriter writer = new BarFileWriter(channel, n);
+            writer.writeInts(BarFile.EPOCH_DAY, series::getEpochDay, compress);
+            writer.writeDoubles(BarFile.OPEN, series::getOpen, compress);
+            writer.writeDoubles(BarFile.HIGH, series::getHigh, compress);
+            writer.writeDoubles(BarFile.LOW, series::getLow, compress);
+            writer.writeDoubles(BarFile.CLOSE, series::getClose, compress);
+            writer.writeDoubles(BarFile.ADJ_CLOSE, series::getAdjClose, compress);
+            writer.writeLongs(BarFile.VOLUME, series::getVolume, compress);
+            short flags = 0;
+            if (rsi != null) {
+                writer.writeDoubles(BarFile.RSI, i -> rsi[i], compress);
+                flags |= BarFile.HAS_RSI;
+            }
+            if (ma != null) {
+                writer.writeDoubles(BarFile.MA, i -> ma[i], compress);
+                flags |= BarFile.HAS_MA;
+            }
+            writer.finish(flags);
+        }
+    }
+
+    private void writeInts(int column, IntToLongFunction values, boolean compress) throws IOException {
+        long start = offset();
+        if (compress) {
+            writeDeltas(values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                ensure(4);
+                buffer.putInt((int) values.applyAsLong(i));
+            }
+        }
+        endColumn(column, compress ? BarFile.DELTA : BarFile.RAW, start);
+    }
+
+    private void writeLongs(int column, IntToLongFunction values, boolean compress) throws IOException {
+        long start = offset();
+        if (compress) {
+            writeDeltas(values);
+        } else {
+            for (int i = 0; i < size; i++) {
+                ensure(8);
+                buffer.putLong(values.applyAsLong(i));
+            }
+        }
+        endColumn(column, compress ? BarFile.DELTA : BarFile.RAW, start);
+    }
+
+    private void writeDoubles(int column, IntToDoubleFunction values, boolean compress) throws IOException {
+        long start = offset();
+        int encoding = BarFile.RAW;
+        if (!compress) {
+            for (int i = 0; i < size; i++) {
+                ensure(8);
+                buffer.putDouble(values.applyAsDouble(i));
+            }
+        } else if (allDecimal(values)) {
+            encoding = BarFile.DECIMAL;
+            writeDeltas(i -> Math.round(values.applyAsDouble(i) * BarFile.DECIMAL_SCALE));
+        } else {
+            encoding = BarFile.XOR;
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                long bits = Double.doubleToRawLongBits(values.applyAsDouble(i));
+                long xor = bits ^ previous;
+                previous = bits;
+                int leading = xor == 0 ? 8 : Long.numberOfLeadingZeros(xor) / 8;
+                int trailing = xor == 0 ? 0 : Long.numberOfTrailingZeros(xor) / 8;
+                ensure(9);
+                buffer.put((byte) (leading << 4 | trailing));
+                long middle = xor >>> (8 * trailing);
+                for (int b = 8 - leading - trailing; b > 0; b--) {
+                    buffer.put((byte) middle);
+                    middle >>>= 8;
+                }
+            }
+        }
+        endColumn(column, encoding, start);
+    }
+
+    // Whether every value survives the round trip through value * 10^6 as a long, sign of zero included
+    private boolean allDecimal(IntToDoubleFunction values) {
+        for (int i = 0; i < size; i++) {
+            double value = values.applyAsDouble(i);
+            if (!(Math.abs(value) < 1e9)) {
+                return false;
+            }
+            double decoded = Math.round(value * BarFile.DECIMAL_SCALE) / BarFile.DECIMAL_SCALE;
+            if (Double.doubleToRawLongBits(decoded) != Double.doubleToRawLongBits(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Zigzag varint differences from the previous value
+    private void writeDeltas(IntToLongFunction values) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = values.applyAsLong(i);
+            long delta = value - previous;
+            previous = value;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            ensure(MAX_VALUE_BYTES);
+            while ((zigzag & ~0x7fL) != 0) {
+                buffer.put((byte) (zigzag | 0x80));
+                zigzag >>>= 7;
+            }
+            buffer.put((byte) zigzag);
+        }
+    }
+
+    // Records the column in the directory and pads the file to the next 8-byte boundary
+    private void endColumn(int column, int encoding, long start) throws IOException {
+        long length = offset() - start;
+        int entry = BarFile.DIRECTORY_OFFSET + column * BarFile.ENTRY_SIZE;
+        header.putInt(entry, encoding);
+        header.putLong(entry + 8, start);
+        header.putLong(entry + 16, length);
+        int padding = (int) (-length & 7);
+        ensure(padding);
+        for (int i = 0; i < padding; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void finish(short flags) throws IOException {
+        flush();
+        header.putInt(0, BarFile.MAGIC);
+        header.putShort(4, BarFile.VERSION);
+        header.putShort(6, flags);
+        header.putInt(8, size);
+        header.putInt(12, BarFile.COLUMNS);
+        header.clear();
+        long at = 0;
+        while (header.hasRemaining()) {
+            at += channel.write(header, at);
+        }
+    }
+
+    // Where the next byte goes in the file
+    private long offset() {
+        return position + buffer.position();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,204 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A local stand-in for a live market data feed: serves the lines of a stock data CSV file over a TCP
+ * or Unix domain socket at a set number of bars per second, as SocketBarSource reads them.
+ *
+ * Every client that connects gets the whole file from the header on, on its own thread, and the
+ * connection is closed after the last bar. Bars are sent on a fixed schedule from the moment the
+ * client connects, so a slow client catches up instead of drifting. Run it from the command line with
+ * <pre>
+ * java BarReplayServer "INTC 5Y Weekly.csv" 9100 1000
+ * </pre>
+ * to serve the file on port 9100 of the loopback interface at 1000 bars per second.
+ */
+public final class BarReplayServer implements Closeable {
+
+    private final byte[] header;
+    private final byte[][] bars;
+    private final double barsPerSecond;
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+
+    /**
+     * Starts serving a file.
+     *
+     * @param fileName      The name of the CSV file containing stock data.
+     * @param address       Where to listen: an InetSocketAddress, port 0 for any free port, or a
+     *                      UnixDomainSocketAddress.
+     * @param barsPerSecond How fast to send the bars, or 0 or less to send them as fast as possible.
+     * @throws IOException If the file cannot be read, the address cannot be bound, or a Unix domain
+     *                     socket path is taken by something other than a socket.
+     */
+    public BarReplayServer(String fileName, SocketAddress address, double barsPerSecond) throws IOException {
+        List<byte[]> lines = new ArrayList<>();
+        byte[] first = null;
+        for (String line : Files.readAllLines(Paths.get(fileName))) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+            if (first == null && lines.isEmpty() && !Character.isDigit(line.charAt(0))) {
+                first = bytes;
+            } else {
+                lines.add(bytes);
+            }
+        }
+        this.header = first;
+        this.bars = lines.toArray(new byte[0][]);
+        this.barsPerSecond = barsPerSecond;
+        if (address instanceof UnixDomainSocketAddress) {
+            removeStaleSocket(((UnixDomainSocketAddress) address).getPath());
+            this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            this.server = ServerSocketChannel.open();
+        }
+        server.bind(address);
+        this.address = server.getLocalAddress();
+        Thread acceptor = new Thread(this::accept, "replay-accept " + this.address);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts serving a file on a free port of the loopback interface.
+     *
+     * @param fileName      The name of the CSV file containing stock data.
+     * @param barsPerSecond How fast to send the bars, or 0 or less to send them as fast as possible.
+     * @return The running server; see getAddress for where it listens.
+     * @throws IOException If the file cannot be read or no port is free.
+     */
+    public static BarReplayServer onLoopback(String fileName, double barsPerSecond) throws IOException {
+        return new BarReplayServer(fileName, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), barsPerSecond);
+    }
+
+    /**
+     * Returns where the server listens, with the actual port if it was bound to port 0.
+     *
+     * @return The address to give SocketBarSource.connect.
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Returns the number of bars sent to each client.
+     *
+     * @return The number of bars in the file.
+     */
+    public int size() {
+        return bars.length;
+    }
+
+    /**
+     * Stops accepting clients. Clients already connected still get the rest of the file.
+     *
+     * @throws IOException If closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    // A socket file left behind by an earlier server would stop the bind, so it is removed; anything
+    // else at the path, such as a data file given as the address by mistake, is left alone
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attributes.isOther()) {
+            throw new IOException(path + " exists and is not a socket");
+        }
+        Files.delete(path);
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                SocketChannel client = server.accept();
+                Thread sender = new Thread(() -> send(client), "replay-send " + address);
+                sender.setDaemon(true);
+                sender.start();
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by close()
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void send(SocketChannel client) {
+        try (SocketChannel channel = client) {
+            if (address instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            if (header != null) {
+                write(channel, header);
+            }
+            long start = System.nanoTime();
+            double nanosPerBar = barsPerSecond > 0 ? 1e9 / barsPerSecond : 0;
+            for (int i = 0; i < bars.length; i++) {
+                long due = start + (long) (i * nanosPerBar);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                write(channel, bars[i]);
+            }
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static void write(SocketChannel channel, byte[] line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Serves a file until the process is stopped.
+     *
+     * @param args The CSV file, the port or Unix domain socket path to listen on (default 9100), and
+     *             the bars per second (default 1000, 0 for as fast as possible).
+     * @throws IOException If the file cannot be read or the address cannot be bound.
+     * @throws InterruptedException If interrupted while serving.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java BarReplayServer file.csv [port|host:port|socket path] [bars per second]");
+            System.exit(1);
+        }
+        SocketAddress address = SocketBarSource.address(args.length > 1 ? args[1] : "9100");
+        double barsPerSecond = args.length > 2 ? Double.parseDouble(args[2]) : 1000;
+        BarReplayServer server = new BarReplayServer(args[0], address, barsPerSecond);
+        System.out.println("Serving " + server.size() + " bars of " + args[0] + " on " + server.getAddress()
+                + (barsPerSecond > 0 ? " at " + barsPerSecond + " bars per second" : " as fast as possible"));
+        Thread.currentThread().join();
+    }
+}
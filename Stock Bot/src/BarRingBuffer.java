@@ -0,0 +1,235 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue that hands bars from one producer thread to one consumer thread.
+ *
+ * Bars are stored in preallocated primitive columns, so neither side allocates or takes a lock. The
+ * producer writes a slot and then publishes it by moving the tail cursor with release semantics; the
+ * consumer reads the slot after seeing the tail with acquire semantics, and frees it the same way
+ * through the head cursor. Each side keeps its own copy of the other's cursor and only rereads it
+ * when the queue looks full or empty, so in the steady state the two threads touch shared memory
+ * once per bar each. The two cursors sit far enough apart in one array not to share a cache line.
+ *
+ * Every bar is stamped with System.nanoTime() as it is published, which the consumer can read back to
+ * measure how long the bar took to be acted on.
+ *
+ * Only one thread may call offer, onBar and close, and only one thread may call poll, isFinished and
+ * cancel.
+ */
+public final class BarRingBuffer implements BarSource.Listener {
+
+    /**
+     * What a thread does when the queue is empty, for the consumer, or full, for the producer.
+     */
+    public enum IdleStrategy {
+        /**
+         * Spins on the CPU. Gives the lowest latency but keeps a core busy, so only use it when the
+         * consumer has a core to itself.
+         */
+        SPIN,
+        /**
+         * Spins briefly, then yields, then parks for short intervals, so an idle feed costs little CPU.
+         * A bar arriving while the thread is parked waits up to the park interval plus the wake-up time.
+         */
+        BACK_OFF;
+
+        private static final int SPINS = 100;
+        private static final int YIELDS = 100;
+        private static final long PARK_NANOS = 20_000;
+
+        /**
+         * Waits once.
+         *
+         * @param idleCount The number of times in a row the thread has already waited.
+         * @return The new idle count.
+         */
+        public int idle(int idleCount) {
+            if (this == SPIN || idleCount < SPINS) {
+                Thread.onSpinWait();
+            } else if (idleCount < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return idleCount + 1;
+        }
+    }
+
+    // Indexes of the cursors in the cursors array, 64 bytes apart and away from its header
+    private static final int TAIL = 8;
+    private static final int HEAD = 16;
+
+    // Bars published so far, moved by the producer, and bars consumed so far, moved by the consumer
+    private final AtomicLongArray cursors = new AtomicLongArray(24);
+    private final int capacity;
+    private final int mask;
+    private final int[] epochDays;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] adjClose;
+    private final long[] volume;
+    private final long[] publishedNanos;
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+
+    // Producer only
+    private long cachedHead;
+
+    // Consumer only
+    private long cachedTail;
+    private long lastPublishedNanos;
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param capacity The most bars the queue holds, rounded up to a power of two.
+     * @throws IllegalArgumentException If capacity is less than 1 or more than 2^30.
+     */
+    public BarRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.epochDays = new int[this.capacity];
+        this.open = new double[this.capacity];
+        this.high = new double[this.capacity];
+        this.low = new double[this.capacity];
+        this.close = new double[this.capacity];
+        this.adjClose = new double[this.capacity];
+        this.volume = new long[this.capacity];
+        this.publishedNanos = new long[this.capacity];
+    }
+
+    /**
+     * Publishes a bar if there is room. Producer only.
+     *
+     * @param epochDay The date of the bar as days since 1970-01-01.
+     * @param open     The opening price.
+     * @param high     The highest price.
+     * @param low      The lowest price.
+     * @param close    The closing price.
+     * @param adjClose The adjusted closing price.
+     * @param volume   The trading volume.
+     * @return True if the bar was published, false if the queue is full.
+     */
+    public boolean offer(int epochDay, double open, double high, double low, double close, double adjClose,
+                         long volume) {
+        long tail = cursors.getPlain(TAIL);
+        if (tail - cachedHead == capacity) {
+            cachedHead = cursors.getAcquire(HEAD);
+            if (tail - cachedHead == capacity) {
+                return false;
+            }
+        }
+        int slot = (int) tail & mask;
+        this.epochDays[slot] = epochDay;
+        this.open[slot] = open;
+        this.high[slot] = high;
+        this.low[slot] = low;
+        this.close[slot] = close;
+        this.adjClose[slot] = adjClose;
+        this.volume[slot] = volume;
+        this.publishedNanos[slot] = System.nanoTime();
+        cursors.setRelease(TAIL, tail + 1);
+        return true;
+    }
+
+    /**
+     * Publishes a bar, backing off while the queue is full. Producer only; lets the queue be
+     * handed straight to BarSource.stream.
+     *
+     * @throws CancellationException If the consumer cancelled the queue while it was full, which
+     *                               ends the source's stream.
+     */
+    @Override
+    public void onBar(int epochDay, double open, double high, double low, double close, double adjClose, long volume) {
+        int idle = 0;
+        while (!offer(epochDay, open, high, low, close, adjClose, volume)) {
+            if (cancelled) {
+                throw new CancellationException("The consumer stopped taking bars");
+            }
+            idle = IdleStrategy.BACK_OFF.idle(idle);
+        }
+    }
+
+    /**
+     * Marks the end of the stream: no more bars will be published. Producer only.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Tells the producer that no more bars will be taken, so onBar stops waiting for room and throws
+     * instead. Consumer only.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Takes the oldest bar, if there is one, into a BarContext. Consumer only.
+     *
+     * @param bar The context to fill in.
+     * @param day The index to give the bar, 0 for the first.
+     * @return True if a bar was taken, false if the queue is empty.
+     */
+    public boolean poll(BarContext bar, int day) {
+        long head = cursors.getPlain(HEAD);
+        if (head == cachedTail) {
+            cachedTail = cursors.getAcquire(TAIL);
+            if (head == cachedTail) {
+                return false;
+            }
+        }
+        int slot = (int) head & mask;
+        bar.setBar(day, false, epochDays[slot], open[slot], high[slot], low[slot], close[slot],
+                adjClose[slot], volume[slot]);
+        lastPublishedNanos = publishedNanos[slot];
+        cursors.setRelease(HEAD, head + 1);
+        return true;
+    }
+
+    /**
+     * Returns when the bar last taken by poll was published. Consumer only.
+     *
+     * @return The System.nanoTime() of the publication.
+     */
+    public long publishedNanos() {
+        return lastPublishedNanos;
+    }
+
+    /**
+     * Returns whether the producer has closed the queue and every bar has been taken. Consumer only.
+     *
+     * @return True once no bar will ever be taken again.
+     */
+    public boolean isFinished() {
+        // Read the flag before the tail, so every bar published before close is seen
+        return closed && cursors.getPlain(HEAD) == cursors.getAcquire(TAIL);
+    }
+
+    /**
+     * Returns the number of bars published but not yet taken. Exact only when called from
+     * the producer or the consumer while the other is idle.
+     *
+     * @return The number of bars waiting.
+     */
+    public int size() {
+        return (int) (cursors.getAcquire(TAIL) - cursors.getAcquire(HEAD));
+    }
+
+    /**
+     * Returns the most bars the queue holds.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Read-only access to the daily OHLCV bars of one instrument by index, wherever they are stored:
+ * in heap arrays (StockSeries), in a mapped bar file (BarFile) or in off-heap memory (OffHeapSeries).
+ *
+ * Implementations never change after they are built, so one series can be read by any number of
+ * backtests on any number of threads.
+ *
+ * @see MarketDataStore
+ */
+public interface BarSeries {
+
+    /**
+     * Returns the number of bars in the series.
+     *
+     * @return The number of bars.
+     */
+    int size();
+
+    /**
+     * Returns the date of a bar as days since 1970-01-01.
+     *
+     * @param i The bar index.
+     * @return The epoch day of the bar.
+     */
+    int getEpochDay(int i);
+
+    /**
+     * Returns the opening price of a bar.
+     *
+     * @param i The bar index.
+     * @return The opening price.
+     */
+    double getOpen(int i);
+
+    /**
+     * Returns the highest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The highest price.
+     */
+    double getHigh(int i);
+
+    /**
+     * Returns the lowest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The lowest price.
+     */
+    double getLow(int i);
+
+    /**
+     * Returns the closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The closing price.
+     */
+    double getClose(int i);
+
+    /**
+     * Returns the adjusted closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The adjusted closing price.
+     */
+    double getAdjClose(int i);
+
+    /**
+     * Returns the trading volume of a bar.
+     *
+     * @param i The bar index.
+     * @return The trading volume.
+     */
+    long getVolume(int i);
+}
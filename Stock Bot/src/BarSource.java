@@ -0,0 +1,63 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where bars come from when they arrive one at a time instead of being loaded up front, such as a
+ * network feed. A source pushes each bar to a Listener as it arrives, as primitives, so nothing is
+ * allocated per bar.
+ *
+ * @see SocketBarSource
+ * @see LiveTrader
+ */
+public interface BarSource extends Closeable {
+
+    /**
+     * Receives bars from a source.
+     */
+    @FunctionalInterface
+    interface Listener {
+
+        /**
+         * Called once per bar, in the order the bars arrive.
+         *
+         * @param epochDay The date of the bar as days since 1970-01-01.
+         * @param open     The opening price.
+         * @param high     The highest price.
+         * @param low      The lowest price.
+         * @param close    The closing price.
+         * @param adjClose The adjusted closing price.
+         * @param volume   The trading volume.
+         */
+        void onBar(int epochDay, double open, double high, double low, double close, double adjClose, long volume);
+    }
+
+    /**
+     * Delivers every bar to a listener on the calling thread, returning when the source has no more bars.
+     *
+     * @param listener Receives the bars.
+     * @throws IOException If the bars cannot be read or one is malformed.
+     */
+    void stream(Listener listener) throws IOException;
+
+    /**
+     * Creates a source that delivers the bars of a series, for replaying loaded data through a live run.
+     *
+     * @param series The bars to deliver.
+     * @return The source.
+     */
+    static BarSource of(BarSeries series) {
+        return new BarSource() {
+            @Override
+            public void stream(Listener listener) {
+                for (int i = 0; i < series.size(); i++) {
+                    listener.onBar(series.getEpochDay(i), series.getOpen(i), series.getHigh(i), series.getLow(i),
+                            series.getClose(i), series.getAdjClose(i), series.getVolume(i));
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * A trading strategy that is called once per bar with a BarContext holding the bar, the usual
+ * indicators and the current position.
+ *
+ * The context is one mutable object that the engine refills for every bar, and the decision is
+ * returned as a plain double, so a call allocates nothing and can be inlined by the JIT. The
+ * context must not be kept between calls.
+ *
+ * @see Strategies
+ * @see Backtester
+ */
+@FunctionalInterface
+public interface BarStrategy {
+
+    /**
+     * Decides the trade for one bar, made at that bar's opening price.
+     *
+     * @param bar The current bar, indicators and position.
+     * @return The number of shares to buy, negative to sell.
+     */
+    double execute(BarContext bar);
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts a Date,Open,High,Low,Close,Adj Close,Volume CSV into a bar file, e.g.
+ * <pre>
+ * java CsvToBarFile "TSLA 5Y Weekly.csv" --compress --indicators
+ * </pre>
+ * writes "TSLA 5Y Weekly.bars" next to the CSV. With --indicators the file also gets the RSI and moving
+ * average columns that StockBot.exportAdjusted writes to its "adjusted" CSV.
+ *
+ * @see BarFile
+ * @see BarFileWriter
+ */
+public final class CsvToBarFile {
+
+    private CsvToBarFile() {
+    }
+
+    /**
+     * Runs the conversion.
+     *
+     * @param args The CSV file, optionally followed by the output file and the flags --compress
+     *             and --indicators.
+     * @throws IOException If the CSV cannot be read or the bar file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = null;
+        Path output = null;
+        boolean compress = false;
+        boolean indicators = false;
+        for (String arg : args) {
+            if (arg.equals("--compress")) {
+                compress = true;
+            } else if (arg.equals("--indicators")) {
+                indicators = true;
+            } else if (input == null) {
+                input = Paths.get(arg);
+            } else {
+                output = Paths.get(arg);
+            }
+        }
+        if (input == null) {
+            System.out.println("Usage: java CsvToBarFile <file.csv> [file.bars] [--compress] [--indicators]");
+            System.exit(2);
+        }
+        if (output == null) {
+            output = defaultOutput(input);
+        }
+        convert(input, output, compress, indicators);
+        System.out.println("Wrote " + output + ": " + Files.size(input) + " bytes of CSV in "
+                + Files.size(output) + " bytes");
+    }
+
+    /**
+     * Converts a CSV file into a bar file.
+     *
+     * @param input      The CSV file containing stock data.
+     * @param output     The bar file to create or replace.
+     * @param compress   Whether to compress the columns.
+     * @param indicators Whether to add the StockBot RSI and moving average columns.
+     * @return The bars that were written.
+     * @throws IOException If the CSV cannot be read or the bar file cannot be written.
+     */
+    public static StockSeries convert(Path input, Path output, boolean compress, boolean indicators)
+            throws IOException {
+        StockSeries series = StockCsvLoader.load(input, Runtime.getRuntime().availableProcessors());
+        double[] rsi = indicators
+                ? IndicatorColumns.exportRsi(series, StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE)
+                : null;
+        double[] ma = indicators ? IndicatorColumns.priorOpenSma(series, StockBot.EXPORT_MA_WINDOW) : null;
+        BarFileWriter.write(output, series, rsi, ma, compress);
+        return series;
+    }
+
+    /**
+     * Returns the file name a CSV converts to by default: the same name with the extension
+     * replaced by BarFile.EXTENSION.
+     *
+     * @param csv The CSV file.
+     * @return The bar file next to it.
+     */
+    public static Path defaultOutput(Path csv) {
+        String name = csv.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return csv.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + BarFile.EXTENSION);
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Mean of every value added since the last reset, such as the average volume so far in a run.
+ */
+public class CumulativeAverage implements Indicator {
+    private double sum;
+    private long count;
+
+    @Override
+    public double update(double value) {
+        sum += value;
+        count++;
+        return value();
+    }
+
+    @Override
+    public double value() {
+        return sum / count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count > 0;
+    }
+
+    /**
+     * Returns the number of values averaged.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void reset() {
+        sum = 0;
+        count = 0;
+    }
+}
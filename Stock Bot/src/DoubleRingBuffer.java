@@ -0,0 +1,91 @@
+/**
+ * Fixed-capacity first-in first-out buffer of doubles. Once full, adding a value drops the oldest one.
+ */
+public class DoubleRingBuffer {
+    private final double[] values;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs an empty ring buffer.
+     *
+     * @param capacity The most values the buffer holds.
+     */
+    public DoubleRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        values = new double[capacity];
+    }
+
+    /**
+     * Adds a value, dropping the oldest one if the buffer is full.
+     *
+     * @param value The value to add.
+     * @return The value that was dropped, or NaN if the buffer was not full.
+     */
+    public double add(double value) {
+        double dropped = Double.NaN;
+        int tail = head + size;
+        if (tail >= values.length) {
+            tail -= values.length;
+        }
+        if (size == values.length) {
+            dropped = values[head];
+            head = head + 1 == values.length ? 0 : head + 1;
+        } else {
+            size++;
+        }
+        values[tail] = value;
+        return dropped;
+    }
+
+    /**
+     * Returns a value by age.
+     *
+     * @param i 0 for the oldest value held, size() - 1 for the newest.
+     * @return The value.
+     */
+    public double get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        int slot = head + i;
+        return values[slot >= values.length ? slot - values.length : slot];
+    }
+
+    /**
+     * Returns the number of values held.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the most values the buffer holds.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Returns whether the buffer holds capacity() values.
+     *
+     * @return True if the next add will drop a value.
+     */
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
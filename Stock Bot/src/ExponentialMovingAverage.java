@@ -0,0 +1,51 @@
+/**
+ * Exponential moving average with smoothing factor 2 / (period + 1), seeded with the mean of the
+ * first period values.
+ */
+public class ExponentialMovingAverage implements Indicator {
+    private final int period;
+    private final double alpha;
+    private double ema;
+    private long count;
+
+    /**
+     * Constructs an exponential moving average.
+     *
+     * @param period The number of values the average is comparable to a simple average over.
+     */
+    public ExponentialMovingAverage(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("Period must be at least 1, got " + period);
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public double update(double value) {
+        count++;
+        if (count <= period) {
+            // Running mean of the first period values
+            ema += (value - ema) / count;
+        } else {
+            ema += alpha * (value - ema);
+        }
+        return ema;
+    }
+
+    @Override
+    public double value() {
+        return count == 0 ? Double.NaN : ema;
+    }
+
+    @Override
+    public boolean isReady() {
+        return count >= period;
+    }
+
+    @Override
+    public void reset() {
+        ema = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * A technical indicator that is fed one value per bar and updates in constant time.
+ *
+ * @see SimpleMovingAverage
+ * @see ExponentialMovingAverage
+ * @see CumulativeAverage
+ * @see RollingExtreme
+ * @see RsiIndicator
+ */
+public interface Indicator {
+
+    /**
+     * Adds the next value, such as a bar's opening price or volume.
+     *
+     * @param value The new value.
+     * @return The indicator after this value.
+     */
+    double update(double value);
+
+    /**
+     * Returns the indicator after the latest value.
+     *
+     * @return The current indicator value, or NaN if no value has been added.
+     */
+    double value();
+
+    /**
+     * Returns whether enough values have been added to fill the indicator's window.
+     *
+     * @return True once the indicator is fully warmed up.
+     */
+    boolean isReady();
+
+    /**
+     * Forgets every value added so far.
+     */
+    void reset();
+}
@@ -0,0 +1,141 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Indicator values for every bar of a BarSeries, each computed once per series and parameter
+ * and then shared by every run that asks for it.
+ *
+ * Value i covers bars 0 to i, matching what a StockBot has seen on day i + 1. Arrays returned
+ * here are shared by every caller, so they are package-private and must not be modified; public
+ * APIs hand out copies.
+ *
+ * A BarFile written by CsvToBarFile --indicators already holds the export RSI with the default period
+ * and the export moving average; those are read from the file instead of being computed again.
+ */
+public final class IndicatorColumns {
+
+    private static final Map<BarSeries, Map<String, double[]>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private IndicatorColumns() {
+    }
+
+    /**
+     * Returns the RSI of the closing prices, NaN until period changes have been seen.
+     *
+     * @param series    The bars.
+     * @param period    The number of price changes to average over.
+     * @param smoothing Whether the RSI uses a simple or a Wilder-smoothed average.
+     * @return The RSI for each bar.
+     */
+    static double[] rsi(BarSeries series, int period, RsiIndicator.Smoothing smoothing) {
+        return cached(series, "rsi:" + period + ":" + smoothing, () -> {
+            RsiIndicator rsi = new RsiIndicator(period, smoothing);
+            double[] column = new double[series.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = rsi.update(series.getClose(i));
+            }
+            return column;
+        });
+    }
+
+    /**
+     * Returns the simple moving average of the opening prices over the last window bars,
+     * or over all bars so far early in the series.
+     *
+     * @param series The bars.
+     * @param window The number of bars to average over.
+     * @return The moving average for each bar.
+     */
+    static double[] openSma(BarSeries series, int window) {
+        return cached(series, "sma:" + window, () -> {
+            SimpleMovingAverage sma = new SimpleMovingAverage(window);
+            double[] column = new double[series.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = sma.update(series.getOpen(i));
+            }
+            return column;
+        });
+    }
+
+    /**
+     * Returns the RSI of the closing prices as the "adjusted" export writes it: 0 until period changes
+     * have been seen.
+     *
+     * @param series    The bars.
+     * @param period    The number of price changes to average over.
+     * @param smoothing Whether the RSI uses a simple or a Wilder-smoothed average.
+     * @return The RSI for each bar.
+     */
+    static double[] exportRsi(BarSeries series, int period, RsiIndicator.Smoothing smoothing) {
+        return cached(series, "exportRsi:" + period + ":" + smoothing, () -> {
+            if (series instanceof BarFile && ((BarFile) series).hasRsi()
+                    && period == StockBot.DEFAULT_RSI_PERIOD && smoothing == RsiIndicator.Smoothing.SIMPLE) {
+                return ((BarFile) series).rsiColumn();
+            }
+            RsiIndicator rsi = new RsiIndicator(period, smoothing);
+            double[] column = new double[series.size()];
+            for (int i = 0; i < column.length; i++) {
+                rsi.update(series.getClose(i));
+                if (rsi.isReady()) {
+                    column[i] = rsi.value();
+                }
+            }
+            return column;
+        });
+    }
+
+    /**
+     * Returns the simple moving average of the opening prices of the window bars before each bar, as
+     * the "adjusted" export writes it: NaN for the first bar, and 0 throughout if window is not positive.
+     *
+     * @param series The bars.
+     * @param window The number of bars to average over.
+     * @return The moving average for each bar.
+     */
+    static double[] priorOpenSma(BarSeries series, int window) {
+        return cached(series, "priorSma:" + window, () -> {
+            if (series instanceof BarFile && ((BarFile) series).hasMa() && window == StockBot.EXPORT_MA_WINDOW) {
+                return ((BarFile) series).maColumn();
+            }
+            double[] column = new double[series.size()];
+            if (window <= 0) {
+                return column;
+            }
+            SimpleMovingAverage sma = new SimpleMovingAverage(window);
+            for (int i = 0; i < column.length; i++) {
+                column[i] = sma.value();
+                sma.update(series.getOpen(i));
+            }
+            return column;
+        });
+    }
+
+    /**
+     * Returns the average volume of all bars so far.
+     *
+     * @param series The bars.
+     * @return The cumulative average volume for each bar.
+     */
+    static double[] cumulativeVolumeAverage(BarSeries series) {
+        return cached(series, "volume", () -> {
+            CumulativeAverage average = new CumulativeAverage();
+            double[] column = new double[series.size()];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = average.update(series.getVolume(i));
+            }
+            return column;
+        });
+    }
+
+    private static double[] cached(BarSeries series, String key, Supplier<double[]> compute) {
+        Map<String, double[]> columns;
+        synchronized (CACHE) {
+            columns = CACHE.computeIfAbsent(series, s -> new ConcurrentHashMap<>());
+        }
+        return columns.computeIfAbsent(key, k -> compute.get());
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Counts of recorded values, such as latencies in nanoseconds, in log-linear buckets in the style
+ * of HdrHistogram. Values below 128 get a bucket each; above that every power of two is split into
+ * 128 equal buckets, so any percentile is reported to within 1% of the true value across the whole
+ * range of a long. Recording a value is a few arithmetic operations and one array increment, with no
+ * allocation, so it can sit in a per-bar loop.
+ *
+ * A histogram is not thread-safe; give each thread its own and add them together.
+ */
+public final class LatencyHistogram {
+
+    // Linear buckets per power of two
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS) << SUB_BITS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Records a value.
+     *
+     * @param value The value, with negative values counted as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds every value recorded in another histogram.
+     *
+     * @param other The histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the exact mean of the recorded values.
+     *
+     * @return The mean, or NaN if nothing has been recorded.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * Returns the exact lowest recorded value.
+     *
+     * @return The minimum, or 0 if nothing has been recorded.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the exact highest recorded value.
+     *
+     * @return The maximum, or 0 if nothing has been recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value that the given percentage of recorded values are at or below, rounded up to
+     * the top of its bucket.
+     *
+     * @param percentile Between 0 and 100, e.g. 50 for the median or 99.9.
+     * @return The value, or 0 if nothing has been recorded.
+     * @throws IllegalArgumentException If percentile is outside [0, 100].
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.max(min, Math.min(max, highestInBucket(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Prints a percentile distribution in the layout of HdrHistogram's: the value at each percentile,
+     * the percentile, and how many values are at or below it.
+     *
+     * @param out   Where to print.
+     * @param scale What to divide values by, e.g. 1000 to print nanoseconds as microseconds.
+     */
+    public void printPercentiles(PrintStream out, double scale) {
+        out.println(String.format("%12s %14s %10s", "Value", "Percentile", "TotalCount"));
+        double[] percentiles = {0, 10, 20, 30, 40, 50, 60, 70, 75, 80, 85, 90, 95, 99, 99.9, 99.99, 99.999, 100};
+        for (double percentile : percentiles) {
+            long value = getValueAtPercentile(percentile);
+            out.println(String.format("%12.3f %14.6f %10d", value / scale, percentile / 100, countAtOrBelow(value)));
+        }
+        out.println(String.format("#[Mean = %.3f, Max = %.3f, Total count = %d]", getMean() / scale, max / scale, count));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%d p90=%d p99=%d p99.9=%d max=%d", count, getValueAtPercentile(50),
+                getValueAtPercentile(90), getValueAtPercentile(99), getValueAtPercentile(99.9), max);
+    }
+
+    private long countAtOrBelow(long value) {
+        long seen = 0;
+        for (int i = 0; i <= index(value); i++) {
+            seen += counts[i];
+        }
+        return seen;
+    }
+
+    // Values below SUB_COUNT index themselves; above, the power of two picks a block of SUB_COUNT buckets
+    // and the next SUB_BITS bits below the top one pick the bucket within it
+    static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+    }
+
+    // The largest value that lands in the bucket
+    static long highestInBucket(int index) {
+        int block = index >>> SUB_BITS;
+        long sub = index & (SUB_COUNT - 1);
+        if (block == 0) {
+            return sub;
+        }
+        long lowest = (SUB_COUNT + sub) << (block - 1);
+        return lowest + (1L << (block - 1)) - 1;
+    }
+}
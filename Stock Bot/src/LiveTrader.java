@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Runs a BarStrategy on bars as they arrive from a BarSource, instead of over a series loaded up front.
+ *
+ * The source is read on its own feed thread, which hands each bar to the calling thread through a
+ * BarRingBuffer. There the RSI, moving average and average volume are updated with the new bar, the
+ * strategy decides, and the trade is made at the bar's opening price, in the same way as
+ * Backtester.run. Replaying a file through a live run makes the same trades as backtesting it.
+ *
+ * For every bar the time from its hand-over by the source to the strategy's decision is recorded.
+ * The stream has no known end, so BarContext.isLastBar is always false, and strategies that need
+ * indicator columns of a whole series cannot be used; the no-argument Strategies work as they are.
+ *
+ * @see BarReplayServer
+ */
+public final class LiveTrader {
+
+    private final String label;
+    private final double balance;
+    private final BarStrategy strategy;
+    private final int ringCapacity;
+    private final BarRingBuffer.IdleStrategy idleStrategy;
+    // Bar-to-decision latency of the last run, in nanoseconds
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private int bars;
+
+    /**
+     * Constructs a trader with a 1024-bar queue that backs off while no bar is waiting.
+     *
+     * @param label    What is being run, shown in the result.
+     * @param balance  The starting cash.
+     * @param strategy The strategy to run.
+     */
+    public LiveTrader(String label, double balance, BarStrategy strategy) {
+        this(label, balance, strategy, 1024, BarRingBuffer.IdleStrategy.BACK_OFF);
+    }
+
+    /**
+     * Constructs a trader.
+     *
+     * @param label        What is being run, shown in the result.
+     * @param balance      The starting cash.
+     * @param strategy     The strategy to run.
+     * @param ringCapacity The most bars that can wait between the feed and the strategy.
+     * @param idleStrategy What the trading thread does while no bar is waiting.
+     */
+    public LiveTrader(String label, double balance, BarStrategy strategy, int ringCapacity,
+                      BarRingBuffer.IdleStrategy idleStrategy) {
+        this.label = label;
+        this.balance = balance;
+        this.strategy = strategy;
+        this.ringCapacity = ringCapacity;
+        this.idleStrategy = idleStrategy;
+    }
+
+    /**
+     * Trades every bar of a source on the calling thread until the source has no more bars.
+     * The source is not closed, unless the strategy throws: then the feed thread is interrupted
+     * and stopped before the exception is passed on, which closes a source reading from an
+     * interruptible channel such as a socket.
+     *
+     * @param source The bars to trade.
+     * @return The final state of the portfolio.
+     * @throws IOException          If the source fails.
+     * @throws InterruptedException If interrupted while waiting for the feed thread to finish.
+     */
+    public BacktestResult run(BarSource source) throws IOException, InterruptedException {
+        BarRingBuffer ring = new BarRingBuffer(ringCapacity);
+        Exception[] failure = new Exception[1];
+        Thread feed = new Thread(() -> {
+            try {
+                source.stream(ring);
+            } catch (IOException | RuntimeException e) {
+                failure[0] = e;
+            } finally {
+                ring.close();
+            }
+        }, "bar-feed " + label);
+        feed.setDaemon(true);
+        feed.start();
+
+        RsiIndicator rsi = new RsiIndicator(StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+        SimpleMovingAverage ma = new SimpleMovingAverage(StockBot.STRATEGY_MA_WINDOW);
+        CumulativeAverage avgVolume = new CumulativeAverage();
+        Portfolio portfolio = new Portfolio(balance);
+        BarContext bar = new BarContext();
+        bars = 0;
+        latencies.reset();
+        int idle = 0;
+        double lastOpen = 0;
+        boolean finished = false;
+        try {
+            while (true) {
+                if (!ring.poll(bar, bars)) {
+                    if (ring.isFinished()) {
+                        break;
+                    }
+                    idle = idleStrategy.idle(idle);
+                    continue;
+                }
+                idle = 0;
+                rsi.update(bar.getClose());
+                ma.update(bar.getOpen());
+                avgVolume.update(bar.getVolume());
+                bar.setIndicators(rsi.value(), ma.value(), avgVolume.value());
+                bar.setPosition(portfolio.getSharesOwned(), portfolio.getBalance());
+                double shares = strategy.execute(bar);
+                portfolio.trade(shares, bar.getOpen());
+                latencies.record(System.nanoTime() - ring.publishedNanos());
+                bars++;
+                lastOpen = bar.getOpen();
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                // Stop the feed thread, whether it is waiting for room in the queue or blocked reading the source
+                ring.cancel();
+                feed.interrupt();
+            }
+            feed.join();
+        }
+        if (failure[0] instanceof IOException) {
+            throw (IOException) failure[0];
+        }
+        if (failure[0] instanceof RuntimeException) {
+            throw (RuntimeException) failure[0];
+        }
+        return new BacktestResult(label, portfolio.getBalance(), portfolio.getSharesOwned(),
+                portfolio.getSharesOwned() * lastOpen, balance);
+    }
+
+    /**
+     * Returns the number of bars traded by the last run.
+     *
+     * @return The number of bars.
+     */
+    public int getBarCount() {
+        return bars;
+    }
+
+    /**
+     * Returns a percentile of the bar-to-decision latency of the last run: the time from the source
+     * handing a bar over to the strategy's decision on it, including the wait in the queue.
+     *
+     * @param percentile Between 0 and 100, e.g. 50 for the median or 99 for the 99th percentile.
+     * @return The latency in microseconds, to within 1%, or NaN if no bar was traded.
+     * @throws IllegalArgumentException If percentile is outside [0, 100].
+     */
+    public double getLatencyMicros(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+        }
+        return bars == 0 ? Double.NaN : latencies.getValueAtPercentile(percentile) / 1e3;
+    }
+
+    /**
+     * Returns the bar-to-decision latency of every bar of the last run.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the bar-to-decision latency of the last run as one line of percentiles.
+     *
+     * @return The summary, in microseconds.
+     */
+    public String latencySummary() {
+        return String.format("%d bars, bar-to-decision latency in us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f",
+                bars, getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99), getLatencyMicros(99.9),
+                getLatencyMicros(100));
+    }
+
+    /**
+     * Replays a CSV file through a local BarReplayServer, trades it live with the RSI and moving
+     * average strategy, and compares the result with a backtest of the same file.
+     *
+     * @param args Optionally the CSV file (default "INTC 5Y Weekly.csv"), the bars per second
+     *             (default 0, as fast as possible) and "spin" to busy-spin instead of backing off.
+     * @throws IOException          If the file cannot be read or the feed fails.
+     * @throws InterruptedException If interrupted while trading.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String fileName = args.length > 0 ? args[0] : "INTC 5Y Weekly.csv";
+        double barsPerSecond = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        BarRingBuffer.IdleStrategy idle = args.length > 2 && args[2].equals("spin")
+                ? BarRingBuffer.IdleStrategy.SPIN : BarRingBuffer.IdleStrategy.BACK_OFF;
+
+        LiveTrader trader = new LiveTrader("live " + fileName, 10000, Strategies.rsiAndMa(), 1024, idle);
+        BacktestResult live;
+        try (BarReplayServer server = BarReplayServer.onLoopback(fileName, barsPerSecond);
+             SocketBarSource source = SocketBarSource.connect(server.getAddress())) {
+            live = trader.run(source);
+        }
+        BacktestResult backtest = Backtester.run("backtest " + fileName, StockCsvLoader.load(fileName), 10000,
+                Strategies.rsiAndMa());
+        Backtester.printTable(List.of(live, backtest), 2);
+        System.out.println(trader.latencySummary());
+    }
+}
@@ -14,6 +14,7 @@ public class Main {
     public static void main(String[] args) {
         // Initialize the bot with $10,000 and stock data from "INTC 5Y Weekly.csv"
         StockBot intelBot = new StockBot(10000, "INTC 5Y Weekly.csv");
+        intelBot.exportAdjusted(); // Writes the data with its RSI and MA to "adjusted INTC 5Y Weekly.csv"
         System.out.println("Intel 1 Year Data, Daily:");
 
         // Test Long Hold Strategy
@@ -33,6 +34,7 @@ public class Main {
 
         // Initialize another bot with $10,000 and stock data from "TSLA 5Y Weekly.csv"
         StockBot elonBot = new StockBot(10000, "TSLA 5Y Weekly.csv");
+        elonBot.exportAdjusted();
         System.out.println("\nTesla 5 Year Data, Daily:");
 
         // Testing various strategies on the second bot
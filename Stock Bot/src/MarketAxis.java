@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Several StockSeries lined up on one shared, sorted axis of dates.
+ *
+ * For every instrument and every date on the axis it records which bar of that instrument
+ * falls on the date, or -1 if the instrument did not trade that day, so all instruments can
+ * be stepped through together in one pass.
+ */
+public class MarketAxis {
+    private final String[] symbols;
+    private final StockSeries[] series;
+    private final int[] epochDays;
+    private final int[][] barAt;
+
+    /**
+     * Lines up the given series. Each series must be in date order.
+     *
+     * @param symbols The name of each instrument.
+     * @param series  The bars of each instrument, in the same order as symbols.
+     */
+    public MarketAxis(List<String> symbols, List<StockSeries> series) {
+        if (symbols.size() != series.size()) {
+            throw new IllegalArgumentException("Need one symbol per series");
+        }
+        this.symbols = symbols.toArray(new String[0]);
+        this.series = series.toArray(new StockSeries[0]);
+
+        int total = 0;
+        for (StockSeries s : this.series) {
+            total += s.size();
+        }
+        int[] all = new int[total];
+        int n = 0;
+        for (StockSeries s : this.series) {
+            for (int i = 0; i < s.size(); i++) {
+                all[n++] = s.getEpochDay(i);
+            }
+        }
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < total; i++) {
+            if (unique == 0 || all[i] != all[unique - 1]) {
+                all[unique++] = all[i];
+            }
+        }
+        this.epochDays = Arrays.copyOf(all, unique);
+
+        this.barAt = new int[this.series.length][unique];
+        for (int k = 0; k < this.series.length; k++) {
+            StockSeries s = this.series[k];
+            int[] bars = barAt[k];
+            int bar = 0;
+            for (int t = 0; t < unique; t++) {
+                if (bar < s.size() && s.getEpochDay(bar) == epochDays[t]) {
+                    bars[t] = bar++;
+                } else {
+                    bars[t] = -1;
+                }
+            }
+            if (bar != s.size()) {
+                throw new IllegalArgumentException(symbols.get(k) + " is not in date order or has repeated dates");
+            }
+        }
+    }
+
+    /**
+     * Returns the number of dates on the axis.
+     *
+     * @return The number of dates.
+     */
+    public int length() {
+        return epochDays.length;
+    }
+
+    /**
+     * Returns the number of instruments.
+     *
+     * @return The number of instruments.
+     */
+    public int instruments() {
+        return series.length;
+    }
+
+    /**
+     * Returns a date on the axis.
+     *
+     * @param t The position on the axis.
+     * @return The date as days since 1970-01-01.
+     */
+    public int getEpochDay(int t) {
+        return epochDays[t];
+    }
+
+    /**
+     * Returns which bar of an instrument falls on a date of the axis.
+     *
+     * @param instrument The instrument index.
+     * @param t          The position on the axis.
+     * @return The bar index in that instrument's series, or -1 if it did not trade that day.
+     */
+    public int barAt(int instrument, int t) {
+        return barAt[instrument][t];
+    }
+
+    /**
+     * Returns the name of an instrument.
+     *
+     * @param instrument The instrument index.
+     * @return The symbol.
+     */
+    public String getSymbol(int instrument) {
+        return symbols[instrument];
+    }
+
+    /**
+     * Returns the bars of an instrument.
+     *
+     * @param instrument The instrument index.
+     * @return The series.
+     */
+    public StockSeries getSeries(int instrument) {
+        return series[instrument];
+    }
+}
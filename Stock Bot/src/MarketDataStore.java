@@ -0,0 +1,112 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bars for many instruments kept off the Java heap and shared, read-only, by every backtest thread.
+ *
+ * Each symbol is either a RAW bar file, read in place from its memory mapping, or an OffHeapSeries
+ * the bars were copied into. Either way get returns a BarSeries view over that memory without copying,
+ * which Backtester and Strategies accept like any StockSeries. Loading thousands of instruments this
+ * way keeps the heap small, so long sweeps do not pay for garbage collections that trace every bar.
+ *
+ * Symbols can be added and removed while backtests are reading others.
+ *
+ * @see OffHeapSeries
+ * @see BarFile
+ */
+public final class MarketDataStore {
+
+    private final ConcurrentHashMap<String, BarSeries> series = new ConcurrentHashMap<>();
+
+    /**
+     * Stores bars under a symbol, copying them off the heap unless they already live there,
+     * and replaces anything stored under it before.
+     *
+     * @param symbol The instrument, e.g. "INTC".
+     * @param bars   The bars.
+     * @return The stored, off-heap view of the bars.
+     */
+    public BarSeries put(String symbol, BarSeries bars) {
+        BarSeries stored = isOffHeap(bars) ? bars : OffHeapSeries.copyOf(bars);
+        series.put(symbol, stored);
+        return stored;
+    }
+
+    /**
+     * Stores the bars of a file under a symbol. A bar file with RAW columns is mapped and read in
+     * place; a compressed bar file or a CSV file is decoded and copied off the heap.
+     *
+     * @param symbol   The instrument, e.g. "INTC".
+     * @param fileName The name of the bar file or CSV file containing stock data.
+     * @return The stored, off-heap view of the bars.
+     * @throws IOException If the file cannot be read or is malformed.
+     */
+    public BarSeries load(String symbol, String fileName) throws IOException {
+        if (BarFile.isBarFile(fileName)) {
+            return put(symbol, BarFile.open(fileName));
+        }
+        return put(symbol, StockCsvLoader.load(fileName));
+    }
+
+    /**
+     * Returns the bars stored under a symbol.
+     *
+     * @param symbol The instrument.
+     * @return The bars, or null if nothing is stored under the symbol.
+     */
+    public BarSeries get(String symbol) {
+        return series.get(symbol);
+    }
+
+    /**
+     * Removes a symbol. Its memory is released once no backtest refers to its bars any more.
+     *
+     * @param symbol The instrument.
+     * @return The bars that were stored, or null if there were none.
+     */
+    public BarSeries remove(String symbol) {
+        return series.remove(symbol);
+    }
+
+    /**
+     * Returns the stored symbols in alphabetical order.
+     *
+     * @return A new list of the symbols.
+     */
+    public List<String> symbols() {
+        List<String> symbols = new ArrayList<>(series.keySet());
+        Collections.sort(symbols);
+        return symbols;
+    }
+
+    /**
+     * Returns the number of stored symbols.
+     *
+     * @return The number of symbols.
+     */
+    public int size() {
+        return series.size();
+    }
+
+    /**
+     * Returns the bytes of bar data the store holds outside the heap, in direct memory or mapped files.
+     *
+     * @return The off-heap size of every stored series.
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (BarSeries bars : series.values()) {
+            bytes += bars instanceof OffHeapSeries
+                    ? ((OffHeapSeries) bars).byteSize()
+                    : (long) bars.size() * OffHeapSeries.BYTES_PER_BAR;
+        }
+        return bytes;
+    }
+
+    private static boolean isOffHeap(BarSeries bars) {
+        return bars instanceof OffHeapSeries || bars instanceof BarFile && ((BarFile) bars).isMapped();
+    }
+}
@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Daily OHLCV bars held outside the Java heap, in one direct buffer per series. The garbage collector
+ * sees a handful of small buffer objects per series instead of its columns or one StockData per day,
+ * so a store of thousands of instruments adds nothing to the heap it has to trace.
+ *
+ * The block holds the epoch day column, padded to 8 bytes, then the open, high, low, close and
+ * adjusted close columns and the volume column, in native byte order. A series is never modified
+ * after it is copied in and is safe to read from any number of threads at once. The memory is freed
+ * when the series is garbage collected; direct memory is limited by -XX:MaxDirectMemorySize, which
+ * defaults to the maximum heap size.
+ *
+ * @see MarketDataStore
+ */
+public final class OffHeapSeries implements BarSeries {
+
+    /**
+     * Bytes each bar takes off the heap: an int date, five double prices and a long volume.
+     */
+    public static final int BYTES_PER_BAR = 4 + 5 * 8 + 8;
+
+    private final int size;
+    private final long byteSize;
+    private final IntBuffer epochDays;
+    private final DoubleBuffer open;
+    private final DoubleBuffer high;
+    private final DoubleBuffer low;
+    private final DoubleBuffer close;
+    private final DoubleBuffer adjClose;
+    private final LongBuffer volume;
+
+    private OffHeapSeries(ByteBuffer block, int size) {
+        this.size = size;
+        this.byteSize = block.capacity();
+        int days = (4 * size + 7) & ~7;
+        int column = 8 * size;
+        this.epochDays = block.slice(0, 4 * size).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.open = block.slice(days, column).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.high = block.slice(days + column, column).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.low = block.slice(days + 2 * column, column).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.close = block.slice(days + 3 * column, column).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.adjClose = block.slice(days + 4 * column, column).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.volume = block.slice(days + 5 * column, column).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * Copies bars off the heap.
+     *
+     * @param bars The bars to copy.
+     * @return The off-heap copy.
+     * @throws IllegalArgumentException If the series needs more than 2 GB.
+     */
+    public static OffHeapSeries copyOf(BarSeries bars) {
+        int n = bars.size();
+        long bytes = ((4L * n + 7) & ~7L) + 6L * 8 * n;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(n + " bars do not fit in one off-heap block");
+        }
+        OffHeapSeries copy = new OffHeapSeries(ByteBuffer.allocateDirect((int) bytes), n);
+        for (int i = 0; i < n; i++) {
+            copy.epochDays.put(i, bars.getEpochDay(i));
+            copy.open.put(i, bars.getOpen(i));
+            copy.high.put(i, bars.getHigh(i));
+            copy.low.put(i, bars.getLow(i));
+            copy.close.put(i, bars.getClose(i));
+            copy.adjClose.put(i, bars.getAdjClose(i));
+            copy.volume.put(i, bars.getVolume(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the number of bytes of direct memory the series holds.
+     *
+     * @return The size of the off-heap block.
+     */
+    public long byteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Copies the bars into a StockSeries on the heap.
+     *
+     * @return A new series.
+     */
+    public StockSeries toStockSeries() {
+        int[] days = new int[size];
+        epochDays.get(0, days);
+        long[] volumes = new long[size];
+        volume.get(0, volumes);
+        return new StockSeries(days, copy(open), copy(high), copy(low), copy(close), copy(adjClose), volumes, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getEpochDay(int i) {
+        return epochDays.get(i);
+    }
+
+    @Override
+    public double getOpen(int i) {
+        return open.get(i);
+    }
+
+    @Override
+    public double getHigh(int i) {
+        return high.get(i);
+    }
+
+    @Override
+    public double getLow(int i) {
+        return low.get(i);
+    }
+
+    @Override
+    public double getClose(int i) {
+        return close.get(i);
+    }
+
+    @Override
+    public double getAdjClose(int i) {
+        return adjClose.get(i);
+    }
+
+    @Override
+    public long getVolume(int i) {
+        return volume.get(i);
+    }
+
+    private double[] copy(DoubleBuffer column) {
+        double[] values = new double[size];
+        column.get(0, values);
+        return values;
+    }
+}
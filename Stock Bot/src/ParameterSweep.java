@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sweeps the built-in strategies over a grid of RSI thresholds and moving-average windows
+ * for several tickers at once, and prints the best runs.
+ */
+public class ParameterSweep {
+
+    /**
+     * Runs the sweep.
+     *
+     * @param args The CSV files to sweep over; defaults to the Intel and Tesla 5 year files.
+     * @throws IOException          If a file cannot be loaded.
+     * @throws InterruptedException If interrupted while waiting for the runs.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String[] files = args.length > 0 ? args : new String[]{"INTC 5Y Weekly.csv", "TSLA 5Y Weekly.csv"};
+        double balance = 10000;
+
+        List<Backtester.Job> jobs = new ArrayList<>();
+        for (String file : files) {
+            StockSeries series = StockCsvLoader.load(file);
+            jobs.add(new Backtester.Job(file + " long hold", series, balance, Strategies::longHold));
+            for (int maWindow = 10; maWindow <= 200; maWindow += 10) {
+                int ma = maWindow;
+                jobs.add(new Backtester.Job(file + " momentum ma=" + ma, series, balance,
+                        s -> Strategies.momentumAndVolume(s, ma)));
+                for (int oversold = 20; oversold <= 40; oversold += 5) {
+                    for (int overbought = 60; overbought <= 80; overbought += 5) {
+                        int low = oversold;
+                        int high = overbought;
+                        jobs.add(new Backtester.Job(file + " rsi " + low + "/" + high + " ma=" + ma, series, balance,
+                                s -> Strategies.rsiAndMa(s, 14, low, high, ma)));
+                    }
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        List<BacktestResult> results = Backtester.sweep(jobs, ForkJoinPool.commonPool());
+        double ms = (System.nanoTime() - start) / 1e6;
+        System.out.println(jobs.size() + " runs in " + ms + " ms on " + ForkJoinPool.commonPool().getParallelism() + " threads\n");
+        Backtester.printTable(results, 20);
+    }
+}
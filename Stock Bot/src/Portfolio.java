@@ -0,0 +1,86 @@
+/**
+ * The cash and shares held during one backtest run.
+ *
+ * Trades follow the same rules as StockBot.run: the full fractional amount is paid or received,
+ * but the share count is whole and drops the fractional part.
+ *
+ * When several instruments are traded together, each one gets its own Portfolio from
+ * newPosition(), which holds that instrument's shares but draws on the same cash.
+ */
+public class Portfolio {
+    private final double initialBalance;
+    // One-element cell so that positions created by newPosition() share the cash
+    private final double[] cash;
+    private int sharesOwned;
+
+    /**
+     * Constructs a portfolio that holds only cash.
+     *
+     * @param balance The starting cash.
+     */
+    public Portfolio(double balance) {
+        this(new double[]{balance}, balance);
+    }
+
+    private Portfolio(double[] cash, double initialBalance) {
+        this.cash = cash;
+        this.initialBalance = initialBalance;
+    }
+
+    /**
+     * Creates a portfolio for another instrument that starts with no shares and shares this one's cash.
+     *
+     * @return The new position.
+     */
+    public Portfolio newPosition() {
+        return new Portfolio(cash, initialBalance);
+    }
+
+    /**
+     * Buys or sells shares at a price.
+     *
+     * @param shares The number of shares to buy, negative to sell.
+     * @param price  The price per share.
+     */
+    public void trade(double shares, double price) {
+        sharesOwned += shares;
+        cash[0] = cash[0] - (shares * price);
+    }
+
+    /**
+     * Returns the cash held.
+     *
+     * @return The balance.
+     */
+    public double getBalance() {
+        return cash[0];
+    }
+
+    /**
+     * Returns the cash held at the start of the run.
+     *
+     * @return The initial balance.
+     */
+    public double getInitialBalance() {
+        return initialBalance;
+    }
+
+    /**
+     * Returns the number of shares held.
+     *
+     * @return The shares owned.
+     */
+    public int getSharesOwned() {
+        return sharesOwned;
+    }
+
+    /**
+     * Returns the cash plus this portfolio's shares valued at a price.
+     *
+     * @param price The price per share.
+     * @return The net worth.
+     */
+    public double netWorth(double price) {
+        return cash[0] + sharesOwned * price;
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Backtests many instruments as one portfolio: every instrument has its own strategy and
+ * share count, all of them draw on the same cash, and all are stepped through together
+ * date by date along a MarketAxis.
+ */
+public final class PortfolioBacktester {
+
+    private PortfolioBacktester() {
+    }
+
+    /**
+     * The final state of a portfolio backtest.
+     */
+    public static class Result {
+        private final MarketAxis axis;
+        private final double balance;
+        private final int[] sharesOwned;
+        private final double[] lastOpen;
+
+        private Result(MarketAxis axis, double balance, int[] sharesOwned, double[] lastOpen) {
+            this.axis = axis;
+            this.balance = balance;
+            this.sharesOwned = sharesOwned;
+            this.lastOpen = lastOpen;
+        }
+
+        /**
+         * Returns the cash left at the end.
+         *
+         * @return The balance.
+         */
+        public double getBalance() {
+            return balance;
+        }
+
+        /**
+         * Returns the shares of one instrument held at the end.
+         *
+         * @param instrument The instrument index.
+         * @return The shares owned.
+         */
+        public int getSharesOwned(int instrument) {
+            return sharesOwned[instrument];
+        }
+
+        /**
+         * Returns the shares of one instrument, valued at its last opening price.
+         *
+         * @param instrument The instrument index.
+         * @return The value of the shares.
+         */
+        public double getValueOfShares(int instrument) {
+            return sharesOwned[instrument] * lastOpen[instrument];
+        }
+
+        /**
+         * Returns the cash plus the value of every position.
+         *
+         * @return The total net worth.
+         */
+        public double getNetWorth() {
+            double worth = balance;
+            for (int k = 0; k < sharesOwned.length; k++) {
+                worth += getValueOfShares(k);
+            }
+            return worth;
+        }
+
+        /**
+         * Prints the cash, each position and the total.
+         */
+        public void printSummary() {
+            System.out.println("Money in your wallet = " + balance);
+            for (int k = 0; k < sharesOwned.length; k++) {
+                if (sharesOwned[k] != 0) {
+                    System.out.println(axis.getSymbol(k) + ": " + sharesOwned[k] + " shares worth " + getValueOfShares(k));
+                }
+            }
+            System.out.println("Total net worth = " + getNetWorth());
+        }
+    }
+
+    /**
+     * Runs every instrument's strategy in a single pass over the axis. On each date the
+     * instruments that traded are visited in order, each trading at its own opening price.
+     *
+     * @param axis     The instruments, lined up by date.
+     * @param balance  The starting cash, shared by all instruments.
+     * @param strategy Creates the strategy for each instrument's series.
+     * @return The final state of the portfolio.
+     */
+    public static Result run(MarketAxis axis, double balance, Function<StockSeries, BarStrategy> strategy) {
+        int instruments = axis.instruments();
+        Portfolio cash = new Portfolio(balance);
+        Portfolio[] positions = new Portfolio[instruments];
+        BarStrategy[] strategies = new BarStrategy[instruments];
+        StockSeries[] series = new StockSeries[instruments];
+        double[][] rsi = new double[instruments][];
+        double[][] ma = new double[instruments][];
+        double[][] avgVolume = new double[instruments][];
+        double[] lastOpen = new double[instruments];
+        for (int k = 0; k < instruments; k++) {
+            positions[k] = cash.newPosition();
+            series[k] = axis.getSeries(k);
+            strategies[k] = strategy.apply(series[k]);
+            rsi[k] = IndicatorColumns.rsi(series[k], StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+            ma[k] = IndicatorColumns.openSma(series[k], StockBot.STRATEGY_MA_WINDOW);
+            avgVolume[k] = IndicatorColumns.cumulativeVolumeAverage(series[k]);
+        }
+        BarContext context = new BarContext();
+
+        for (int t = 0; t < axis.length(); t++) {
+            for (int k = 0; k < instruments; k++) {
+                int bar = axis.barAt(k, t);
+                if (bar < 0) {
+                    continue;
+                }
+                context.setBar(series[k], bar);
+                context.setIndicators(rsi[k][bar], ma[k][bar], avgVolume[k][bar]);
+                context.setPosition(positions[k].getSharesOwned(), positions[k].getBalance());
+                double shares = strategies[k].execute(context);
+                positions[k].trade(shares, context.getOpen());
+                lastOpen[k] = context.getOpen();
+            }
+        }
+
+        int[] sharesOwned = new int[instruments];
+        for (int k = 0; k < instruments; k++) {
+            sharesOwned[k] = positions[k].getSharesOwned();
+        }
+        return new Result(axis, cash.getBalance(), sharesOwned, lastOpen);
+    }
+
+    /**
+     * Loads several CSV files in parallel and lines them up by date.
+     *
+     * @param fileNames The CSV files, one per instrument; each file name is used as its symbol.
+     * @return The aligned instruments.
+     * @throws IOException If a file cannot be loaded.
+     */
+    public static MarketAxis load(List<String> fileNames) throws IOException {
+        StockSeries[] loaded = new StockSeries[fileNames.size()];
+        try {
+            IntStream.range(0, loaded.length).parallel().forEach(k -> {
+                try {
+                    loaded[k] = StockCsvLoader.load(fileNames.get(k));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new MarketAxis(fileNames, Arrays.asList(loaded));
+    }
+
+    /**
+     * Runs the built-in strategies over the bundled tickers as one portfolio.
+     *
+     * @param args The CSV files to trade; defaults to the Intel and Tesla daily files.
+     * @throws IOException If a file cannot be loaded.
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>(args.length > 0 ? Arrays.asList(args)
+                : Arrays.asList("INTC.csv", "TSLA 1Y Daily.csv"));
+        MarketAxis axis = load(files);
+        System.out.println(axis.instruments() + " instruments over " + axis.length() + " dates");
+
+        System.out.println("\nTesting RSI and Moving Average Strategy:");
+        run(axis, 10000, s -> Strategies.rsiAndMa(s, 14, 30, 70, StockBot.STRATEGY_MA_WINDOW)).printSummary();
+
+        System.out.println("\nTesting Momentum-Based Trading Strategy:");
+        run(axis, 10000, s -> Strategies.momentumAndVolume(s, StockBot.STRATEGY_MA_WINDOW)).printSummary();
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Highest or lowest of the last window values, kept by a Shared WindowExtreme so that each update
+ * is constant time on average no matter how wide the window is.
+ *
+ * @see WindowExtreme
+ */
+public class RollingExtreme implements Indicator {
+    private final int windowSize;
+    private final WindowExtreme extreme;
+    private long updates;
+
+    private RollingExtreme(int windowSize, boolean max) {
+        this.extreme = new WindowExtreme(windowSize, !max);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Creates a rolling maximum.
+     *
+     * @param windowSize The number of values to look back over.
+     * @return A new rolling maximum.
+     */
+    public static RollingExtreme max(int windowSize) {
+        return new RollingExtreme(windowSize, true);
+    }
+
+    /**
+     * Creates a rolling minimum.
+     *
+     * @param windowSize The number of values to look back over.
+     * @return A new rolling minimum.
+     */
+    public static RollingExtreme min(int windowSize) {
+        return new RollingExtreme(windowSize, false);
+    }
+
+    @Override
+    public double update(double value) {
+        extreme.push(value, updates++);
+        return extreme.value();
+    }
+
+    @Override
+    public double value() {
+        return extreme.value();
+    }
+
+    @Override
+    public boolean isReady() {
+        return updates >= windowSize;
+    }
+
+    @Override
+    public void reset() {
+        extreme.clear();
+        updates = 0;
+    }
+}
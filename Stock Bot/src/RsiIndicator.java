@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * Relative Strength Index that is updated one closing price at a time in constant time,
+ * instead of re-scanning the price history for every new bar.
+ *
+ * SIMPLE averages the gains and losses of the last period changes, which is what
+ * StockBot.calculateRSI computes over a period + 1 day window. WILDER seeds the averages
+ * the same way and then smooths them with Wilder's (period - 1) / period weighting.
+ */
+public class RsiIndicator implements Indicator {
+
+    /**
+     * How the average gain and loss are maintained.
+     */
+    public enum Smoothing {
+        /** Plain average of the last period changes. */
+        SIMPLE,
+        /** Wilder's smoothed moving average. */
+        WILDER
+    }
+
+    private final int period;
+    private final Smoothing smoothing;
+
+    // The last period gains and losses, for taking the oldest change out of the simple sums
+    private final double[] gains;
+    private final double[] losses;
+    private double gainSum;
+    private double lossSum;
+    private int nonZeroGains;
+    private int nonZeroLosses;
+
+    private double avgGain;
+    private double avgLoss;
+    private double lastClose;
+    private boolean hasClose;
+    private long changes;
+
+    /**
+     * Constructs an RSI indicator.
+     *
+     * @param period    The number of price changes to average over, usually 14.
+     * @param smoothing How the average gain and loss are maintained.
+     */
+    public RsiIndicator(int period, Smoothing smoothing) {
+        if (period < 1) {
+            throw new IllegalArgumentException("RSI period must be at least 1, got " + period);
+        }
+        this.period = period;
+        this.smoothing = smoothing;
+        this.gains = new double[period];
+        this.losses = new double[period];
+    }
+
+    /**
+     * Adds the next closing price.
+     *
+     * @param close The closing price of the new bar.
+     * @return The RSI after this bar, or NaN if fewer than period changes have been seen.
+     */
+    @Override
+    public double update(double close) {
+        if (!hasClose) {
+            lastClose = close;
+            hasClose = true;
+            return value();
+        }
+        double change = close - lastClose;
+        lastClose = close;
+        double gain = change > 0 ? change : 0;
+        double loss = change > 0 ? 0 : Math.abs(change);
+
+        int slot = (int) (changes % period);
+        if (changes >= period) {
+            gainSum -= gains[slot];
+            lossSum -= losses[slot];
+            nonZeroGains -= gains[slot] != 0 ? 1 : 0;
+            nonZeroLosses -= losses[slot] != 0 ? 1 : 0;
+        }
+        gains[slot] = gain;
+        losses[slot] = loss;
+        gainSum += gain;
+        lossSum += loss;
+        nonZeroGains += gain != 0 ? 1 : 0;
+        nonZeroLosses += loss != 0 ? 1 : 0;
+        changes++;
+
+        if (changes % period == 0) {
+            // Re-add the window from scratch once per period so rounding cannot build up in the sums
+            gainSum = 0;
+            lossSum = 0;
+            for (int i = 0; i < period; i++) {
+                gainSum += gains[i];
+                lossSum += losses[i];
+            }
+        }
+        // An all-zero window must give exactly zero, not a rounding residue
+        if (nonZeroGains == 0) {
+            gainSum = 0;
+        }
+        if (nonZeroLosses == 0) {
+            lossSum = 0;
+        }
+
+        if (smoothing == Smoothing.WILDER && changes > period) {
+            avgGain = (avgGain * (period - 1) + gain) / period;
+            avgLoss = (avgLoss * (period - 1) + loss) / period;
+        } else {
+            avgGain = gainSum / period;
+            avgLoss = lossSum / period;
+        }
+        return value();
+    }
+
+    /**
+     * Returns the RSI after the latest bar.
+     *
+     * @return The RSI, between 0 and 100, or NaN if fewer than period changes have been seen.
+     */
+    @Override
+    public double value() {
+        if (!isReady()) {
+            return Double.NaN;
+        }
+        if (avgLoss == 0) {
+            return 100;
+        }
+        double RS = avgGain / avgLoss;
+        return 100 - (100 / (1 + RS));
+    }
+
+    /**
+     * Returns whether enough bars have been seen for the RSI to be defined.
+     *
+     * @return True once period price changes have been added.
+     */
+    @Override
+    public boolean isReady() {
+        return changes >= period;
+    }
+
+    /**
+     * Returns the number of price changes averaged over.
+     *
+     * @return The RSI period.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns how the average gain and loss are maintained.
+     *
+     * @return The smoothing method.
+     */
+    public Smoothing getSmoothing() {
+        return smoothing;
+    }
+
+    /**
+     * Forgets every price seen so far.
+     */
+    @Override
+    public void reset() {
+        Arrays.fill(gains, 0);
+        Arrays.fill(losses, 0);
+        gainSum = 0;
+        lossSum = 0;
+        nonZeroGains = 0;
+        nonZeroLosses = 0;
+        avgGain = 0;
+        avgLoss = 0;
+        lastClose = 0;
+        hasClose = false;
+        changes = 0;
+    }
+}
@@ -0,0 +1,377 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Where one StockBot's time goes: how long each phase (loading, indicator columns, strategy runs and
+ * exports) took, how much it allocated, and for strategy runs the latency of every strategy call in
+ * a LatencyHistogram, bars per second and bytes allocated per bar.
+ *
+ * Profiling is off unless the stockbot.profile system property is true or setEnabled(true) is called
+ * before the bot is created. A bot created while it is off has no profile and pays one branch per bar.
+ * Every finished phase is also committed as a StockBot.Phase JFR event, which lands in any running
+ * flight recording, e.g.
+ * <pre>
+ * java -Dstockbot.profile=true -XX:StartFlightRecording=filename=bot.jfr Main
+ * jfr print --events StockBot.Phase bot.jfr
+ * </pre>
+ *
+ * Phases can nest, as the indicator columns computed during an export do, and each reports its
+ * inclusive time. A profile belongs to the thread that uses its bot.
+ */
+public final class RunProfile {
+
+    /**
+     * The parts of a StockBot's work that are timed.
+     */
+    public enum Phase {
+        /** Reading the stock data file. */
+        LOAD,
+        /** Computing RSI and moving average columns. */
+        INDICATORS,
+        /** Running a strategy over every bar. */
+        STRATEGY,
+        /** Writing the adjusted CSV file. */
+        EXPORT
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("stockbot.profile");
+
+    private static final int MAX_DEPTH = 8;
+
+    private final String label;
+    private final List<PhaseRecord> phases = new ArrayList<>();
+    // The phases begun and not yet ended, innermost last
+    private final Phase[] open = new Phase[MAX_DEPTH];
+    private final long[] startNanos = new long[MAX_DEPTH];
+    private final long[] startBytes = new long[MAX_DEPTH];
+    private final LatencyHistogram[] latencies = new LatencyHistogram[MAX_DEPTH];
+    private final PhaseEvent[] events = new PhaseEvent[MAX_DEPTH];
+    private int depth;
+
+    private RunProfile(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns whether bots created from now on are profiled.
+     *
+     * @return True if profiling is on.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns profiling on or off for bots created from now on.
+     *
+     * @param on True to profile.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Creates a profile if profiling is on.
+     *
+     * @param label What is profiled, such as the bot's file name.
+     * @return A new profile, or null if profiling is off.
+     */
+    static RunProfile createIfEnabled(String label) {
+        return enabled ? new RunProfile(label) : null;
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase The phase.
+     * @throws IllegalStateException If phases are nested too deeply.
+     */
+    void begin(Phase phase) {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Phases nested more than " + MAX_DEPTH + " deep");
+        }
+        // Allocate before taking the allocation snapshot, so the profile does not count itself
+        latencies[depth] = phase == Phase.STRATEGY ? new LatencyHistogram() : null;
+        PhaseEvent event = new PhaseEvent();
+        events[depth] = event;
+        open[depth] = phase;
+        startBytes[depth] = allocatedBytes();
+        event.begin();
+        startNanos[depth] = System.nanoTime();
+        depth++;
+    }
+
+    /**
+     * Records the latency of one bar of the strategy run in progress.
+     *
+     * @param nanos How long the strategy took to decide on the bar.
+     */
+    void recordBar(long nanos) {
+        latencies[depth - 1].record(nanos);
+    }
+
+    /**
+     * Stops timing the innermost phase.
+     *
+     * @param bars The number of bars the phase went over.
+     * @return The record of the phase.
+     */
+    PhaseRecord end(long bars) {
+        long nanos = System.nanoTime() - startNanos[depth - 1];
+        long bytes = allocatedBytes();
+        depth--;
+        PhaseEvent event = events[depth];
+        event.end();
+        PhaseRecord record = new PhaseRecord(open[depth], nanos, bytes < 0 ? -1 : bytes - startBytes[depth], bars,
+                latencies[depth]);
+        if (event.shouldCommit()) {
+            event.bot = label;
+            event.phase = record.phase.name();
+            event.bars = bars;
+            event.allocated = record.allocatedBytes;
+            event.barsPerSecond = record.getBarsPerSecond();
+            if (record.latencies != null) {
+                event.p50 = record.latencies.getValueAtPercentile(50);
+                event.p99 = record.latencies.getValueAtPercentile(99);
+                event.max = record.latencies.getMax();
+            }
+            event.commit();
+        }
+        events[depth] = null;
+        latencies[depth] = null;
+        phases.add(record);
+        return record;
+    }
+
+    // Phases begun and not yet ended
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns what is profiled.
+     *
+     * @return The label.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns every finished phase, in the order they ended.
+     *
+     * @return An unmodifiable view of the phases.
+     */
+    public List<PhaseRecord> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    /**
+     * Returns the most recent strategy run.
+     *
+     * @return The record, or null if no strategy has been run.
+     */
+    public PhaseRecord getLastStrategyRun() {
+        for (int i = phases.size() - 1; i >= 0; i--) {
+            if (phases.get(i).phase == Phase.STRATEGY) {
+                return phases.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Prints one line per phase followed by the latency distribution of each strategy run, in microseconds.
+     *
+     * @param out Where to print.
+     */
+    public void print(PrintStream out) {
+        out.println("Profile of " + label);
+        for (PhaseRecord record : phases) {
+            out.println("  " + record);
+        }
+        for (PhaseRecord record : phases) {
+            if (record.latencies != null) {
+                out.println();
+                out.println("Strategy latency in microseconds, " + record.bars + " bars:");
+                record.latencies.printPercentiles(out, 1e3);
+            }
+        }
+    }
+
+    /**
+     * Writes what print prints to a file.
+     *
+     * @param file The file to write, replaced if it exists.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            print(out);
+        }
+    }
+
+    // Bytes allocated by this thread so far, or -1 if the JVM cannot tell
+    private static long allocatedBytes() {
+        return Allocation.BEAN == null ? -1 : Allocation.BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    // Looked up on first use, so bots that are not profiled never touch the management beans
+    private static final class Allocation {
+        static final com.sun.management.ThreadMXBean BEAN = lookUp();
+
+        private static com.sun.management.ThreadMXBean lookUp() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+                com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) bean;
+                allocation.setThreadAllocatedMemoryEnabled(true);
+                return allocation;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One finished phase.
+     */
+    public static final class PhaseRecord {
+        private final Phase phase;
+        private final long nanos;
+        private final long allocatedBytes;
+        private final long bars;
+        private final LatencyHistogram latencies;
+
+        private PhaseRecord(Phase phase, long nanos, long allocatedBytes, long bars, LatencyHistogram latencies) {
+            this.phase = phase;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.bars = bars;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Returns which phase this was.
+         *
+         * @return The phase.
+         */
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * Returns how long the phase took, including any phases nested in it.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the bytes the thread allocated during the phase.
+         *
+         * @return The bytes, or -1 if the JVM cannot measure allocation.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Returns the number of bars the phase went over.
+         *
+         * @return The number of bars.
+         */
+        public long getBars() {
+            return bars;
+        }
+
+        /**
+         * Returns the bars handled per second of the phase.
+         *
+         * @return The throughput, or 0 if the phase took no measurable time.
+         */
+        public double getBarsPerSecond() {
+            return nanos == 0 ? 0 : bars * 1e9 / nanos;
+        }
+
+        /**
+         * Returns the bytes allocated per bar.
+         *
+         * @return The bytes per bar, or NaN if there were no bars or allocation cannot be measured.
+         */
+        public double getAllocatedBytesPerBar() {
+            return bars == 0 || allocatedBytes < 0 ? Double.NaN : (double) allocatedBytes / bars;
+        }
+
+        /**
+         * Returns the latency of each strategy call, in nanoseconds.
+         *
+         * @return The histogram for a strategy run, or null for other phases.
+         */
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            String line = String.format("%-10s %10.3f ms %9d bars %12.0f bars/s %10.1f B/bar", phase, nanos / 1e6,
+                    bars, getBarsPerSecond(), getAllocatedBytesPerBar());
+            if (latencies != null) {
+                line += String.format("  latency us p50 %.3f p99 %.3f max %.3f", latencies.getValueAtPercentile(50) / 1e3,
+                        latencies.getValueAtPercentile(99) / 1e3, latencies.getMax() / 1e3);
+            }
+            return line;
+        }
+    }
+
+    @Name("StockBot.Phase")
+    @Label("StockBot Phase")
+    @Category("StockBot")
+    @Description("A timed part of a StockBot's work: loading, indicator columns, a strategy run or an export")
+    @StackTrace(false)
+    static final class PhaseEvent extends Event {
+        @Label("Bot")
+        String bot;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Bars")
+        long bars;
+
+        @Label("Bars per Second")
+        double barsPerSecond;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+
+        @Label("Median Strategy Latency")
+        @Timespan
+        long p50;
+
+        @Label("99th Percentile Strategy Latency")
+        @Timespan
+        long p99;
+
+        @Label("Maximum Strategy Latency")
+        @Timespan
+        long max;
+    }
+}
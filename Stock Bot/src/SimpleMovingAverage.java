@@ -0,0 +1,65 @@
+/**
+ * Mean of the last window values, kept as a running sum over a ring buffer.
+ *
+ * Until window values have been added it is the mean of all of them, like StockBot.movingAvg
+ * early in a run. The sum is recomputed from the buffer once per window values so rounding
+ * error cannot build up.
+ */
+public class SimpleMovingAverage implements Indicator {
+    private final DoubleRingBuffer window;
+    private double sum;
+    private long updates;
+
+    /**
+     * Constructs a simple moving average.
+     *
+     * @param windowSize The number of values to average over.
+     */
+    public SimpleMovingAverage(int windowSize) {
+        this.window = new DoubleRingBuffer(windowSize);
+    }
+
+    @Override
+    public double update(double value) {
+        double dropped = window.add(value);
+        updates++;
+        if (updates % window.capacity() == 0) {
+            sum = 0;
+            for (int i = 0; i < window.size(); i++) {
+                sum += window.get(i);
+            }
+        } else {
+            sum += value;
+            if (!Double.isNaN(dropped)) {
+                sum -= dropped;
+            }
+        }
+        return value();
+    }
+
+    @Override
+    public double value() {
+        return window.size() == 0 ? Double.NaN : sum / window.size();
+    }
+
+    @Override
+    public boolean isReady() {
+        return window.isFull();
+    }
+
+    /**
+     * Returns the number of values averaged over once the window is full.
+     *
+     * @return The window size.
+     */
+    public int getWindowSize() {
+        return window.capacity();
+    }
+
+    @Override
+    public void reset() {
+        window.clear();
+        sum = 0;
+        updates = 0;
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads bars from a TCP or Unix domain socket that sends Date,Open,High,Low,Close,Adj Close,Volume
+ * CSV lines, such as a BarReplayServer, until the other end closes the connection.
+ *
+ * Lines are parsed straight from the receive buffer as they arrive, as StockCsvLoader parses a mapped
+ * file, so a bar costs no allocation between the socket and the listener. A first line that does not
+ * start with a digit is taken as the header and skipped.
+ *
+ * @see BarReplayServer
+ */
+public final class SocketBarSource implements BarSource {
+
+    // Longest line accepted
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketAddress address;
+    private final SocketChannel channel;
+
+    private SocketBarSource(SocketAddress address, SocketChannel channel) {
+        this.address = address;
+        this.channel = channel;
+    }
+
+    /**
+     * Connects to a feed.
+     *
+     * @param address The address of the feed, an InetSocketAddress or a UnixDomainSocketAddress.
+     * @return The connected source.
+     * @throws IOException If the connection cannot be made.
+     */
+    public static SocketBarSource connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        if (address instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+        return new SocketBarSource(address, channel);
+    }
+
+    /**
+     * Turns the text form of a feed address into a socket address: a port number on the loopback
+     * interface, host:port, or otherwise the path of a Unix domain socket.
+     *
+     * @param text The address, e.g. "9100", "localhost:9100" or "/tmp/bars.sock".
+     * @return The socket address.
+     */
+    public static SocketAddress address(String text) {
+        if (text.matches("\\d+")) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(text));
+        }
+        int colon = text.lastIndexOf(':');
+        if (colon > 0 && text.substring(colon + 1).matches("\\d+")) {
+            return new InetSocketAddress(text.substring(0, colon), Integer.parseInt(text.substring(colon + 1)));
+        }
+        return UnixDomainSocketAddress.of(text);
+    }
+
+    /**
+     * Delivers every bar the feed sends until it closes the connection.
+     *
+     * @param listener Receives the bars.
+     * @throws IOException If the connection fails or a line is malformed or too long.
+     */
+    @Override
+    public void stream(Listener listener) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long line = 0;
+        while (true) {
+            boolean more = channel.read(buffer) >= 0;
+            int end = buffer.position();
+            int pos = 0;
+            while (true) {
+                int lineEnd = pos;
+                while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                if (lineEnd == end && more) {
+                    break;
+                }
+                line++;
+                int next = lineEnd + 1;
+                if (lineEnd > pos && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                boolean header = line == 1 && lineEnd > pos && (buffer.get(pos) < '0' || buffer.get(pos) > '9');
+                if (lineEnd > pos && !header) {
+                    try {
+                        StockCsvLoader.parseLine(buffer, pos, lineEnd, listener);
+                    } catch (NumberFormatException | DateTimeParseException | IndexOutOfBoundsException e) {
+                        throw new IOException("Malformed line " + line + " from " + address + ": \""
+                                + AsciiParser.text(buffer, pos, lineEnd) + "\"", e);
+                    }
+                }
+                pos = next;
+                if (pos >= end) {
+                    break;
+                }
+            }
+            if (!more) {
+                return;
+            }
+            if (pos == 0 && end == buffer.capacity()) {
+                throw new IOException("Line " + (line + 1) + " from " + address + " is longer than "
+                        + BUFFER_SIZE + " bytes");
+            }
+            // Keep the unfinished line for the next read
+            buffer.limit(end).position(Math.min(pos, end));
+            buffer.compact();
+        }
+    }
+
+    /**
+     * Closes the connection. A stream in progress on another thread fails with an IOException.
+     *
+     * @throws IOException If closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,17 +1,17 @@
-import org.apache.commons.math4.legacy.stat.descriptive.DescriptiveStatistics;
 import java.io.*;
-import java.text.Format;
-import java.text.SimpleDateFormat;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.DoubleUnaryOperator;
 import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
+import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
-import org.jfree.data.time.Day;
-import org.jfree.data.time.TimeSeries;
-import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.data.xy.DefaultXYDataset;
 import javax.swing.JFrame;
 
 /**
@@ -22,58 +22,269 @@ import javax.swing.JFrame;
  */
 public class StockBot {
     private String fileName;
+    private final BarSeries series;
     private List<StockData> originalList;
     private List<StockData> rollingList;
     private List<Double> rollingAvg;
     private List<Double> rollingRSI;
+    private final RsiIndicator rsiIndicator;
+    private final SimpleMovingAverage openAverage;
+    private final CumulativeAverage volumeAverage;
+    // Null unless profiling was on when the bot was created
+    private final RunProfile profile;
     final private double initBalance;
     private double balance;
     private int sharesOwned;
     private int day;
     private int sum;
 
+    // Window of the opening-price moving average the built-in strategies trade on
+    static final int STRATEGY_MA_WINDOW = 30;
+
+    // Number of price changes in the RSI unless another period is given
+    static final int DEFAULT_RSI_PERIOD = 14;
+
+    // Window of the moving average column in the "adjusted" CSV export
+    static final int EXPORT_MA_WINDOW = 50;
+
+    // Widest createGraph's window is likely to be drawn, in pixels
+    private static final int SCREEN_WIDTH = 1920;
+
     /**
-     * Constructor for the StockBot class.
+     * Constructor for the StockBot class. Indicator columns are only computed when asked for,
+     * see addRsiToList, addMaToList and exportAdjusted.
      *
      * @param balance  Initial balance for trading.
-     * @param fileName The name of the CSV file containing stock data.
+     * @param fileName The name of the CSV file or bar file containing stock data.
      */
     public StockBot(double balance, String fileName){
+        this(balance, fileName, DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+    }
+
+    /**
+     * Constructor for the StockBot class with a custom RSI.
+     *
+     * @param balance      Initial balance for trading.
+     * @param fileName     The name of the CSV file or bar file containing stock data.
+     * @param rsiPeriod    The number of price changes the RSI averages over.
+     * @param rsiSmoothing Whether the RSI uses a simple or a Wilder-smoothed average.
+     */
+    public StockBot(double balance, String fileName, int rsiPeriod, RsiIndicator.Smoothing rsiSmoothing){
+        this(balance, fileName, RunProfile.createIfEnabled(fileName), rsiPeriod, rsiSmoothing);
+    }
+
+    private StockBot(double balance, String fileName, RunProfile profile, int rsiPeriod,
+                     RsiIndicator.Smoothing rsiSmoothing){
+        this(balance, fileName, loadOrReport(fileName, profile), profile, rsiPeriod, rsiSmoothing);
+    }
+
+    private StockBot(double balance, String fileName, BarSeries series, RunProfile profile, int rsiPeriod,
+                     RsiIndicator.Smoothing rsiSmoothing){
         this.fileName = fileName;
+        this.series = series;
+        this.profile = profile;
         this.balance = balance;
         this.initBalance = balance;
         rollingAvg = new ArrayList<>();
         rollingList = new ArrayList<>();
         rollingRSI = new ArrayList<>();
+        rsiIndicator = new RsiIndicator(rsiPeriod, rsiSmoothing);
+        openAverage = new SimpleMovingAverage(STRATEGY_MA_WINDOW);
+        volumeAverage = new CumulativeAverage();
         sharesOwned = 0;
         sum = 0;
         day = 1;
 
-        try{
-            List<StockData> data = new ArrayList<>();
-            FileReader fr = new FileReader(this.fileName);
-            BufferedReader br = new BufferedReader(fr);
-            br.readLine();
-            for(String line; ((line = br.readLine()) != null);){
-                String[] lineData = line.split(",");
-                data.add(new StockData(lineData[0],
-                                    Double.parseDouble(lineData[1]),
-                                    Double.parseDouble(lineData[2]),
-                                    Double.parseDouble(lineData[3]),
-                                    Double.parseDouble(lineData[4]),
-                                    Double.parseDouble(lineData[5]),
-                                    Long.parseLong(lineData[6])));
-            }
-            br.close();
-            this.originalList = data;
-            addRsiToList();
-            addMaToList(50);
-            writeStockDataToCSV((ArrayList<StockData>) originalList, "adjusted " + fileName);
+        if (series != null && series.size() > 0) {
+            this.originalList = toStockDataList(series);
             rollingList.add(originalList.get(0));
+            updateIndicators(originalList.get(0));
         }
-        catch(Exception e){
+    }
+
+    /**
+     * Builds a StockBot from a file or an already loaded series, computing only the indicator
+     * columns that were asked for. Columns come from IndicatorColumns, so bots built from the same
+     * series compute each of them once.
+     */
+    public static class Builder {
+        private double balance;
+        private String fileName;
+        private BarSeries series;
+        private int rsiPeriod = DEFAULT_RSI_PERIOD;
+        private RsiIndicator.Smoothing rsiSmoothing = RsiIndicator.Smoothing.SIMPLE;
+        private boolean rsiColumn;
+        private int maWindow = -1;
+
+        /**
+         * Constructs a builder with a balance of 0, the default RSI and no indicator columns.
+         */
+        public Builder(){
+        }
+
+        /**
+         * Sets the initial balance.
+         *
+         * @param balance Initial balance for trading.
+         * @return This builder.
+         */
+        public Builder balance(double balance){
+            this.balance = balance;
+            return this;
+        }
+
+        /**
+         * Loads the bars from a file when the bot is built.
+         *
+         * @param fileName The name of the CSV file or bar file containing stock data.
+         * @return This builder.
+         */
+        public Builder file(String fileName){
+            this.fileName = fileName;
+            this.series = null;
+            return this;
+        }
+
+        /**
+         * Uses bars that are already loaded. The bot cannot exportAdjusted without a file name.
+         *
+         * @param series The bars.
+         * @return This builder.
+         */
+        public Builder series(BarSeries series){
+            this.series = series;
+            this.fileName = null;
+            return this;
+        }
+
+        /**
+         * Sets the RSI the bot trades on and writes to its RSI column.
+         *
+         * @param period    The number of price changes the RSI averages over.
+         * @param smoothing Whether the RSI uses a simple or a Wilder-smoothed average.
+         * @return This builder.
+         */
+        public Builder rsi(int period, RsiIndicator.Smoothing smoothing){
+            this.rsiPeriod = period;
+            this.rsiSmoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * Fills in the RSI of every row when the bot is built, as addRsiToList does.
+         *
+         * @return This builder.
+         */
+        public Builder withRsiColumn(){
+            this.rsiColumn = true;
+            return this;
+        }
+
+        /**
+         * Fills in the moving average of every row when the bot is built, as addMaToList does.
+         *
+         * @param windowSize The window size for the moving average calculation.
+         * @return This builder.
+         */
+        public Builder withMaColumn(int windowSize){
+            this.maWindow = windowSize;
+            return this;
+        }
+
+        /**
+         * Builds the bot, loading its file if no series was given.
+         *
+         * @return The new StockBot.
+         * @throws IOException If the file cannot be read or is malformed.
+         * @throws IllegalStateException If neither a file nor a series was given.
+         */
+        public StockBot build() throws IOException {
+            if (fileName == null && series == null) {
+                throw new IllegalStateException("A StockBot needs a file or a series");
+            }
+            RunProfile profile = RunProfile.createIfEnabled(fileName != null ? fileName : "series");
+            BarSeries bars = series;
+            if (bars == null) {
+                if (profile != null) {
+                    profile.begin(RunProfile.Phase.LOAD);
+                }
+                try {
+                    bars = loadSeries(fileName);
+                } finally {
+                    if (profile != null) {
+                        profile.end(bars == null ? 0 : bars.size());
+                    }
+                }
+            }
+            StockBot bot = new StockBot(balance, fileName, bars, profile, rsiPeriod, rsiSmoothing);
+            if (rsiColumn) {
+                bot.addRsiToList();
+            }
+            if (maWindow >= 0) {
+                bot.addMaToList(maWindow);
+            }
+            return bot;
+        }
+    }
+
+    /**
+     * Loads bars from a bar file (see BarFile.EXTENSION) by mapping it, or from a CSV file by parsing it.
+     * A bar file is used as it is mapped rather than copied, and its RSI and moving average columns, if
+     * it has them, stand in for the ones the bot would compute.
+     *
+     * @param fileName The name of the bar file or CSV file containing stock data.
+     * @return The bars in the file.
+     * @throws IOException If the file cannot be read or is malformed.
+     */
+    static BarSeries loadSeries(String fileName) throws IOException {
+        if (BarFile.isBarFile(fileName)) {
+            return BarFile.open(fileName);
+        }
+        return StockCsvLoader.load(fileName);
+    }
+
+    /**
+     * Expands bars into one StockData object per bar, the rows the bot trades on.
+     *
+     * @param bars The bars.
+     * @return A new list of StockData rows.
+     */
+    private static List<StockData> toStockDataList(BarSeries bars){
+        if (bars instanceof StockSeries) {
+            return ((StockSeries) bars).toStockDataList();
+        }
+        List<StockData> rows = new ArrayList<>(bars.size());
+        for (int i = 0; i < bars.size(); i++) {
+            rows.add(new StockData(bars.getEpochDay(i), bars.getOpen(i), bars.getHigh(i), bars.getLow(i),
+                    bars.getClose(i), bars.getAdjClose(i), bars.getVolume(i)));
+        }
+        return rows;
+    }
+
+    // The public constructors report a file that cannot be loaded instead of throwing
+    private static BarSeries loadOrReport(String fileName, RunProfile profile) {
+        if (profile != null) {
+            profile.begin(RunProfile.Phase.LOAD);
+        }
+        BarSeries series = null;
+        try {
+            series = loadSeries(fileName);
+        } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            if (profile != null) {
+                profile.end(series == null ? 0 : series.size());
+            }
+        }
+        return series;
+    }
+
+    // The export of a bar file is still a CSV, so it gets the .csv extension instead
+    private static String csvName(String fileName) {
+        if (BarFile.isBarFile(fileName)) {
+            return fileName.substring(0, fileName.length() - BarFile.EXTENSION.length()) + ".csv";
         }
+        return fileName;
     }
 
     @FunctionalInterface
@@ -88,13 +299,64 @@ public class StockBot {
      * @param strategy The trading strategy to be used in the simulation.
      */
     public void run(TradingStrategy strategy){
-        for(int i = 0; i < originalList.size(); i++) {
-            double open = rollingList.get(i).getOpen();
-            double sharesToBuy = strategy.execute(open);
+        if (profile != null) {
+            profile.begin(RunProfile.Phase.STRATEGY);
+        }
+        int i = 0;
+        try {
+            for(; i < originalList.size(); i++) {
+                double open = rollingList.get(i).getOpen();
+                long start = profile != null ? System.nanoTime() : 0;
+                double sharesToBuy = strategy.execute(open);
+                if (profile != null) {
+                    profile.recordBar(System.nanoTime() - start);
+                }
+
+                sharesOwned += sharesToBuy;
+                balance = balance - (sharesToBuy * open);
+                newDay();
+            }
+        } finally {
+            if (profile != null) {
+                profile.end(i);
+            }
+        }
+        printSummary();
+    }
 
-            sharesOwned += sharesToBuy;
-            balance = balance - (sharesToBuy * open);
-            newDay();
+    /**
+     * Runs the trading simulation with a strategy that sees the whole bar, the bot's indicators and
+     * its position through one reused BarContext.
+     *
+     * @param strategy The trading strategy to be used in the simulation.
+     */
+    public void runBars(BarStrategy strategy){
+        if (profile != null) {
+            profile.begin(RunProfile.Phase.STRATEGY);
+        }
+        BarContext bar = new BarContext();
+        int i = 0;
+        try {
+            for(; i < originalList.size(); i++) {
+                StockData today = rollingList.get(i);
+                bar.setBar(i, i == originalList.size() - 1, today.getEpochDay(), today.getOpen(), today.getHigh(),
+                        today.getLow(), today.getClose(), today.getAdjClose(), today.getVolume());
+                bar.setIndicators(rsiIndicator.value(), openAverage.value(), volumeAverage.value());
+                bar.setPosition(sharesOwned, balance);
+                long start = profile != null ? System.nanoTime() : 0;
+                double sharesToBuy = strategy.execute(bar);
+                if (profile != null) {
+                    profile.recordBar(System.nanoTime() - start);
+                }
+
+                sharesOwned += sharesToBuy;
+                balance = balance - (sharesToBuy * today.getOpen());
+                newDay();
+            }
+        } finally {
+            if (profile != null) {
+                profile.end(i);
+            }
         }
         printSummary();
     }
@@ -109,6 +371,19 @@ public class StockBot {
         double valueOfShares = sharesOwned * rollingList.get(day-1).getOpen();
         System.out.println("Value of your shares = " + valueOfShares);
         System.out.println("Total net worth = " + (balance + valueOfShares));
+        if (profile != null && profile.getLastStrategyRun() != null) {
+            System.out.println("Strategy run: " + profile.getLastStrategyRun());
+        }
+    }
+
+
+    /**
+     * Returns the timings of this bot's loading, indicator columns, strategy runs and exports.
+     *
+     * @return The profile, or null if profiling was off when the bot was created (see RunProfile).
+     */
+    public RunProfile getProfile(){
+        return profile;
     }
 
     /**
@@ -137,21 +412,22 @@ public class StockBot {
      */
     public double rsiAndMaStrategy(double open){
         double shares = 0;
-        if (day < 15)
+        if (!rsiIndicator.isReady())
             return 0;
-        double todaysRSI = calculateRSI(rollingList);
+        double todaysRSI = rsiIndicator.value();
         double maxInvestment = balance * 0.1; // Only use 10% of balance for each trade
         if (todaysRSI < 30) {
             double investment = Math.min(maxInvestment, balance * 0.60);
             shares = investment / open;
         }
-        if (open < movingAvg(30)) {
+        double ma = openAverage.value();
+        if (open < ma) {
             double investment = Math.min(maxInvestment, balance);
             shares += investment / open;
         }
         if (todaysRSI > 70)
             shares = -(sharesOwned * 0.40);
-        if (open > movingAvg(30))
+        if (open > ma)
             shares += -(sharesOwned * 0.33);
 
         if(sharesOwned + shares < 0)
@@ -168,12 +444,13 @@ public class StockBot {
     public double momentumAndVolumeStrategy(double open) {
         double shares = 0;
         double avgVolume = calculateAvgVolume();
+        double ma = openAverage.value();
         StockData currentDay = rollingList.get(day - 1);
 
-        if (currentDay.getOpen() > movingAvg(30) && currentDay.getVolume() > avgVolume) {
+        if (currentDay.getOpen() > ma && currentDay.getVolume() > avgVolume) {
             // Buy when price is above MA and volume is high
             shares = (balance * 0.05) / open; // Using 5% of balance to buy
-        } else if (currentDay.getOpen() < movingAvg(30) && currentDay.getVolume() > avgVolume) {
+        } else if (currentDay.getOpen() < ma && currentDay.getVolume() > avgVolume) {
             // Sell when price is below MA and volume is high
             shares = -Math.min(sharesOwned, (balance * 0.05) / open); // Selling up to 5% of balance worth of shares
         }
@@ -182,16 +459,12 @@ public class StockBot {
     }
 
     /**
-     * Calculates the average volume of the rolling list.
+     * Returns the average volume of the rolling list, kept up to date as each day is added.
      *
      * @return The average volume.
      */
     public double calculateAvgVolume() {
-        double totalVolume = 0;
-        for (StockData data : rollingList) {
-            totalVolume += data.getVolume();
-        }
-        return totalVolume / rollingList.size();
+        return volumeAverage.value();
     }
 
 
@@ -208,16 +481,18 @@ public class StockBot {
 
 
     /**
-     * Calculates the rolling RSI values for the stock data.
+     * Calculates the rolling RSI values for the stock data, one per day once the RSI is defined.
      *
      * @return A list of rolling RSI values.
      */
     public ArrayList<Double> rollingRSI(){
         ArrayList<Double> rsiList = new ArrayList<>();
+        RsiIndicator rsi = newRsiIndicator();
 
-        for (int i = 14; i < originalList.size(); i++) {
-            double rsi = dayRSI(i);
-            rsiList.add(rsi);
+        for (StockData data : originalList) {
+            rsi.update(data.getClose());
+            if (rsi.isReady())
+                rsiList.add(rsi.value());
         }
         return rsiList;
     }
@@ -255,23 +530,125 @@ public class StockBot {
 
 
     /**
-     * Adds RSI values to the stock data list.
+     * Adds RSI values to the stock data list. Days before the RSI is defined get 0.
      */
     public void addRsiToList(){
-        for(int i = 14; i < originalList.size(); i++){
-            originalList.get(i).setRsi(dayRSI(i));
+        if (profile != null)
+            profile.begin(RunProfile.Phase.INDICATORS);
+        try {
+            double[] rsi = rsiColumn();
+            for (int i = 0; i < rsi.length; i++)
+                originalList.get(i).setRsi(rsi[i]);
+        } finally {
+            if (profile != null)
+                profile.end(originalList.size());
         }
     }
 
 
+    /**
+     * Returns the RSI of every day as addRsiToList stores it. The column is computed on first use and
+     * shared by every bot on the same series; this returns a copy the caller may modify.
+     *
+     * @return The RSI for each day.
+     */
+    public double[] getRsiColumn(){
+        return rsiColumn().clone();
+    }
+
+
+    /**
+     * Returns the shared RSI column, which must not be modified.
+     *
+     * @return The RSI for each day.
+     */
+    private double[] rsiColumn(){
+        return IndicatorColumns.exportRsi(series, rsiIndicator.getPeriod(), rsiIndicator.getSmoothing());
+    }
+
+
+    /**
+     * Creates an empty RSI indicator with the same period and smoothing as this bot's.
+     *
+     * @return A new RSI indicator.
+     */
+    private RsiIndicator newRsiIndicator(){
+        return new RsiIndicator(rsiIndicator.getPeriod(), rsiIndicator.getSmoothing());
+    }
+
+
     /**
      * Adds Moving Average (MA) values to the stock data list.
      *
      * @param windowSize The window size for the moving average calculation.
      */
     public void addMaToList(int windowSize){
-        for(int i = 0; i < originalList.size(); i++){
-            originalList.get(i).setMa(dailyMovingAvg(windowSize, i));
+        if (profile != null)
+            profile.begin(RunProfile.Phase.INDICATORS);
+        try {
+            double[] ma = maColumn(windowSize);
+            for (int i = 0; i < ma.length; i++)
+                originalList.get(i).setMa(ma[i]);
+        } finally {
+            if (profile != null)
+                profile.end(originalList.size());
+        }
+    }
+
+
+    /**
+     * Returns the moving average of every day as addMaToList stores it: the average opening price of
+     * the windowSize days before it. The column is computed on first use and shared by every bot on
+     * the same series; this returns a copy the caller may modify.
+     *
+     * @param windowSize The window size for the moving average calculation.
+     * @return The moving average for each day.
+     */
+    public double[] getMaColumn(int windowSize){
+        return maColumn(windowSize).clone();
+    }
+
+
+    /**
+     * Returns the shared moving average column, which must not be modified.
+     *
+     * @param windowSize The window size for the moving average calculation.
+     * @return The moving average for each day.
+     */
+    private double[] maColumn(int windowSize){
+        return IndicatorColumns.priorOpenSma(series, windowSize);
+    }
+
+
+    /**
+     * Writes the stock data with its RSI and 50-day moving average to "adjusted " followed by the
+     * name of the file the bot was loaded from, with a bar file's extension replaced by .csv.
+     *
+     * @throws IllegalStateException If the bot was built from a series instead of a file.
+     */
+    public void exportAdjusted(){
+        if (fileName == null) {
+            throw new IllegalStateException("This bot was not loaded from a file, so give exportAdjusted a file name");
+        }
+        exportAdjusted("adjusted " + csvName(fileName));
+    }
+
+
+    /**
+     * Writes the stock data with its RSI and 50-day moving average to a CSV file.
+     *
+     * @param filename The name of the output CSV file.
+     */
+    public void exportAdjusted(String filename){
+        if (profile != null)
+            profile.begin(RunProfile.Phase.EXPORT);
+        try {
+            addRsiToList();
+            addMaToList(EXPORT_MA_WINDOW);
+            writeStockTable(originalList, filename);
+        } finally {
+            if (profile != null)
+                profile.end(originalList.size());
         }
     }
 
@@ -286,59 +663,86 @@ public class StockBot {
         sum += originalList.get(day-1).getOpen();
         rollingAvg.add(calculateAvg());
         rollingList.add(originalList.get(day-1));
-        if (day > 15)
-            rollingRSI.add(calculateRSI(rollingList));
+        updateIndicators(originalList.get(day-1));
+        if (rsiIndicator.isReady())
+            rollingRSI.add(rsiIndicator.value());
+    }
+
+
+    /**
+     * Feeds a day that has just been added to the rolling list into the running indicators.
+     *
+     * @param today The stock data for the new day.
+     */
+    private void updateIndicators(StockData today){
+        rsiIndicator.update(today.getClose());
+        openAverage.update(today.getOpen());
+        volumeAverage.update(today.getVolume());
     }
 
 
     /**
-     * Applies a smoothing algorithm to the stock data points over a specified window size.
+     * Applies a smoothing algorithm to the stock data points over a specified window size: each point's
+     * opening price becomes the mean of the last windowSize opening prices, kept by a RollingStatistics
+     * so the window size does not change the cost per point. A windowSize of -1 averages every point so
+     * far with a CumulativeAverage instead, which keeps no window.
      *
      * @param points     The stock data points to be smoothed.
-     * @param windowSize The window size for the smoothing algorithm.
+     * @param windowSize The window size for the smoothing algorithm, or -1 to average over every point so far.
      * @return A list of smoothed stock data points.
      */
     public static ArrayList<StockData> Smoother(ArrayList<StockData> points, int windowSize) {
-        DescriptiveStatistics stats = new DescriptiveStatistics();
-        stats.setWindowSize(windowSize);
-        ArrayList<StockData> smoothed = new ArrayList<>();
+        // -1 was DescriptiveStatistics.INFINITE_WINDOW
+        DoubleUnaryOperator average = windowSize == -1 ? new CumulativeAverage()::update : new RollingStatistics(windowSize)::update;
+        ArrayList<StockData> smoothed = new ArrayList<>(points.size());
 
         for(int i = 0; i < points.size(); i++){
             StockData point = points.get(i);
-            stats.addValue(point.getOpen());
-            smoothed.add(new StockData(point.getDate(),stats.getMean()));
+            smoothed.add(new StockData(point.getEpochDay(), average.applyAsDouble(point.getOpen())));
         }
         return smoothed;
     }
 
 
     /**
-     * Writes stock data to a CSV file.
+     * Writes stock data to a CSV file, one row per day with the date, prices, volume, RSI and moving
+     * average. A missing volume is written as an empty field.
      *
      * @param stockTable The stock data to write.
      * @param filename   The name of the output CSV file.
      */
     public void writeStockDataToCSV(ArrayList<StockData> stockTable, String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            // Write the headers
-            writer.write("date,open,high,low,close,adj close,volume,rsi,ma\n");
+        writeStockTable(stockTable, filename);
+    }
+
+
+    /**
+     * Writes stock data to a CSV file as writeStockDataToCSV does, without needing a bot.
+     *
+     * @param stockTable The stock data to write.
+     * @param filename   The name of the output CSV file.
+     */
+    static void writeStockTable(List<StockData> stockTable, String filename) {
+        try (CsvWriter writer = new CsvWriter(filename)) {
+            writer.header("date", "open", "high", "low", "close", "adj close", "volume", "rsi", "ma");
 
             for(int i=0; i < stockTable.size(); i++) {
                 StockData current = stockTable.get(i);
-                Format formatter = new SimpleDateFormat("yyyy-MM-dd"); // https://stackoverflow.com/questions/5683728/convert-java-util-date-to-string
-                String date = formatter.format(current.getDate());
-
-
-                writer.write(date+ "," +
-                        current.getOpen() + "," +
-                        current.getHigh() + "," +
-                        current.getLow() + "," +
-                        current.getClose() + "," +
-                        current.getAdjClose() + "," +
-                        current.getVolume() + "," +
-                        current.getRsi() + "," +
-                        current.getMa() + "," +
-                        "\n");
+                writer.dateField(current.getEpochDay())
+                        .field(current.getOpen())
+                        .field(current.getHigh())
+                        .field(current.getLow())
+                        .field(current.getClose())
+                        .field(current.getAdjClose());
+                Long volume = current.getVolume();
+                if (volume != null) {
+                    writer.field(volume.longValue());
+                } else {
+                    writer.emptyField();
+                }
+                writer.field(current.getRsi())
+                        .field(current.getMa())
+                        .endRow();
             }
         } catch(IOException e) {
             System.out.println("An error occurred while writing to the CSV file");
@@ -348,19 +752,34 @@ public class StockBot {
 
 
     /**
-     * Writes a list of Double values to a CSV file.
+     * Writes a list of Double values to a CSV file. A null value is written as an empty field.
      *
      * @param table    The list of Double values.
      * @param filename The name of the output CSV file.
      */
     public void writeDoubleToCSV(ArrayList<Double> table, String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            // Write the headers
-            writer.write("Double Value\n");
+        writeDoubleColumn(table, filename);
+    }
+
+
+    /**
+     * Writes a list of Double values to a CSV file as writeDoubleToCSV does, without needing a bot.
+     *
+     * @param table    The list of Double values.
+     * @param filename The name of the output CSV file.
+     */
+    static void writeDoubleColumn(List<Double> table, String filename) {
+        try (CsvWriter writer = new CsvWriter(filename)) {
+            writer.header("Double Value");
 
             for(int i=0; i < table.size(); i++) {
                 Double current = table.get(i);
-                writer.write(current + "\n");
+                if (current != null) {
+                    writer.field(current.doubleValue());
+                } else {
+                    writer.emptyField();
+                }
+                writer.endRow();
             }
         } catch(IOException e) {
             System.out.println("An error occurred while writing to the CSV file");
@@ -372,19 +791,54 @@ public class StockBot {
     /**
      * Creates a JFreeCHart graph from the provided stock data.
      *
-     * @param points The stock data points to plot.
+     * @param points The stock data points to plot, in date order.
      * @param name   The name of the graph.
      */
     public static void createGraph(List<StockData> points, String name) {
-        TimeSeriesCollection dataset = new TimeSeriesCollection();
-        TimeSeries series = new TimeSeries("Stock Data");
+        JFreeChart timeSeriesChart = createChart(StockSeries.fromStockData(points), name, SCREEN_WIDTH);
+        ChartPanel chartPanel = new ChartPanel(timeSeriesChart);
+        JFrame frame = new JFrame();
+        frame.add(chartPanel);
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        frame.setVisible(true);
+    }
+
 
-        for (StockData data : points) {
-            series.add(new Day(data.getDate()), data.getOpen());
+    /**
+     * Creates the opening price chart that createGraph shows, without showing it.
+     *
+     * A series with more than two bars per pixel column of the chart is first reduced to that many with
+     * Downsampler.largestTriangleThreeBuckets, which keeps its peaks and troughs. The bars that are left
+     * go into the dataset as two arrays in one call, which fires a single change event, instead of one
+     * sorted insert and change event per bar into a TimeSeries.
+     *
+     * @param bars  The bars to plot, in date order.
+     * @param name  The name of the graph.
+     * @param width The width the chart will be drawn at, in pixels.
+     * @return The chart.
+     */
+    public static JFreeChart createChart(BarSeries bars, String name, int width) {
+        int n = bars.size();
+        double[] days = new double[n];
+        double[] open = new double[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = bars.getEpochDay(i);
+            open[i] = bars.getOpen(i);
+        }
+        int[] kept = Downsampler.largestTriangleThreeBuckets(days, open, Math.max(3, 2 * width));
+        // Plotted at the start of each day in the default time zone, as a TimeSeries of Days is
+        ZoneId zone = ZoneId.systemDefault();
+        double[][] data = new double[2][kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            data[0][i] = LocalDate.ofEpochDay(bars.getEpochDay(kept[i])).atStartOfDay(zone).toInstant().toEpochMilli();
+            data[1][i] = open[kept[i]];
         }
-        dataset.addSeries(series);
+        DefaultXYDataset dataset = new DefaultXYDataset();
+        dataset.addSeries("Stock Data", data);
 
-        JFreeChart timeSeriesChart = ChartFactory.createTimeSeriesChart(
+        return ChartFactory.createTimeSeriesChart(
                 name + " Time Series Chart",
                 "Date",
                 "Open Price",
@@ -393,13 +847,23 @@ public class StockBot {
                 true, // tooltips
                 false // urls
         );
-        ChartPanel chartPanel = new ChartPanel(timeSeriesChart);
-        JFrame frame = new JFrame();
-        frame.add(chartPanel);
-        frame.pack();
-        frame.setLocationRelativeTo(null);
-        frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
-        frame.setVisible(true);
+    }
+
+
+    /**
+     * Renders the opening price chart straight to a PNG file, without a window or a display, so it
+     * works on a headless server (-Djava.awt.headless=true). Each call builds its own chart, so many
+     * charts can be rendered from parallel threads.
+     *
+     * @param bars   The bars to plot, in date order.
+     * @param name   The name of the graph.
+     * @param file   The PNG file to write, replaced if it exists.
+     * @param width  The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void saveChartAsPng(BarSeries bars, String name, Path file, int width, int height) throws IOException {
+        ChartUtils.saveChartAsPNG(file.toFile(), createChart(bars, name, width), width, height);
     }
 
 
@@ -459,5 +923,11 @@ public class StockBot {
         this.sum = 0;
         this.rollingList.clear();
         this.rollingList.add(originalList.get(0)); // Reset to the first day
+        this.rollingAvg.clear();
+        this.rollingRSI.clear();
+        this.rsiIndicator.reset();
+        this.openAverage.reset();
+        this.volumeAverage.reset();
+        updateIndicators(originalList.get(0));
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.stream.IntStream;
+
+/**
+ * Loads Date,Open,High,Low,Close,Adj Close,Volume CSV files into a StockSeries.
+ *
+ * The file is memory-mapped and each field is parsed straight from the mapped bytes into primitive
+ * columns, so no line Strings, split arrays, Date objects or StockData rows are created. Large files
+ * can be split into chunks that are parsed in parallel and joined in order.
+ */
+public final class StockCsvLoader {
+
+    // Longest line accepted; a chunk maps this much past its end so it can finish its last line
+    static final int MAX_LINE = 4096;
+
+    // Files smaller than this per thread are not worth splitting
+    static final long MIN_CHUNK = 1 << 20;
+
+    // Largest region mapped at once, comfortably below the 2 GB limit of a MappedByteBuffer
+    static final long MAX_CHUNK = 1L << 30;
+
+    private StockCsvLoader() {
+    }
+
+    /**
+     * Loads a CSV file on the calling thread.
+     *
+     * @param fileName The name of the CSV file containing stock data.
+     * @return The bars in the file, in file order.
+     * @throws IOException If the file cannot be read or a line is malformed.
+     */
+    public static StockSeries load(String fileName) throws IOException {
+        return load(Paths.get(fileName), 1);
+    }
+
+    /**
+     * Loads a CSV file, splitting it into up to parallelism chunks that are parsed concurrently.
+     *
+     * @param path        The CSV file containing stock data.
+     * @param parallelism The largest number of chunks to parse at once.
+     * @return The bars in the file, in file order.
+     * @throws IOException If the file cannot be read or a line is malformed.
+     */
+    public static StockSeries load(Path path, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long wanted = Math.max(1, Math.min(parallelism, fileSize / MIN_CHUNK));
+            int chunks = (int) Math.max(wanted, (fileSize + MAX_CHUNK - 1) / MAX_CHUNK);
+            long chunkSize = Math.max(1, (fileSize + chunks - 1) / chunks);
+
+            if (chunks == 1) {
+                return parseChunk(channel, 0, fileSize, fileSize).build();
+            }
+            StockSeries.Builder[] parts = new StockSeries.Builder[chunks];
+            try {
+                IntStream.range(0, chunks).parallel().forEach(k -> {
+                    long start = Math.min(fileSize, k * chunkSize);
+                    long end = Math.min(fileSize, start + chunkSize);
+                    try {
+                        parts[k] = parseChunk(channel, start, end, fileSize);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int total = 0;
+            for (StockSeries.Builder part : parts) {
+                total += part.size();
+            }
+            StockSeries.Builder all = new StockSeries.Builder(total);
+            for (StockSeries.Builder part : parts) {
+                all.addAll(part);
+            }
+            return all.build();
+        }
+    }
+
+    /**
+     * Parses every line that starts inside [start, end) of the file. A line that starts
+     * before start belongs to the previous chunk even if it runs into this one.
+     */
+    private static StockSeries.Builder parseChunk(FileChannel channel, long start, long end, long fileSize)
+            throws IOException {
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(fileSize, end + MAX_LINE);
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = (int) (mapEnd - mapStart);
+        int owned = (int) (end - mapStart);
+        StockSeries.Builder columns = new StockSeries.Builder((int) Math.min(Integer.MAX_VALUE - 8, (end - start) / 64));
+        BarSource.Listener add = columns::add;
+
+        int pos = 0;
+        if (start > 0) {
+            // Skip the tail of the line that the previous chunk owns
+            while (pos < limit && bytes.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        } else if (limit > 0 && (bytes.get(0) < '0' || bytes.get(0) > '9')) {
+            // Header line
+            while (pos < limit && bytes.get(pos) != '\n') {
+                pos++;
+            }
+            pos++;
+        }
+
+        while (pos < owned && pos < limit) {
+            int lineEnd = pos;
+            while (lineEnd < limit && bytes.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && mapEnd < fileSize) {
+                throw new IOException("Line at byte " + (mapStart + pos) + " is longer than " + MAX_LINE + " bytes");
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > pos && bytes.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > pos) {
+                try {
+                    parseLine(bytes, pos, lineEnd, add);
+                } catch (NumberFormatException | DateTimeParseException | IndexOutOfBoundsException e) {
+                    throw new IOException("Malformed line at byte " + (mapStart + pos) + ": \""
+                            + AsciiParser.text(bytes, pos, lineEnd) + "\"", e);
+                }
+            }
+            pos = next;
+        }
+        return columns;
+    }
+
+    /**
+     * Parses one Date,Open,High,Low,Close,Adj Close,Volume line, without its line break, and passes
+     * the bar on. A malformed line throws a NumberFormatException, DateTimeParseException or
+     * IndexOutOfBoundsException.
+     */
+    static void parseLine(ByteBuffer bytes, int from, int to, BarSource.Listener bars) {
+        int date = IsoDate.parse(bytes, from);
+        if (bytes.get(from + 10) != ',') {
+            throw new NumberFormatException("Expected ',' after the date");
+        }
+        int field = from + 11;
+        int comma = nextComma(bytes, field, to);
+        double open = AsciiParser.parseDouble(bytes, field, comma);
+        field = comma + 1;
+        comma = nextComma(bytes, field, to);
+        double high = AsciiParser.parseDouble(bytes, field, comma);
+        field = comma + 1;
+        comma = nextComma(bytes, field, to);
+        double low = AsciiParser.parseDouble(bytes, field, comma);
+        field = comma + 1;
+        comma = nextComma(bytes, field, to);
+        double close = AsciiParser.parseDouble(bytes, field, comma);
+        field = comma + 1;
+        comma = nextComma(bytes, field, to);
+        double adjClose = AsciiParser.parseDouble(bytes, field, comma);
+        field = comma + 1;
+        comma = nextComma(bytes, field, to);
+        long volume = AsciiParser.parseLong(bytes, field, comma);
+        bars.onBar(date, open, high, low, close, adjClose, volume);
+    }
+
+    private static int nextComma(ByteBuffer bytes, int from, int to) {
+        int i = from;
+        while (i < to && bytes.get(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -1,6 +1,5 @@
+import java.time.LocalDate;
 import java.util.Date;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 
 /**
  * Represents the stock data for a single trading day.
@@ -8,7 +7,7 @@ import java.text.SimpleDateFormat;
  * @author Ivan Wang
  */
 public class StockData {
-     private Date date;
+     private final int epochDay;
      private double open;
      private double high;
      private double low;
@@ -29,13 +28,25 @@ public class StockData {
       * @param close      The closing price of the stock.
       * @param adjClose   The adjusted closing price of the stock.
       * @param volume     The trading volume of the stock.
+      * @throws java.time.format.DateTimeParseException If dateString is not a valid "yyyy-MM-dd" date.
       */
      public StockData(String dateString, double open, double high, double low, double close, double adjClose, Long volume) {
-          try {
-               this.date = new SimpleDateFormat("yyyy-MM-dd").parse(dateString);
-          } catch (ParseException e) {
-               e.printStackTrace();
-          }
+          this(IsoDate.parse(dateString), open, high, low, close, adjClose, volume);
+     }
+
+     /**
+      * Constructs a new StockData object with detailed stock information.
+      *
+      * @param epochDay The date of the stock data as days since 1970-01-01.
+      * @param open     The opening price of the stock.
+      * @param high     The highest price of the stock during the trading day.
+      * @param low      The lowest price of the stock during the trading day.
+      * @param close    The closing price of the stock.
+      * @param adjClose The adjusted closing price of the stock.
+      * @param volume   The trading volume of the stock.
+      */
+     public StockData(int epochDay, double open, double high, double low, double close, double adjClose, Long volume) {
+          this.epochDay = epochDay;
           this.open = open;
           this.high = high;
           this.low = low;
@@ -49,13 +60,20 @@ public class StockData {
       *
       * @param dateString The date of the stock data in "yyyy-MM-dd" format.
       * @param open       The opening price of the stock.
+      * @throws java.time.format.DateTimeParseException If dateString is not a valid "yyyy-MM-dd" date.
       */
      public StockData(String dateString, double open){
-          try {
-               this.date = new SimpleDateFormat("yyyy-MM-dd").parse(dateString);
-          } catch (ParseException e) {
-               e.printStackTrace();
-          }
+          this(IsoDate.parse(dateString), open);
+     }
+
+     /**
+      * Constructs a new StockData object with the date and opening price.
+      *
+      * @param epochDay The date of the stock data as days since 1970-01-01.
+      * @param open     The opening price of the stock.
+      */
+     public StockData(int epochDay, double open) {
+          this.epochDay = epochDay;
           this.open = open;
      }
 
@@ -67,8 +85,23 @@ public class StockData {
       * @param open The opening price of the stock.
       */
      public StockData(Date date, double open) {
-          this.date = date;
-          this.open = open;
+          this(IsoDate.fromDate(date), open);
+     }
+
+
+     /**
+      * Constructs a new StockData object from an already parsed date.
+      *
+      * @param date     The date of the stock data.
+      * @param open     The opening price of the stock.
+      * @param high     The highest price of the stock during the trading day.
+      * @param low      The lowest price of the stock during the trading day.
+      * @param close    The closing price of the stock.
+      * @param adjClose The adjusted closing price of the stock.
+      * @param volume   The trading volume of the stock.
+      */
+     public StockData(Date date, double open, double high, double low, double close, double adjClose, long volume) {
+          this(IsoDate.fromDate(date), open, high, low, close, adjClose, volume);
      }
 
 
@@ -76,12 +109,31 @@ public class StockData {
      // Getter and setter methods
 
      /**
-      * Returns the date of the stock data.
+      * Returns the date of the stock data as a java.util.Date at midnight in the default time zone.
+      * A new Date is returned on every call.
       *
       * @return The date of the stock data.
       */
      public Date getDate() {
-          return date;
+          return IsoDate.toDate(epochDay);
+     }
+
+     /**
+      * Returns the date of the stock data.
+      *
+      * @return The date of the stock data.
+      */
+     public LocalDate getLocalDate() {
+          return LocalDate.ofEpochDay(epochDay);
+     }
+
+     /**
+      * Returns the date of the stock data as days since 1970-01-01.
+      *
+      * @return The epoch day of the stock data.
+      */
+     public int getEpochDay() {
+          return epochDay;
      }
 
      /**
@@ -0,0 +1,292 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily OHLCV bars for one instrument, stored column by column in primitive arrays
+ * instead of one StockData object per day.
+ *
+ * Dates are kept as epoch days (days since 1970-01-01). A series is never modified after it is built.
+ */
+public class StockSeries implements BarSeries {
+    private final int[] epochDays;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final double[] adjClose;
+    private final long[] volume;
+    private final int size;
+
+    /**
+     * Constructs a series from its columns. The arrays are used as they are, not copied,
+     * and must not be changed afterwards.
+     *
+     * @param epochDays The date of each bar as days since 1970-01-01.
+     * @param open      The opening prices.
+     * @param high      The highest prices.
+     * @param low       The lowest prices.
+     * @param close     The closing prices.
+     * @param adjClose  The adjusted closing prices.
+     * @param volume    The trading volumes.
+     * @param size      The number of bars; each array must hold at least this many values.
+     */
+    public StockSeries(int[] epochDays, double[] open, double[] high, double[] low,
+                       double[] close, double[] adjClose, long[] volume, int size) {
+        this.epochDays = epochDays;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.adjClose = adjClose;
+        this.volume = volume;
+        this.size = size;
+    }
+
+    /**
+     * Builds a series from a list of StockData rows.
+     *
+     * @param rows The rows to copy into columns.
+     * @return The columnar series.
+     */
+    public static StockSeries fromStockData(List<StockData> rows) {
+        int n = rows.size();
+        int[] days = new int[n];
+        double[] o = new double[n], h = new double[n], l = new double[n], c = new double[n], a = new double[n];
+        long[] v = new long[n];
+        for (int i = 0; i < n; i++) {
+            StockData row = rows.get(i);
+            days[i] = row.getEpochDay();
+            o[i] = row.getOpen();
+            h[i] = row.getHigh();
+            l[i] = row.getLow();
+            c[i] = row.getClose();
+            a[i] = row.getAdjClose();
+            v[i] = row.getVolume() == null ? 0 : row.getVolume();
+        }
+        return new StockSeries(days, o, h, l, c, a, v, n);
+    }
+
+    /**
+     * Expands the series into one StockData object per bar, for code that works on lists.
+     *
+     * @return A new list of StockData rows.
+     */
+    public List<StockData> toStockDataList() {
+        List<StockData> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new StockData(epochDays[i], open[i], high[i], low[i], close[i], adjClose[i], volume[i]));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the number of bars in the series.
+     *
+     * @return The number of bars.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the date of a bar as days since 1970-01-01.
+     *
+     * @param i The bar index.
+     * @return The epoch day of the bar.
+     */
+    @Override
+    public int getEpochDay(int i) {
+        return epochDays[checkIndex(i)];
+    }
+
+    /**
+     * Returns the date of a bar.
+     *
+     * @param i The bar index.
+     * @return The date of the bar.
+     */
+    public LocalDate getLocalDate(int i) {
+        return LocalDate.ofEpochDay(getEpochDay(i));
+    }
+
+    /**
+     * Returns the opening price of a bar.
+     *
+     * @param i The bar index.
+     * @return The opening price.
+     */
+    @Override
+    public double getOpen(int i) {
+        return open[checkIndex(i)];
+    }
+
+    /**
+     * Returns the highest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The highest price.
+     */
+    @Override
+    public double getHigh(int i) {
+        return high[checkIndex(i)];
+    }
+
+    /**
+     * Returns the lowest price of a bar.
+     *
+     * @param i The bar index.
+     * @return The lowest price.
+     */
+    @Override
+    public double getLow(int i) {
+        return low[checkIndex(i)];
+    }
+
+    /**
+     * Returns the closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The closing price.
+     */
+    @Override
+    public double getClose(int i) {
+        return close[checkIndex(i)];
+    }
+
+    /**
+     * Returns the adjusted closing price of a bar.
+     *
+     * @param i The bar index.
+     * @return The adjusted closing price.
+     */
+    @Override
+    public double getAdjClose(int i) {
+        return adjClose[checkIndex(i)];
+    }
+
+    /**
+     * Returns the trading volume of a bar.
+     *
+     * @param i The bar index.
+     * @return The trading volume.
+     */
+    @Override
+    public long getVolume(int i) {
+        return volume[checkIndex(i)];
+    }
+
+    /**
+     * Collects bars one at a time into growable columns and turns them into a StockSeries.
+     */
+    public static class Builder {
+        private int[] epochDays;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private double[] adjClose;
+        private long[] volume;
+        private int size;
+
+        /**
+         * Constructs an empty builder.
+         *
+         * @param capacity The number of bars to make room for up front.
+         */
+        public Builder(int capacity) {
+            capacity = Math.max(capacity, 16);
+            epochDays = new int[capacity];
+            open = new double[capacity];
+            high = new double[capacity];
+            low = new double[capacity];
+            close = new double[capacity];
+            adjClose = new double[capacity];
+            volume = new long[capacity];
+        }
+
+        /**
+         * Appends one bar.
+         *
+         * @param epochDay The date of the bar as days since 1970-01-01.
+         * @param o        The opening price.
+         * @param h        The highest price.
+         * @param l        The lowest price.
+         * @param c        The closing price.
+         * @param a        The adjusted closing price.
+         * @param v        The trading volume.
+         */
+        public void add(int epochDay, double o, double h, double l, double c, double a, long v) {
+            if (size == epochDays.length) {
+                grow(size + (size >> 1) + 1);
+            }
+            epochDays[size] = epochDay;
+            open[size] = o;
+            high[size] = h;
+            low[size] = l;
+            close[size] = c;
+            adjClose[size] = a;
+            volume[size] = v;
+            size++;
+        }
+
+        /**
+         * Appends every bar collected by another builder.
+         *
+         * @param other The builder whose bars go after the ones already here.
+         */
+        public void addAll(Builder other) {
+            if (size + other.size > epochDays.length) {
+                grow(size + other.size);
+            }
+            System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+            System.arraycopy(other.open, 0, open, size, other.size);
+            System.arraycopy(other.high, 0, high, size, other.size);
+            System.arraycopy(other.low, 0, low, size, other.size);
+            System.arraycopy(other.close, 0, close, size, other.size);
+            System.arraycopy(other.adjClose, 0, adjClose, size, other.size);
+            System.arraycopy(other.volume, 0, volume, size, other.size);
+            size += other.size;
+        }
+
+        /**
+         * Returns the number of bars collected so far.
+         *
+         * @return The number of bars.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Builds the series. The builder should not be used afterwards.
+         *
+         * @return The finished series.
+         */
+        public StockSeries build() {
+            if (size != epochDays.length) {
+                grow(size);
+            }
+            return new StockSeries(epochDays, open, high, low, close, adjClose, volume, size);
+        }
+
+        private void grow(int capacity) {
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            open = Arrays.copyOf(open, capacity);
+            high = Arrays.copyOf(high, capacity);
+            low = Arrays.copyOf(low, capacity);
+            close = Arrays.copyOf(close, capacity);
+            adjClose = Arrays.copyOf(adjClose, capacity);
+            volume = Arrays.copyOf(volume, capacity);
+        }
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * The three StockBot strategies as BarStrategy implementations. The no-argument versions trade on
+ * the indicators in the BarContext; the others take their thresholds and windows as parameters.
+ * With StockBot's defaults both make the same trades as the StockBot methods.
+ */
+public final class Strategies {
+
+    private Strategies() {
+    }
+
+    /**
+     * Strategy for long term hold: buy with all cash on the first day and sell everything on the last.
+     *
+     * @return The strategy.
+     */
+    public static BarStrategy longHold() {
+        return bar -> {
+            double shares = 0;
+            if (bar.getDay() == 0) {
+                shares = bar.getBalance() / bar.getOpen();
+            }
+            if (bar.isLastBar()) {
+                shares = -bar.getSharesOwned();
+            }
+            return shares;
+        };
+    }
+
+    /**
+     * Strategy for long term hold; the series is not needed and is only taken so that this
+     * can be used wherever a strategy is made per series.
+     *
+     * @param series The bars to trade.
+     * @return The strategy.
+     */
+    public static BarStrategy longHold(BarSeries series) {
+        return longHold();
+    }
+
+    /**
+     * Trading strategy based on the context's 14-day RSI and 30-day moving average, buying below
+     * an RSI of 30 and selling above 70.
+     *
+     * @return The strategy.
+     */
+    public static BarStrategy rsiAndMa() {
+        return bar -> rsiAndMa(bar, bar.getRsi(), bar.getMa(), 30, 70);
+    }
+
+    /**
+     * Trading strategy based on RSI and a moving average of the opening price.
+     *
+     * @param series     The bars to trade.
+     * @param rsiPeriod  The number of price changes the RSI averages over.
+     * @param oversold   Buy when the RSI is below this.
+     * @param overbought Sell when the RSI is above this.
+     * @param maWindow   The number of days in the moving average.
+     * @return The strategy.
+     */
+    public static BarStrategy rsiAndMa(BarSeries series, int rsiPeriod, double oversold,
+                                       double overbought, int maWindow) {
+        double[] rsi = IndicatorColumns.rsi(series, rsiPeriod, RsiIndicator.Smoothing.SIMPLE);
+        double[] ma = IndicatorColumns.openSma(series, maWindow);
+        return bar -> rsiAndMa(bar, rsi[bar.getDay()], ma[bar.getDay()], oversold, overbought);
+    }
+
+    /**
+     * Momentum and volume based strategy on the context's 30-day moving average: buy on high
+     * volume above the moving average, sell on high volume below it.
+     *
+     * @return The strategy.
+     */
+    public static BarStrategy momentumAndVolume() {
+        return bar -> momentumAndVolume(bar, bar.getMa(), bar.getAvgVolume());
+    }
+
+    /**
+     * Momentum and volume based strategy: buy on high volume above the moving average,
+     * sell on high volume below it.
+     *
+     * @param series   The bars to trade.
+     * @param maWindow The number of days in the moving average.
+     * @return The strategy.
+     */
+    public static BarStrategy momentumAndVolume(BarSeries series, int maWindow) {
+        double[] ma = IndicatorColumns.openSma(series, maWindow);
+        return bar -> momentumAndVolume(bar, ma[bar.getDay()], bar.getAvgVolume());
+    }
+
+    private static double rsiAndMa(BarContext bar, double todaysRSI, double ma, double oversold, double overbought) {
+        if (Double.isNaN(todaysRSI))
+            return 0;
+        double open = bar.getOpen();
+        double balance = bar.getBalance();
+        int sharesOwned = bar.getSharesOwned();
+        double shares = 0;
+        double maxInvestment = balance * 0.1; // Only use 10% of balance for each trade
+        if (todaysRSI < oversold) {
+            double investment = Math.min(maxInvestment, balance * 0.60);
+            shares = investment / open;
+        }
+        if (open < ma) {
+            double investment = Math.min(maxInvestment, balance);
+            shares += investment / open;
+        }
+        if (todaysRSI > overbought)
+            shares = -(sharesOwned * 0.40);
+        if (open > ma)
+            shares += -(sharesOwned * 0.33);
+
+        if (sharesOwned + shares < 0)
+            shares = 0;
+        return shares;
+    }
+
+    private static double momentumAndVolume(BarContext bar, double ma, double avgVolume) {
+        double open = bar.getOpen();
+        double balance = bar.getBalance();
+        double shares = 0;
+        if (open > ma && bar.getVolume() > avgVolume) {
+            // Buy when price is above MA and volume is high
+            shares = (balance * 0.05) / open;
+        } else if (open < ma && bar.getVolume() > avgVolume) {
+            // Sell when price is below MA and volume is high
+            shares = -Math.min(bar.getSharesOwned(), (balance * 0.05) / open);
+        }
+        return shares;
+    }
+}
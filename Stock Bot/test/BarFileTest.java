@@ -0,0 +1,195 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A bar file must read back exactly what was written, bit for bit, whether its columns are RAW or
+ * compressed, including NaN, negative zero, the infinities and volumes across the whole range of a long.
+ */
+class BarFileTest {
+
+    private static final double[] SPECIAL = {
+            Double.NaN, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE,
+            -Double.MAX_VALUE, Double.MAX_VALUE, Double.MIN_NORMAL, 1e300, -1e-300, 1.0 / 3
+    };
+
+    private static final long[] VOLUMES = {0, -1, 1, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, -123_456_789_012L};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void pricesRoundTrip() throws IOException {
+        // Prices with at most six decimals, as downloaded files hold, compress as DECIMAL
+        SplittableRandom random = new SplittableRandom(1);
+        int n = 5000;
+        StockSeries.Builder builder = new StockSeries.Builder(n);
+        double[] rsi = new double[n];
+        double[] ma = new double[n];
+        for (int i = 0; i < n; i++) {
+            double open = random.nextLong(1, 100_000_000_000L) / 1e6;
+            builder.add(10_000 + i, open, open + 0.5, open - 0.25, random.nextInt(10_000) / 100.0,
+                    random.nextInt(10_000) / 100.0, random.nextLong(1L << 40));
+            rsi[i] = random.nextDouble(100);
+            ma[i] = random.nextInt(1_000_000) / 1e4;
+        }
+        StockSeries series = builder.build();
+        for (boolean compress : new boolean[] {false, true}) {
+            BarFile file = roundTrip(series, rsi, ma, compress);
+            assertEncodings(compress ? new int[] {BarFile.DELTA, BarFile.DECIMAL, BarFile.DECIMAL, BarFile.DECIMAL,
+                    BarFile.DECIMAL, BarFile.DECIMAL, BarFile.DELTA, BarFile.XOR, BarFile.DECIMAL} : raw());
+            assertSameBars(series, rsi, ma, file);
+        }
+    }
+
+    @Test
+    void specialValuesRoundTrip() throws IOException {
+        SplittableRandom random = new SplittableRandom(2);
+        int n = 1000;
+        StockSeries.Builder builder = new StockSeries.Builder(n);
+        double[] rsi = new double[n];
+        double[] ma = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Repeats too, which XOR stores as a lone control byte
+            double value = i % 7 == 0 ? 42.5 : SPECIAL[random.nextInt(SPECIAL.length)];
+            double other = Double.longBitsToDouble(random.nextLong());
+            int day = i % 2 == 0 ? Integer.MIN_VALUE + i : Integer.MAX_VALUE - i;
+            builder.add(day, value, other, -value, i % 3 == 0 ? value : other, -0.0, VOLUMES[i % VOLUMES.length]);
+            rsi[i] = i < 14 ? Double.NaN : value;
+            ma[i] = other;
+        }
+        StockSeries series = builder.build();
+        for (boolean compress : new boolean[] {false, true}) {
+            BarFile file = roundTrip(series, rsi, ma, compress);
+            if (compress) {
+                for (int column = BarFile.OPEN; column <= BarFile.MA; column++) {
+                    int expected = column == BarFile.VOLUME ? BarFile.DELTA : BarFile.XOR;
+                    assertEquals(expected, encoding(column), "column " + column);
+                }
+            } else {
+                assertEncodings(raw());
+            }
+            assertSameBars(series, rsi, ma, file);
+        }
+    }
+
+    @Test
+    void seriesLargerThanTheBufferRoundTrips() throws IOException {
+        // Each RAW double column alone is more than one buffer, so every column crosses flushes
+        int n = BarFileWriter.BUFFER_SIZE / 8 + 12_345;
+        SplittableRandom random = new SplittableRandom(3);
+        StockSeries.Builder builder = new StockSeries.Builder(n);
+        for (int i = 0; i < n; i++) {
+            builder.add(i, random.nextInt(1_000_000) / 100.0, Double.longBitsToDouble(random.nextLong()),
+                    random.nextDouble(), i, -i, random.nextLong());
+        }
+        StockSeries series = builder.build();
+        for (boolean compress : new boolean[] {false, true}) {
+            assertSameBars(series, null, null, roundTrip(series, null, null, compress));
+        }
+    }
+
+    @Test
+    void emptySeriesRoundTrips() throws IOException {
+        StockSeries empty = new StockSeries.Builder(0).build();
+        for (boolean compress : new boolean[] {false, true}) {
+            assertSameBars(empty, null, null, roundTrip(empty, null, null, compress));
+            assertSameBars(empty, new double[0], new double[0], roundTrip(empty, new double[0], new double[0], compress));
+        }
+    }
+
+    @Test
+    void shortIndicatorColumnsAreRejected() {
+        StockSeries.Builder builder = new StockSeries.Builder(2);
+        builder.add(0, 1, 1, 1, 1, 1, 1);
+        builder.add(1, 1, 1, 1, 1, 1, 1);
+        StockSeries series = builder.build();
+        assertThrows(IllegalArgumentException.class,
+                () -> BarFileWriter.write(directory.resolve("short.bars"), series, new double[1], null, true));
+    }
+
+    private BarFile roundTrip(StockSeries series, double[] rsi, double[] ma, boolean compress) throws IOException {
+        Path path = directory.resolve("series" + BarFile.EXTENSION);
+        BarFileWriter.write(path, series, rsi, ma, compress);
+        return BarFile.open(path);
+    }
+
+    private static int[] raw() {
+        return new int[BarFile.COLUMNS];
+    }
+
+    private void assertEncodings(int[] expected) throws IOException {
+        for (int column = 0; column < BarFile.COLUMNS; column++) {
+            assertEquals(expected[column], encoding(column), "column " + column);
+        }
+    }
+
+    private int encoding(int column) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(directory.resolve("series" + BarFile.EXTENSION)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(BarFile.DIRECTORY_OFFSET + column * BarFile.ENTRY_SIZE);
+    }
+
+    private static void assertSameBars(StockSeries expected, double[] rsi, double[] ma, BarFile actual) {
+        int n = expected.size();
+        assertEquals(n, actual.size());
+        assertEquals(rsi != null, actual.hasRsi());
+        assertEquals(ma != null, actual.hasMa());
+        for (int i = 0; i < n; i++) {
+            String where = "bar " + i;
+            assertEquals(expected.getEpochDay(i), actual.getEpochDay(i), where);
+            assertSameBits(expected.getOpen(i), actual.getOpen(i), where);
+            assertSameBits(expected.getHigh(i), actual.getHigh(i), where);
+            assertSameBits(expected.getLow(i), actual.getLow(i), where);
+            assertSameBits(expected.getClose(i), actual.getClose(i), where);
+            assertSameBits(expected.getAdjClose(i), actual.getAdjClose(i), where);
+            assertEquals(expected.getVolume(i), actual.getVolume(i), where);
+            if (rsi != null) {
+                assertSameBits(rsi[i], actual.getRsi(i), where);
+            }
+            if (ma != null) {
+                assertSameBits(ma[i], actual.getMa(i), where);
+            }
+        }
+        if (rsi != null) {
+            double[] column = actual.rsiColumn();
+            assertEquals(n, column.length);
+            for (int i = 0; i < n; i++) {
+                assertSameBits(rsi[i], column[i], "rsi " + i);
+            }
+        } else {
+            assertNull(actual.rsiColumn());
+            assertThrows(IllegalStateException.class, () -> actual.getRsi(0));
+        }
+        if (ma != null) {
+            double[] column = actual.maColumn();
+            assertEquals(n, column.length);
+            for (int i = 0; i < n; i++) {
+                assertSameBits(ma[i], column[i], "ma " + i);
+            }
+        } else {
+            assertNull(actual.maColumn());
+        }
+        StockSeries copy = actual.toStockSeries();
+        assertEquals(n, copy.size());
+        for (int i = 0; i < n; i++) {
+            assertSameBits(expected.getClose(i), copy.getClose(i), "copy of bar " + i);
+            assertEquals(expected.getVolume(i), copy.getVolume(i), "copy of bar " + i);
+        }
+    }
+
+    private static void assertSameBits(double expected, double actual, String where) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual),
+                where + ": " + expected + " read back as " + actual);
+    }
+}
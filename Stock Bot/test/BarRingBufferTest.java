@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Hands bars between a producer thread and the test thread through small queues, so both sides keep
+ * finding the queue full or empty.
+ */
+class BarRingBufferTest {
+
+    private static final int BARS = 100_000;
+
+    @Test
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void consumerSeesEveryBarInOrder() throws InterruptedException {
+        for (int capacity : new int[] {1, 2, 8}) {
+            BarRingBuffer ring = new BarRingBuffer(capacity);
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < BARS; i++) {
+                    ring.onBar(i, i + 0.25, i + 0.5, i - 0.5, i + 0.125, i + 0.0625, 3L * i);
+                }
+                ring.close();
+            });
+            producer.start();
+
+            BarContext bar = new BarContext();
+            int taken = 0;
+            int idle = 0;
+            while (true) {
+                if (ring.poll(bar, taken)) {
+                    int i = taken;
+                    assertEquals(i, bar.getDay());
+                    assertEquals(i, bar.getEpochDay(), "capacity " + capacity);
+                    assertEquals(i + 0.25, bar.getOpen(), 0);
+                    assertEquals(i + 0.5, bar.getHigh(), 0);
+                    assertEquals(i - 0.5, bar.getLow(), 0);
+                    assertEquals(i + 0.125, bar.getClose(), 0);
+                    assertEquals(i + 0.0625, bar.getAdjClose(), 0);
+                    assertEquals(3L * i, bar.getVolume());
+                    taken++;
+                    idle = 0;
+                } else if (ring.isFinished()) {
+                    break;
+                } else {
+                    // Backs off rather than spins, so the producer gets to run on a single core too
+                    idle = BarRingBuffer.IdleStrategy.BACK_OFF.idle(idle);
+                }
+            }
+            assertEquals(BARS, taken, "capacity " + capacity);
+            producer.join();
+            assertTrue(ring.isFinished());
+            assertEquals(0, ring.size());
+        }
+    }
+
+    @Test
+    void notFinishedWhileBarsAreWaiting() {
+        BarRingBuffer ring = new BarRingBuffer(4);
+        assertTrue(ring.offer(1, 1, 1, 1, 1, 1, 1));
+        assertTrue(ring.offer(2, 2, 2, 2, 2, 2, 2));
+        ring.close();
+
+        BarContext bar = new BarContext();
+        assertFalse(ring.isFinished());
+        assertTrue(ring.poll(bar, 0));
+        assertFalse(ring.isFinished());
+        assertTrue(ring.poll(bar, 1));
+        assertEquals(2, bar.getEpochDay());
+        assertTrue(ring.isFinished());
+        assertFalse(ring.poll(bar, 2));
+    }
+
+    @Test
+    void offerFailsWhenFull() {
+        BarRingBuffer ring = new BarRingBuffer(3);
+        assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i, i, i, i, i, i, i));
+        }
+        assertFalse(ring.offer(4, 4, 4, 4, 4, 4, 4));
+        assertEquals(4, ring.size());
+        assertTrue(ring.poll(new BarContext(), 0));
+        assertTrue(ring.offer(4, 4, 4, 4, 4, 4, 4));
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void cancelWhileFullStopsTheProducer() throws InterruptedException {
+        BarRingBuffer ring = new BarRingBuffer(2);
+        RuntimeException[] thrown = new RuntimeException[1];
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; ; i++) {
+                    ring.onBar(i, i, i, i, i, i, i);
+                }
+            } catch (RuntimeException e) {
+                thrown[0] = e;
+            }
+        });
+        producer.start();
+        while (ring.size() < ring.capacity()) {
+            Thread.yield();
+        }
+        // Let the producer settle into waiting for room
+        Thread.sleep(Duration.ofMillis(50).toMillis());
+        assertTrue(producer.isAlive());
+
+        ring.cancel();
+        producer.join();
+        assertInstanceOf(CancellationException.class, thrown[0]);
+    }
+}
@@ -0,0 +1,134 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the bucket layout against the "within 1% across the whole range of a long" promise, the
+ * percentiles against a sorted array, and adding and resetting histograms.
+ */
+class LatencyHistogramTest {
+
+    private static final double[] PERCENTILES = {0, 1, 10, 25, 50, 75, 90, 99, 99.9, 99.99, 100};
+
+    @Test
+    void smallValuesGetABucketEach() {
+        for (long value = 0; value <= 127; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.highestInBucket((int) value));
+        }
+    }
+
+    @Test
+    void bucketBoundaries() {
+        assertEquals(127, LatencyHistogram.highestInBucket(LatencyHistogram.index(127)));
+        // 128 to 255 still have a bucket per value; 256 starts buckets two wide
+        assertEquals(128, LatencyHistogram.highestInBucket(LatencyHistogram.index(128)));
+        assertEquals(255, LatencyHistogram.highestInBucket(LatencyHistogram.index(255)));
+        assertEquals(LatencyHistogram.index(255) + 1, LatencyHistogram.index(256));
+        assertEquals(257, LatencyHistogram.highestInBucket(LatencyHistogram.index(256)));
+        assertEquals(LatencyHistogram.index(256), LatencyHistogram.index(257));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestInBucket(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void everyBucketIsWithinOnePercent() {
+        int last = LatencyHistogram.index(Long.MAX_VALUE);
+        long lowest = 0;
+        for (int i = 0; i <= last; i++) {
+            long highest = LatencyHistogram.highestInBucket(i);
+            assertEquals(i, LatencyHistogram.index(lowest), "bucket " + i);
+            assertEquals(i, LatencyHistogram.index(highest), "bucket " + i);
+            assertTrue(highest - lowest <= lowest / 100, "bucket " + i + " from " + lowest + " to " + highest);
+            if (i < last) {
+                assertEquals(i + 1, LatencyHistogram.index(highest + 1), "after bucket " + i);
+            }
+            lowest = highest + 1;
+        }
+    }
+
+    @Test
+    void percentilesMatchASortedArray() {
+        SplittableRandom random = new SplittableRandom(24);
+        for (int n : new int[] {1, 2, 10, 1000, 100_000}) {
+            long[] values = new long[n];
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < n; i++) {
+                // Spread over many powers of two, with a few huge ones
+                values[i] = random.nextInt(20) == 0 ? random.nextLong(Long.MAX_VALUE)
+                        : random.nextLong(1L << random.nextInt(1, 40));
+                histogram.record(values[i]);
+            }
+            Arrays.sort(values);
+            assertEquals(n, histogram.getCount());
+            assertEquals(values[0], histogram.getMin());
+            assertEquals(values[n - 1], histogram.getMax());
+            for (double percentile : PERCENTILES) {
+                long expected = values[(int) Math.max(0, Math.ceil(percentile / 100 * n) - 1)];
+                long actual = histogram.getValueAtPercentile(percentile);
+                String where = "n " + n + " p" + percentile;
+                assertTrue(actual >= expected, where + ": " + actual + " below " + expected);
+                assertTrue(actual - expected <= expected / 100, where + ": " + actual + " not within 1% of " + expected);
+            }
+        }
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void addMatchesRecordingEverything() {
+        SplittableRandom random = new SplittableRandom(7);
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong(1L << random.nextInt(1, 50));
+            all.record(value);
+            (i % 3 == 0 ? first : second).record(value);
+        }
+        first.add(second);
+        assertSameValues(all, first);
+        // Adding an empty histogram changes nothing, in either direction
+        first.add(new LatencyHistogram());
+        assertSameValues(all, first);
+        LatencyHistogram empty = new LatencyHistogram();
+        empty.add(all);
+        assertSameValues(all, empty);
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value < 1_000_000; value *= 3) {
+            histogram.record(value);
+        }
+        histogram.reset();
+        assertSameValues(new LatencyHistogram(), histogram);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        histogram.record(1000);
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(1000, histogram.getValueAtPercentile(0));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    private static void assertSameValues(LatencyHistogram expected, LatencyHistogram actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getMean(), actual.getMean(), 0);
+        for (double percentile : PERCENTILES) {
+            assertEquals(expected.getValueAtPercentile(percentile), actual.getValueAtPercentile(percentile),
+                    "p" + percentile);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * A live run must trade like a backtest, and must stop its feed thread when the strategy throws,
+ * whether the feed is waiting for room in the queue or blocked reading its source.
+ */
+class LiveTraderTest {
+
+    @Test
+    void replayMatchesBacktest() throws IOException, InterruptedException {
+        StockSeries series = StockCsvLoader.load("INTC 5Y Weekly.csv");
+        BacktestResult backtest = Backtester.run("", series, 10000, Strategies.rsiAndMa());
+        for (int capacity : new int[] {1, 4, 1024}) {
+            LiveTrader trader = new LiveTrader("", 10000, Strategies.rsiAndMa(), capacity,
+                    BarRingBuffer.IdleStrategy.BACK_OFF);
+            BacktestResult live = trader.run(BarSource.of(series));
+            assertEquals(series.size(), trader.getBarCount());
+            assertEquals(backtest.getBalance(), live.getBalance(), 0, "capacity " + capacity);
+            assertEquals(backtest.getSharesOwned(), live.getSharesOwned(), "capacity " + capacity);
+        }
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void throwingStrategyStopsAFeedWaitingForRoom() {
+        Thread[] feed = new Thread[1];
+        // Never runs out of bars, so the feed fills the queue and waits for room
+        BarSource endless = source(listener -> {
+            feed[0] = Thread.currentThread();
+            for (int i = 0; ; i++) {
+                listener.onBar(i, 10, 11, 9, 10, 10, 1000);
+            }
+        });
+        assertStrategyFailureStopsFeed(endless, feed);
+    }
+
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void throwingStrategyStopsAFeedBlockedOnItsSource() {
+        Thread[] feed = new Thread[1];
+        // A few bars, then blocks like a socket read with nothing to read
+        BarSource stalled = source(listener -> {
+            feed[0] = Thread.currentThread();
+            for (int i = 0; i < 5; i++) {
+                listener.onBar(i, 10, 11, 9, 10, 10, 1000);
+            }
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while reading");
+            }
+        });
+        assertStrategyFailureStopsFeed(stalled, feed);
+    }
+
+    @Test
+    void sourceFailureIsPassedOn() {
+        IOException failure = new IOException("Malformed bar");
+        BarSource broken = source(listener -> {
+            listener.onBar(0, 10, 11, 9, 10, 10, 1000);
+            throw failure;
+        });
+        LiveTrader trader = new LiveTrader("", 10000, Strategies.longHold());
+        assertSame(failure, assertThrows(IOException.class, () -> trader.run(broken)));
+    }
+
+    private static void assertStrategyFailureStopsFeed(BarSource source, Thread[] feed) {
+        IllegalStateException failure = new IllegalStateException("Strategy failed");
+        BarStrategy failing = bar -> {
+            if (bar.getDay() == 3) {
+                throw failure;
+            }
+            return 0;
+        };
+        LiveTrader trader = new LiveTrader("", 10000, failing, 2, BarRingBuffer.IdleStrategy.BACK_OFF);
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> trader.run(source)));
+        // run joins the feed thread before passing the failure on
+        assertFalse(feed[0].isAlive());
+    }
+
+    @FunctionalInterface
+    private interface Stream {
+        void stream(BarSource.Listener listener) throws IOException;
+    }
+
+    private static BarSource source(Stream stream) {
+        return new BarSource() {
+            @Override
+            public void stream(Listener listener) throws IOException {
+                stream.stream(listener);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
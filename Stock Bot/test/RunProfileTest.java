@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Phases must close when the work inside them throws, so that a failed strategy run does not leave
+ * the profile nested one level deeper for every later run.
+ */
+class RunProfileTest {
+
+    @BeforeEach
+    void enable() {
+        RunProfile.setEnabled(true);
+    }
+
+    @AfterEach
+    void disable() {
+        RunProfile.setEnabled(false);
+    }
+
+    @Test
+    void nestedPhasesCloseInOrder() {
+        RunProfile profile = RunProfile.createIfEnabled("test");
+        profile.begin(RunProfile.Phase.EXPORT);
+        profile.begin(RunProfile.Phase.INDICATORS);
+        assertEquals(2, profile.getDepth());
+        assertEquals(RunProfile.Phase.INDICATORS, profile.end(5).getPhase());
+        assertEquals(RunProfile.Phase.EXPORT, profile.end(5).getPhase());
+        assertEquals(0, profile.getDepth());
+        assertEquals(2, profile.getPhases().size());
+    }
+
+    @Test
+    void tooDeepNestingIsRejected() {
+        RunProfile profile = RunProfile.createIfEnabled("test");
+        for (int i = 0; i < 8; i++) {
+            profile.begin(RunProfile.Phase.INDICATORS);
+        }
+        assertThrows(IllegalStateException.class, () -> profile.begin(RunProfile.Phase.INDICATORS));
+        assertEquals(8, profile.getDepth());
+    }
+
+    @Test
+    void throwingStrategyClosesItsPhase() throws IOException {
+        StockBot bot = new StockBot.Builder().balance(10000).file("INTC 5Y Weekly.csv").build();
+        RunProfile profile = bot.getProfile();
+        assertNotNull(profile);
+        int before = profile.getPhases().size();
+        // More failures than phases can nest, so a leaked phase would make a later begin throw
+        for (int run = 0; run < 20; run++) {
+            bot.reset();
+            int[] day = {0};
+            assertThrows(ArithmeticException.class, () -> bot.run(open -> {
+                if (++day[0] == 3) {
+                    throw new ArithmeticException("strategy failed");
+                }
+                return 0;
+            }));
+            assertEquals(0, profile.getDepth(), "run " + run);
+            assertThrows(ArithmeticException.class, () -> bot.runBars(bar -> {
+                throw new ArithmeticException("strategy failed");
+            }));
+            assertEquals(0, profile.getDepth(), "run " + run);
+        }
+        List<RunProfile.PhaseRecord> phases = profile.getPhases();
+        assertEquals(before + 40, phases.size());
+        // The failed runs record the bars they finished
+        assertEquals(2, phases.get(before).getBars());
+        assertEquals(0, phases.get(before + 1).getBars());
+        assertEquals(2, phases.get(before).getLatencies().getCount());
+
+        bot.reset();
+        bot.run(open -> 0);
+        assertEquals(0, profile.getDepth());
+        assertEquals(StockCsvLoader.load("INTC 5Y Weekly.csv").size(), profile.getLastStrategyRun().getBars());
+    }
+}
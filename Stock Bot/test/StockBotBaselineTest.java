@@ -0,0 +1,195 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the constant-time indicators against the loops they replaced, on the CSV files shipped with
+ * the bot, and checks that the three strategies still end on the balances they ended on before the
+ * indicators were introduced.
+ */
+class StockBotBaselineTest {
+
+    private static final String[] FILES = {"INTC 5Y Weekly.csv", "INTC.csv", "TSLA 1Y Daily.csv", "TSLA 5Y Weekly.csv"};
+
+    // 30 is the window the strategies use and 50 the exported one; 1000 is wider than every file
+    private static final int[] WINDOWS = {1, 2, 10, 30, 50, 200, 1000};
+
+    // A running sum is not added up in the same order as the loops, so allow for rounding
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    void simpleMovingAverageMatchesMovingAvg() throws IOException {
+        for (String file : FILES) {
+            StockBot bot = new StockBot(10000, file);
+            List<StockData> bars = StockCsvLoader.load(file).toStockDataList();
+            for (int window : WINDOWS) {
+                bot.reset();
+                SimpleMovingAverage average = new SimpleMovingAverage(window);
+                for (int day = 1; day <= bars.size(); day++) {
+                    double expected = baselineMovingAvg(bars, window, day);
+                    String where = file + " window " + window + " day " + day;
+                    assertEquals(expected, bot.movingAvg(window), 0, where);
+                    assertEquals(expected, bot.dailyMovingAvg(window, day), 0, where);
+                    assertClose(expected, average.update(bars.get(day - 1).getOpen()), where);
+                    bot.newDay();
+                }
+            }
+        }
+    }
+
+    @Test
+    void cumulativeAverageMatchesCalculateAvgVolume() throws IOException {
+        for (String file : FILES) {
+            StockBot bot = new StockBot(10000, file);
+            List<StockData> bars = StockCsvLoader.load(file).toStockDataList();
+            CumulativeAverage average = new CumulativeAverage();
+            for (int day = 1; day <= bars.size(); day++) {
+                double expected = baselineAvgVolume(bars, day);
+                String where = file + " day " + day;
+                assertClose(expected, average.update(bars.get(day - 1).getVolume()), where);
+                assertClose(expected, bot.calculateAvgVolume(), where);
+                bot.newDay();
+            }
+        }
+    }
+
+    @Test
+    void rollingExtremeMatchesWindowScan() throws IOException {
+        for (String file : FILES) {
+            List<StockData> bars = StockCsvLoader.load(file).toStockDataList();
+            for (int window : WINDOWS) {
+                RollingExtreme max = RollingExtreme.max(window);
+                RollingExtreme min = RollingExtreme.min(window);
+                for (int day = 1; day <= bars.size(); day++) {
+                    double highest = Double.NEGATIVE_INFINITY;
+                    double lowest = Double.POSITIVE_INFINITY;
+                    for (int i = Math.max(day - window, 0); i < day; i++) {
+                        highest = Math.max(highest, bars.get(i).getHigh());
+                        lowest = Math.min(lowest, bars.get(i).getLow());
+                    }
+                    String where = file + " window " + window + " day " + day;
+                    assertEquals(highest, max.update(bars.get(day - 1).getHigh()), 0, where);
+                    assertEquals(lowest, min.update(bars.get(day - 1).getLow()), 0, where);
+                }
+            }
+        }
+    }
+
+    @Test
+    void exponentialMovingAverageMatchesRecurrence() throws IOException {
+        for (String file : FILES) {
+            List<StockData> bars = StockCsvLoader.load(file).toStockDataList();
+            for (int period : WINDOWS) {
+                ExponentialMovingAverage average = new ExponentialMovingAverage(period);
+                double alpha = 2.0 / (period + 1);
+                double expected = 0;
+                for (int day = 1; day <= bars.size(); day++) {
+                    double close = bars.get(day - 1).getClose();
+                    if (day <= period) {
+                        // Seeded with the plain mean of the first period closes
+                        expected = baselineMean(bars, 0, day);
+                    } else {
+                        expected = alpha * close + (1 - alpha) * expected;
+                    }
+                    assertClose(expected, average.update(close), file + " period " + period + " day " + day);
+                }
+            }
+        }
+    }
+
+    // The summaries Main printed before the strategies used the indicators, for each file and strategy
+    @Test
+    void strategiesEndOnBaselineBalances() throws IOException {
+        assertSummary("INTC 5Y Weekly.csv", "longHold", 9362.079584000001, 0, 0.0, 9362.079584000001);
+        assertSummary("INTC 5Y Weekly.csv", "rsiAndMa", 6087.537733889871, 0, 0.0, 6087.537733889871);
+        assertSummary("INTC 5Y Weekly.csv", "momentumAndVolume", 1514.461355635196, 143, 6436.429714000001,
+                7950.891069635197);
+        assertSummary("TSLA 5Y Weekly.csv", "longHold", 93676.0008, 0, 0.0, 93676.0008);
+        assertSummary("TSLA 5Y Weekly.csv", "rsiAndMa", 1937.8083743272384, 3, 702.5700059999999,
+                2640.378380327238);
+        assertSummary("TSLA 5Y Weekly.csv", "momentumAndVolume", 1934.9557564318216, 224, 52458.560448,
+                54393.51620443182);
+    }
+
+    // Through StockBot.run, which prints the summary, and through the Backtester with the same strategy
+    private static void assertSummary(String file, String strategy, double balance, int shares, double value,
+                                      double netWorth) throws IOException {
+        StockBot bot = new StockBot(10000, file);
+        StockBot.TradingStrategy trading;
+        BarStrategy bars;
+        switch (strategy) {
+            case "longHold":
+                trading = bot::longHoldStrategy;
+                bars = Strategies.longHold();
+                break;
+            case "rsiAndMa":
+                trading = bot::rsiAndMaStrategy;
+                bars = Strategies.rsiAndMa();
+                break;
+            default:
+                trading = bot::momentumAndVolumeStrategy;
+                bars = Strategies.momentumAndVolume();
+                break;
+        }
+        String where = file + " " + strategy;
+        String expected = "Money in your wallet = " + balance + "\n"
+                + "Shares owned right now = " + shares + "\n"
+                + "Value of your shares = " + value + "\n"
+                + "Total net worth = " + netWorth + "\n";
+        assertEquals(expected, printed(() -> bot.run(trading)), where);
+
+        BacktestResult result = Backtester.run(file, StockCsvLoader.load(file), 10000, bars);
+        assertClose(balance, result.getBalance(), where);
+        assertEquals(shares, result.getSharesOwned(), where);
+        assertClose(netWorth, result.getNetWorth(), where);
+    }
+
+    // What the runnable writes to System.out, with Unix line endings
+    private static String printed(Runnable runnable) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true));
+        try {
+            runnable.run();
+        } finally {
+            System.setOut(out);
+        }
+        return buffer.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    private static void assertClose(double expected, double actual, String where) {
+        assertEquals(expected, actual, TOLERANCE * Math.max(1, Math.abs(expected)), where);
+    }
+
+    // StockBot.movingAvg before SimpleMovingAverage: the mean open of the window of days before day
+    private static double baselineMovingAvg(List<StockData> bars, int window, int day) {
+        int startDate = Math.max(day - window, 0);
+        double movingSum = 0;
+        for (int i = startDate; i < day; i++) {
+            movingSum += bars.get(i).getOpen();
+        }
+        return movingSum / (day - startDate);
+    }
+
+    // StockBot.calculateAvgVolume before CumulativeAverage: the mean volume of the first day bars
+    private static double baselineAvgVolume(List<StockData> bars, int day) {
+        double totalVolume = 0;
+        for (int i = 0; i < day; i++) {
+            totalVolume += bars.get(i).getVolume();
+        }
+        return totalVolume / day;
+    }
+
+    private static double baselineMean(List<StockData> bars, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += bars.get(i).getClose();
+        }
+        return sum / (to - from);
+    }
+}
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The table StockBot exports must have exactly one field per column on every row, with no trailing
+ * comma, and its numbers must read back to the values written.
+ */
+class StockTableTest {
+
+    private static final String HEADER = "date,open,high,low,close,adj close,volume,rsi,ma";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rowsHaveNoTrailingComma() throws IOException {
+        List<StockData> table = new ArrayList<>();
+        table.add(new StockData(0, 1.5, 2.25, 1.0, 2.0, 1.9999, 1000L));
+        // A missing volume, and indicators that are not ready yet
+        StockData missing = new StockData(19_000, 0.001, 1e7, -0.0, 123.456789, 3e-5, null);
+        missing.setRsi(Double.NaN);
+        missing.setMa(Double.NaN);
+        table.add(missing);
+        StockData last = new StockData(20_000, 45.67, 46.0, 44.5, 45.0, 44.98, Long.MAX_VALUE);
+        last.setRsi(55.5);
+        last.setMa(45.123);
+        table.add(last);
+        Path file = directory.resolve("table.csv");
+        StockBot.writeStockTable(table, file.toString());
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        assertEquals(HEADER, lines.get(0));
+        assertEquals(table.size() + 1, lines.size());
+        assertEquals("1970-01-01,1.5,2.25,1.0,2.0,1.9999,1000,0.0,0.0", lines.get(1));
+        assertEquals("2022-01-08,0.001,1.0E7,-0.0,123.456789,3.0E-5,,NaN,NaN", lines.get(2));
+        assertEquals("2024-10-04,45.67,46.0,44.5,45.0,44.98,9223372036854775807,55.5,45.123", lines.get(3));
+        for (String line : lines) {
+            assertFalse(line.endsWith(","), line);
+            assertEquals(9, line.split(",", -1).length, line);
+        }
+    }
+
+    @Test
+    void exportReadsBack() throws IOException {
+        StockSeries series = StockCsvLoader.load("TSLA 1Y Daily.csv");
+        List<StockData> table = series.toStockDataList();
+        Path file = directory.resolve("tsla.csv");
+        StockBot.writeStockTable(table, file.toString());
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        assertEquals(HEADER, lines.get(0));
+        assertEquals(table.size() + 1, lines.size());
+        for (int i = 0; i < table.size(); i++) {
+            String line = lines.get(i + 1);
+            String[] fields = line.split(",", -1);
+            assertEquals(9, fields.length, line);
+            StockData expected = table.get(i);
+            assertEquals(expected.getOpen(), Double.parseDouble(fields[1]), 0, line);
+            assertEquals(expected.getHigh(), Double.parseDouble(fields[2]), 0, line);
+            assertEquals(expected.getLow(), Double.parseDouble(fields[3]), 0, line);
+            assertEquals(expected.getClose(), Double.parseDouble(fields[4]), 0, line);
+            assertEquals(expected.getAdjClose(), Double.parseDouble(fields[5]), 0, line);
+            assertEquals(expected.getVolume().longValue(), Long.parseLong(fields[6]), line);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import benchmarks.Workload;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+
+/**
+ * The Java PSS cases the jmh benchmarks time: the generators of the given size, and the smoothing,
+ * convolution and export cases on a salted parabola of that size.
+ */
+public class PssWorkload implements Workload {
+
+    @Override
+    public Callable<Object> prepare(String operation, int size, int window, Path directory) {
+        Callable<Object> generator = generator(operation, size);
+        if (generator != null) {
+            return generator;
+        }
+        PointSeries series = PlotLibrary.Salt(PlotLibrary.parabolaSeries(0.05, 2, size - 1, 1), 50);
+        switch (operation) {
+            case "PlotLibrary.Smooth":
+                return () -> PlotLibrary.Smooth(series, window);
+            case "PlotLibrary.SmoothParallel":
+                return () -> PlotLibrary.SmoothParallel(series, window);
+            case "ApachePSS.Smoother":
+                return () -> ApachePSS.Smoother(series, window);
+            case "ApachePSS.SmootherParallel":
+                return () -> ApachePSS.SmootherParallel(series, window);
+            // The filters at the same width as a window-wide box, each instance reused like a caller would
+            case "ExponentialSmoother":
+                return filter(ExponentialSmoother.ofSpan(2 * window + 1), series);
+            case "SavitzkyGolaySmoother":
+                return filter(new SavitzkyGolaySmoother(window, 2), series);
+            case "RunningMedianSmoother":
+                return filter(new RunningMedianSmoother(window), series);
+            case "KernelSmoother":
+                return filter(KernelSmoother.gaussian(window / 3.0, window), series);
+            case "LoessSmoother":
+                return filter(new LoessSmoother(window, 2), series);
+            case "PlotLibrary.Smooth(ArrayList)": {
+                ArrayList<Point> list = series.toList();
+                return () -> PlotLibrary.Smooth(list, window);
+            }
+            case "PlotLibrary.SmoothNaive": {
+                ArrayList<Point> list = series.toList();
+                return () -> PlotLibrary.SmoothNaive(list, window);
+            }
+            // A box kernel as wide as the window, applied directly and through the FFT
+            case "Convolver.direct":
+                return convolve(new Convolver(box(window), false), series);
+            case "Convolver.fft":
+                return convolve(new Convolver(box(window), true), series);
+            case "PlotLibrary.plotToCSV": {
+                String file = directory.resolve("points.csv").toString();
+                return () -> {
+                    PlotLibrary.plotToCSV(series, file);
+                    return file;
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    // The series generators and salting loops, the original per-point ones next to the SignalKernels
+    // array kernels; null for any other operation
+    private static Callable<Object> generator(String operation, int size) {
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        SignalKernels.linspace(xs, -size / 2.0, 1);
+        double step = 2 * Math.PI / (size - 1);
+        switch (operation) {
+            case "Math.pow x^2":
+                return () -> {
+                    for (int i = 0; i < size; i++) {
+                        ys[i] = 0.05 * Math.pow(xs[i], 2);
+                    }
+                    return ys;
+                };
+            case "SignalKernels.power x^2":
+                return () -> {
+                    SignalKernels.power(xs, 0.05, 2, ys);
+                    return ys;
+                };
+            case "Math.pow x^7":
+                return () -> {
+                    for (int i = 0; i < size; i++) {
+                        ys[i] = 0.05 * Math.pow(xs[i], 7);
+                    }
+                    return ys;
+                };
+            case "SignalKernels.power x^7":
+                return () -> {
+                    SignalKernels.power(xs, 0.05, 7, ys);
+                    return ys;
+                };
+            case "SignalKernels.powerBySquaring x^7":
+                return () -> {
+                    SignalKernels.powerBySquaring(xs, 0.05, 7, ys);
+                    return ys;
+                };
+            case "SignalKernels.polynomial": {
+                double[] cubic = {1, -2, 0.5, 0.01};
+                return () -> {
+                    SignalKernels.polynomial(xs, cubic, ys);
+                    return ys;
+                };
+            }
+            case "Math.sin":
+                return () -> {
+                    for (int i = 0; i < size; i++) {
+                        ys[i] = Math.sin(i * step);
+                    }
+                    return ys;
+                };
+            case "SignalKernels.sine":
+                return () -> {
+                    SignalKernels.sine(ys, 0, step);
+                    return ys;
+                };
+            case "SignalKernels.sineRamp":
+                return () -> {
+                    SignalKernels.sineRamp(ys, 0, step);
+                    return ys;
+                };
+            case "Random.nextDouble": {
+                Random random = new Random(7);
+                return () -> {
+                    for (int i = 0; i < size; i++) {
+                        ys[i] += 50 * random.nextDouble(-1, 1);
+                    }
+                    return ys;
+                };
+            }
+            case "SignalKernels.addUniformNoise": {
+                SplittableRandom random = new SplittableRandom(7);
+                return () -> {
+                    SignalKernels.addUniformNoise(ys, 0, size, 50, random);
+                    return ys;
+                };
+            }
+            // Building the points alone, so -prof gc shows what each representation costs per point
+            case "PlotLibrary.plotParabola":
+                return () -> PlotLibrary.plotParabola(0.05, 2, size - 1, 1);
+            case "PlotLibrary.parabolaSeries":
+                return () -> PlotLibrary.parabolaSeries(0.05, 2, size - 1, 1);
+            // generate -> salt, and generate -> salt -> smooth, the pipelines Main runs
+            case "parabolaSeries + Salt":
+                return () -> PlotLibrary.Salt(PlotLibrary.parabolaSeries(0.05, 2, size - 1, 1), 50);
+            case "SineSeries + Salter":
+                return () -> ApachePSS.Salter(ApachePSS.SineSeries(size, 0, 2 * Math.PI), 3);
+            case "plotParabola + Salt + Smooth":
+                return () -> PlotLibrary.Smooth(PlotLibrary.Salt(PlotLibrary.plotParabola(0.05, 2, size - 1, 1), 50), 10);
+            case "parabolaSeries + Salt + Smooth":
+                return () -> PlotLibrary.Smooth(PlotLibrary.Salt(PlotLibrary.parabolaSeries(0.05, 2, size - 1, 1), 50), 10);
+            default:
+                return null;
+        }
+    }
+
+    private static double[] box(int width) {
+        double[] kernel = new double[width];
+        for (int k = 0; k < width; k++) {
+            kernel[k] = 1.0 / width;
+        }
+        return kernel;
+    }
+
+    private static Callable<Object> convolve(Convolver convolver, PointSeries series) {
+        double[] ys = series.toYArray();
+        double[] out = new double[ys.length];
+        return () -> {
+            convolver.correlate(ys, out);
+            return out;
+        };
+    }
+
+    private static Callable<Object> filter(Smoother filter, PointSeries series) {
+        double[] ys = series.toYArray();
+        double[] out = new double[ys.length];
+        return () -> {
+            filter.smooth(ys, out);
+            return out;
+        };
+    }
+}
@@ -0,0 +1,307 @@
+import benchmarks.Workload;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The Stock Bot cases the jmh benchmarks time, on a random walk of the given size.
+ */
+public class StockBotWorkload implements Workload {
+
+    // Copies of the series in the garbage collection and sweep cases, as if for that many symbols
+    private static final int SYMBOLS = 100;
+
+    /**
+     * Builds the input for one case.
+     *
+     * @param operation The name of the operation.
+     * @param size      The number of bars.
+     * @param window    The moving average window, or 0 for an operation without one.
+     * @param directory The directory the CSV files go in.
+     * @return The operation.
+     * @throws Exception If the input cannot be built.
+     */
+    @Override
+    public Callable<Object> prepare(String operation, int size, int window, Path directory) throws Exception {
+        StockSeries series = syntheticSeries(size);
+        switch (operation) {
+            case "StockBot.new": {
+                String file = csv(directory, size);
+                return () -> new StockBot(10000, file);
+            }
+            case "StockBot.Builder.series": {
+                StockSeries loaded = StockCsvLoader.load(Path.of(csv(directory, size)), 1);
+                return () -> new StockBot.Builder().balance(10000).series(loaded).build();
+            }
+            case "StockBot.exportAdjusted": {
+                StockBot bot = new StockBot(10000, csv(directory, size));
+                String adjusted = directory.resolve("adjusted.csv").toString();
+                return () -> {
+                    bot.exportAdjusted(adjusted);
+                    return adjusted;
+                };
+            }
+            case "BufferedReader + split": {
+                String file = csv(directory, size);
+                return () -> readLikeConstructor(file);
+            }
+            case "StockCsvLoader.load": {
+                Path file = Path.of(csv(directory, size));
+                return () -> StockCsvLoader.load(file, 1);
+            }
+            case "StockCsvLoader.load(parallel)": {
+                Path file = Path.of(csv(directory, size));
+                int threads = Runtime.getRuntime().availableProcessors();
+                return () -> StockCsvLoader.load(file, threads);
+            }
+            case "BarFile.open(raw)":
+            case "BarFile.open(compressed)": {
+                Path file = directory.resolve("bars" + BarFile.EXTENSION);
+                BarFileWriter.write(file, series, null, null, operation.equals("BarFile.open(compressed)"));
+                return () -> BarFile.open(file).toStockSeries();
+            }
+            case "StockBot.writeStockTable": {
+                ArrayList<StockData> table = exportLikeTable(size);
+                String adjusted = directory.resolve("adjusted.csv").toString();
+                return () -> {
+                    StockBot.writeStockTable(table, adjusted);
+                    return adjusted;
+                };
+            }
+            case "BufferedWriter + concatenation": {
+                ArrayList<StockData> table = exportLikeTable(size);
+                String adjusted = directory.resolve("adjusted.csv").toString();
+                return () -> {
+                    writeLikeBefore(table, adjusted);
+                    return adjusted;
+                };
+            }
+            case "StockBot.calculateRSI": {
+                List<StockData> rows = series.toStockDataList();
+                return () -> StockBot.calculateRSI(rows);
+            }
+            case "RsiIndicator.update": {
+                RsiIndicator rsi = new RsiIndicator(StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+                return () -> {
+                    rsi.reset();
+                    double last = 0;
+                    for (int i = 0; i < size; i++) {
+                        last = rsi.update(series.getClose(i));
+                    }
+                    return last;
+                };
+            }
+            case "StockBot.movingAvg": {
+                // One moving average per day, the way the strategies used to ask for it
+                StockBot bot = new StockBot(10000, csv(directory, size));
+                return () -> {
+                    bot.reset();
+                    double sum = 0;
+                    for (int day = 0; day < size; day++) {
+                        sum += bot.movingAvg(window);
+                        bot.newDay();
+                    }
+                    return sum;
+                };
+            }
+            case "SimpleMovingAverage.update": {
+                SimpleMovingAverage average = new SimpleMovingAverage(window);
+                return () -> {
+                    average.reset();
+                    double sum = 0;
+                    for (int day = 0; day < size; day++) {
+                        sum += average.update(series.getOpen(day));
+                    }
+                    return sum;
+                };
+            }
+            case "StockBot.Smoother": {
+                ArrayList<StockData> rows = new ArrayList<>(series.toStockDataList());
+                return () -> StockBot.Smoother(rows, window);
+            }
+            case "Backtester.longHold":
+                return () -> Backtester.run("", series, 10000, Strategies.longHold());
+            case "Backtester.rsiAndMa":
+                return () -> Backtester.run("", series, 10000, Strategies.rsiAndMa());
+            case "Backtester.momentumAndVolume":
+                return () -> Backtester.run("", series, 10000, Strategies.momentumAndVolume());
+            case "LiveTrader.rsiAndMa":
+                // The same trades with every bar handed from a feed thread through a BarRingBuffer
+                return () -> new LiveTrader("", 10000, Strategies.rsiAndMa()).run(BarSource.of(series));
+            // SYMBOLS copies of the series held live while the collector runs, on the heap as rows or
+            // columns or off it in a MarketDataStore
+            case "System.gc(List<StockData>)": {
+                List<List<StockData>> all = new ArrayList<>();
+                for (int k = 0; k < SYMBOLS; k++) {
+                    all.add(series.toStockDataList());
+                }
+                return collect(all);
+            }
+            case "System.gc(StockSeries)":
+                return collect(heapCopies(series));
+            case "System.gc(MarketDataStore)":
+                return collect(store(series));
+            // An RSI and moving average run over each of the SYMBOLS copies, on the heap or off it
+            case "Backtester.sweep(StockSeries)":
+                return sweep(heapCopies(series));
+            case "Backtester.sweep(MarketDataStore)": {
+                MarketDataStore store = store(series);
+                List<BarSeries> offHeap = new ArrayList<>();
+                for (String symbol : store.symbols()) {
+                    offHeap.add(store.get(symbol));
+                }
+                return sweep(offHeap);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private static List<BarSeries> heapCopies(StockSeries series) {
+        List<BarSeries> all = new ArrayList<>();
+        for (int k = 0; k < SYMBOLS; k++) {
+            all.add(OffHeapSeries.copyOf(series).toStockSeries());
+        }
+        return all;
+    }
+
+    private static MarketDataStore store(StockSeries series) {
+        MarketDataStore store = new MarketDataStore();
+        for (int k = 0; k < SYMBOLS; k++) {
+            store.put("S" + k, series);
+        }
+        return store;
+    }
+
+    private static Callable<Object> collect(Object live) {
+        return () -> {
+            System.gc();
+            return live;
+        };
+    }
+
+    private static Callable<Object> sweep(List<BarSeries> series) {
+        List<Backtester.Job> jobs = new ArrayList<>();
+        for (int k = 0; k < series.size(); k++) {
+            jobs.add(new Backtester.Job("S" + k, series.get(k), 10000, s -> Strategies.rsiAndMa(s, 14, 30, 70, 30)));
+        }
+        return () -> Backtester.sweep(jobs, ForkJoinPool.commonPool());
+    }
+
+    // The random walk as a Yahoo Finance style CSV in the directory
+    private static String csv(Path directory, int size) throws Exception {
+        Path file = directory.resolve("bars.csv");
+        writeSyntheticCsv(file, size);
+        return file.toString();
+    }
+
+    // The parsing loop the StockBot constructor used before StockCsvLoader
+    private static List<StockData> readLikeConstructor(String fileName) throws IOException {
+        List<StockData> data = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(fileName))) {
+            br.readLine();
+            for (String line; ((line = br.readLine()) != null); ) {
+                String[] lineData = line.split(",");
+                data.add(new StockData(lineData[0],
+                        Double.parseDouble(lineData[1]),
+                        Double.parseDouble(lineData[2]),
+                        Double.parseDouble(lineData[3]),
+                        Double.parseDouble(lineData[4]),
+                        Double.parseDouble(lineData[5]),
+                        Long.parseLong(lineData[6])));
+            }
+        }
+        return data;
+    }
+
+    // The writing loop writeStockDataToCSV used before CsvWriter, trailing comma included
+    private static void writeLikeBefore(List<StockData> stockTable, String filename) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
+            writer.write("date,open,high,low,close,adj close,volume,rsi,ma\n");
+            StringBuilder date = new StringBuilder(10);
+            for (StockData current : stockTable) {
+                date.setLength(0);
+                IsoDate.format(current.getEpochDay(), date);
+                writer.write(date + "," +
+                        current.getOpen() + "," +
+                        current.getHigh() + "," +
+                        current.getLow() + "," +
+                        current.getClose() + "," +
+                        current.getAdjClose() + "," +
+                        current.getVolume() + "," +
+                        current.getRsi() + "," +
+                        current.getMa() + "," +
+                        "\n");
+            }
+        }
+    }
+
+    // A random walk in the same layout as the Yahoo Finance downloads
+    private static void writeSyntheticCsv(Path file, int rows) throws IOException {
+        Random random = new Random(42);
+        LocalDate date = LocalDate.of(1970, 1, 1);
+        double price = 50;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file.toFile()))) {
+            writer.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+            for (int i = 0; i < rows; i++) {
+                double open = price;
+                double close = Math.max(1, open + random.nextGaussian());
+                double high = Math.max(open, close) + random.nextDouble();
+                double low = Math.min(open, close) - random.nextDouble();
+                writer.write(date + "," + String.format("%.6f,%.6f,%.6f,%.6f,%.6f", open, high, low, close, close)
+                        + "," + (1_000_000 + random.nextInt(50_000_000)) + "\n");
+                date = date.plusDays(1);
+                price = close;
+            }
+        }
+    }
+
+    // The same kind of random walk as writeSyntheticCsv, one bar per day from 1970-01-01, without a file
+    private static StockSeries syntheticSeries(int bars) {
+        Random random = new Random(42);
+        StockSeries.Builder columns = new StockSeries.Builder(bars);
+        double price = 50;
+        for (int i = 0; i < bars; i++) {
+            double open = price;
+            double close = Math.max(1, open + random.nextGaussian());
+            double high = Math.max(open, close) + random.nextDouble();
+            double low = Math.min(open, close) - random.nextDouble();
+            columns.add(i, open, high, low, close, close, 1_000_000 + random.nextInt(50_000_000));
+            price = close;
+        }
+        return columns.build();
+    }
+
+    // Rows shaped like an adjusted export: prices rounded to six decimals like the downloads, with the
+    // RSI and moving average computed from them keeping all their digits
+    private static ArrayList<StockData> exportLikeTable(int rows) {
+        StockSeries series = syntheticSeries(rows);
+        ArrayList<StockData> table = new ArrayList<>(rows);
+        for (StockData bar : series.toStockDataList()) {
+            table.add(new StockData(bar.getEpochDay(), round6(bar.getOpen()), round6(bar.getHigh()),
+                    round6(bar.getLow()), round6(bar.getClose()), round6(bar.getAdjClose()), bar.getVolume()));
+        }
+        StockSeries rounded = StockSeries.fromStockData(table);
+        double[] rsi = IndicatorColumns.rsi(rounded, StockBot.DEFAULT_RSI_PERIOD, RsiIndicator.Smoothing.SIMPLE);
+        double[] ma = IndicatorColumns.openSma(rounded, 50);
+        for (int i = 0; i < rows; i++) {
+            table.get(i).setRsi(rsi[i]);
+            table.get(i).setMa(ma[i]);
+        }
+        return table;
+    }
+
+    private static double round6(double value) {
+        return Math.round(value * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Convolver's direct and FFT paths with a box kernel across widths on a salted parabola, for where
+ * Convolver.DIRECT_MAX_WIDTH should sit: the direct path costs O(width) per point and the FFT path
+ * O(log width).
+ * Run with -prof gc for the allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class ConvolutionBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"9", "17", "33", "49", "65", "129", "513", "4097"})
+    private int width;
+
+    @Param({"Convolver.direct", "Convolver.fft"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("PssWorkload").prepare(operation, size, width, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object correlate() throws Exception {
+        return task.call();
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Java PSS series generators: the original per-point Math.pow, Math.sin and Random loops against
+ * the SignalKernels array kernels, building the points as an ArrayList and as a PointSeries, and the
+ * generate, salt and smooth pipelines Main runs end to end.
+ * Run with -prof gc for the allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class GeneratorBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"Math.pow x^2", "SignalKernels.power x^2", "Math.pow x^7", "SignalKernels.power x^7",
+            "SignalKernels.powerBySquaring x^7", "SignalKernels.polynomial", "Math.sin", "SignalKernels.sine",
+            "SignalKernels.sineRamp", "Random.nextDouble", "SignalKernels.addUniformNoise",
+            "PlotLibrary.plotParabola", "PlotLibrary.parabolaSeries", "parabolaSeries + Salt", "SineSeries + Salter",
+            "plotParabola + Salt + Smooth", "parabolaSeries + Salt + Smooth"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("PssWorkload").prepare(operation, size, 0, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object generate() throws Exception {
+        return task.call();
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Stock Bot moving averages over a random walk: StockBot.movingAvg asked once per day the way the
+ * strategies used to, the SimpleMovingAverage that replaced it, and the rolling-mean StockBot.Smoother.
+ * Run with -prof gc for the allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndicatorBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"10", "50", "200"})
+    private int window;
+
+    @Param({"StockBot.movingAvg", "SimpleMovingAverage.update", "StockBot.Smoother"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("StockBotWorkload").prepare(operation, size, window, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object average() throws Exception {
+        return task.call();
+    }
+}
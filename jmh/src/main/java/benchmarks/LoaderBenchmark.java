@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a random walk of bars: the parsing loop the StockBot constructor used (BufferedReader, split
+ * and one StockData per row) against StockCsvLoader on one thread and on all of them, and mapping the
+ * same bars from a raw and a compressed BarFile. Files go into a temporary directory.
+ * Run with -prof gc for the allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoaderBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"BufferedReader + split", "StockCsvLoader.load", "StockCsvLoader.load(parallel)", "BarFile.open(raw)",
+            "BarFile.open(compressed)"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("StockBotWorkload").prepare(operation, size, 0, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object load() throws Exception {
+        return task.call();
+    }
+}
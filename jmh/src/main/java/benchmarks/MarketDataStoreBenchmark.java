@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The same bars held for 100 symbols as StockData lists, as StockSeries on the heap and in a
+ * MarketDataStore off it: how long a full garbage collection takes with each live, and a Backtester
+ * sweep over every symbol from the heap and from the store. The size is the number of bars per symbol.
+ * Run with -prof gc for the allocation and the collections made per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MarketDataStoreBenchmark {
+
+    @Param({"1000", "20000"})
+    private int size;
+
+    @Param({"System.gc(List<StockData>)", "System.gc(StockSeries)", "System.gc(MarketDataStore)",
+            "Backtester.sweep(StockSeries)", "Backtester.sweep(MarketDataStore)"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("StockBotWorkload").prepare(operation, size, 0, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object run() throws Exception {
+        return task.call();
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Java PSS smoothing hot paths on a salted parabola: PlotLibrary.Smooth on both point
+ * representations, the original nested loop, ApachePSS.Smoother's rolling window mean, the parallel
+ * versions of both and the Smoother filters at the same width as the window-wide box.
+ * Run with -prof gc for the allocation per operation alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class SmoothingBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    private int size;
+
+    @Param({"2", "10", "50"})
+    private int window;
+
+    @Param({"PlotLibrary.Smooth", "PlotLibrary.SmoothParallel", "ApachePSS.Smoother", "ApachePSS.SmootherParallel",
+            "ExponentialSmoother", "SavitzkyGolaySmoother", "RunningMedianSmoother", "KernelSmoother",
+            "LoessSmoother", "PlotLibrary.Smooth(ArrayList)", "PlotLibrary.SmoothNaive"})
+    private String operation;
+
+    private Path directory;
+    private Callable<Object> task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = TempDirectory.create();
+        task = Workload.load("PssWorkload").prepare(operation, size, window, directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        TempDirectory.delete(directory);
+    }
+
+    @Benchmark
+    public Object smooth() throws Exception {
+        return task.call();
+    }
+}
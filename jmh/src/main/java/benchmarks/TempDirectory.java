@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The scratch directory each benchmark trial writes its files into, instead of the working directory.
+ */
+final class TempDirectory {
+
+    private TempDirectory() {
+    }
+
+    /**
+     * Creates an empty directory under java.io.tmpdir.
+     *
+     * @return The directory.
+     * @throws IOException If it cannot be created.
+     */
+    static Path create() throws IOException {
+        return Files.createTempDirectory("benchmarks");
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     *
+     * @param directory The directory, or null to do nothing.
+     * @throws IOException If something cannot be deleted.
+     */
+    static void delete(Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
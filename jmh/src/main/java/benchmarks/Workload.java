@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * The work one benchmark case times. The code under test lives in the default package, which a
+ * benchmark class cannot import, so each source root has a default-package adapter (PssWorkload,
+ * StockBotWorkload) that the benchmarks load by name.
+ */
+public interface Workload {
+
+    /**
+     * Builds the input for one case, outside the timed part.
+     *
+     * @param operation The name of the operation, one of the benchmark's operation parameters.
+     * @param size      The number of points or bars.
+     * @param window    The window, or 0 for an operation without one.
+     * @param directory An empty directory for any files the case reads or writes.
+     * @return The operation, returning its result so it cannot be optimised away.
+     * @throws Exception If the input cannot be built.
+     * @throws IllegalArgumentException If the operation is not known.
+     */
+    Callable<Object> prepare(String operation, int size, int window, Path directory) throws Exception;
+
+    /**
+     * Creates an adapter.
+     *
+     * @param className The name of the default-package adapter class.
+     * @return The adapter.
+     * @throws ReflectiveOperationException If the class cannot be loaded or constructed.
+     */
+    static Workload load(String className) throws ReflectiveOperationException {
+        return (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+    }
+}